@@ -0,0 +1,63 @@
+package com.mikulajakub.benchmarks;
+
+import com.mikulajakub.stream.AdaptiveExecutor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unconditional {@code parallel()} and {@code sequential()} against {@link AdaptiveExecutor}
+ * on tiny and large inputs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AdaptiveBenchmark {
+
+    @Param({"20", "1000000"})
+    public int size;
+
+    private List<Integer> integers;
+    private AdaptiveExecutor executor;
+
+    @Setup
+    public void setUp() {
+        integers = BenchmarkData.integers(size);
+        executor = AdaptiveExecutor.builder().build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.close();
+    }
+
+    @Benchmark
+    public long alwaysParallel() {
+        return integers.parallelStream().mapToLong(x -> (long) x * x).sum();
+    }
+
+    @Benchmark
+    public long alwaysSequential() {
+        return integers.stream().mapToLong(x -> (long) x * x).sum();
+    }
+
+    @Benchmark
+    public long adaptive() {
+        return executor.execute("sum-of-squares", integers, s -> s.mapToLong(x -> (long) x * x).sum());
+    }
+}
@@ -0,0 +1,102 @@
+package com.mikulajakub.benchmarks;
+
+import com.mikulajakub.model.Citizen;
+import com.mikulajakub.stream.Batching;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Handing citizens to a sink whose every call costs {@code callCost} tokens of
+ * {@link Blackhole#consumeCPU}, standing in for a write or a lookup, one
+ * citizen per call against one batch per call. With {@code -prof gc} the
+ * batch lists show up as allocation, the reused chunks do not. {@code listBatches}
+ * batches an already filtered list, the other stages batch a filtering pipeline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BatchingBenchmark {
+
+    @Param({"100000"})
+    public int size;
+
+    @Param({"256"})
+    public int batchSize;
+
+    @Param({"50"})
+    public int callCost;
+
+    private List<Citizen> citizens;
+    private List<Citizen> adults;
+
+    @Setup
+    public void setUp() {
+        citizens = BenchmarkData.citizens(size);
+        adults = citizens.stream().filter(c -> c.getAge() >= 18).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public void perElement(Blackhole blackhole) {
+        citizens.stream()
+                .filter(c -> c.getAge() >= 18)
+                .forEach(c -> {
+                    Blackhole.consumeCPU(callCost);
+                    blackhole.consume(c);
+                });
+    }
+
+    @Benchmark
+    public void batched(Blackhole blackhole) {
+        Batching.batch(citizens.stream().filter(c -> c.getAge() >= 18), batchSize)
+                .forEach(batch -> {
+                    Blackhole.consumeCPU(callCost);
+                    batch.forEach(blackhole::consume);
+                });
+    }
+
+    @Benchmark
+    public void chunked(Blackhole blackhole) {
+        Batching.chunks(citizens.stream().filter(c -> c.getAge() >= 18), batchSize)
+                .forEach(chunk -> {
+                    Blackhole.consumeCPU(callCost);
+                    chunk.forEach(blackhole::consume);
+                });
+    }
+
+    @Benchmark
+    public void batchedByWeight(Blackhole blackhole) {
+        Batching.batchByWeight(citizens.stream().filter(c -> c.getAge() >= 18), 16 * 1024,
+                        Duration.ofMillis(10), c -> 8 + c.getName().length())
+                .forEach(batch -> {
+                    Blackhole.consumeCPU(callCost);
+                    batch.forEach(blackhole::consume);
+                });
+    }
+
+    @Benchmark
+    public void listBatches(Blackhole blackhole) {
+        Batching.batch(adults, batchSize)
+                .forEach(batch -> {
+                    Blackhole.consumeCPU(callCost);
+                    batch.forEach(blackhole::consume);
+                });
+    }
+}
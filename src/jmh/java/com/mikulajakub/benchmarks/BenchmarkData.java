@@ -0,0 +1,80 @@
+package com.mikulajakub.benchmarks;
+
+import com.mikulajakub.model.Citizen;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic datasets shared by the benchmarks.
+ */
+final class BenchmarkData {
+
+    static final int DISTINCT_NAMES = 10_000;
+
+    private static final long SEED = 42;
+
+    private BenchmarkData() {
+    }
+
+    static String[] names(int count) {
+        String[] names = new String[count];
+        for (int i = 0; i < count; i++) {
+            names[i] = "Citizen" + i;
+        }
+        return names;
+    }
+
+    static List<Citizen> citizens(int size) {
+        String[] names = names(DISTINCT_NAMES);
+        SplittableRandom random = new SplittableRandom(SEED);
+        List<Citizen> citizens = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            citizens.add(new Citizen(names[random.nextInt(names.length)], random.nextInt(100)));
+        }
+        return citizens;
+    }
+
+    static List<Integer> integers(int size) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        List<Integer> integers = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            integers.add(random.nextInt(100));
+        }
+        return integers;
+    }
+
+    static int[] ints(int size) {
+        return new SplittableRandom(SEED).ints(size, 0, 100).toArray();
+    }
+
+    /**
+     * Matrix of {@code size} ints in total, split into rows of {@code rowLength}.
+     */
+    static int[][] matrix(int size, int rowLength) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        int rows = (size + rowLength - 1) / rowLength;
+        int[][] matrix = new int[rows][];
+        for (int r = 0; r < rows; r++) {
+            int length = Math.min(rowLength, size - r * rowLength);
+            matrix[r] = random.ints(length, 0, 100).toArray();
+        }
+        return matrix;
+    }
+
+    /**
+     * Ragged matrix of {@code size} ints: most rows are short, every 64th row holds a large share of the data.
+     */
+    static int[][] raggedMatrix(int size) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        List<int[]> rows = new ArrayList<>();
+        int remaining = size;
+        for (int r = 0; remaining > 0; r++) {
+            int length = Math.min(remaining, r % 64 == 0 ? Math.max(1, size / 8) : random.nextInt(16));
+            rows.add(random.ints(length, 0, 100).toArray());
+            remaining -= length;
+        }
+        return rows.toArray(new int[0][]);
+    }
+}
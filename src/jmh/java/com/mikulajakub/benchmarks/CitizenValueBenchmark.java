@@ -0,0 +1,99 @@
+package com.mikulajakub.benchmarks;
+
+import com.mikulajakub.model.Citizen;
+import com.mikulajakub.model.ImmutableCitizen;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Mutable Lombok {@link Citizen} against {@link ImmutableCitizen} in hash-set, distinct and toString workloads.
+ * {@code Citizen} has identity equality, so its distinct-by-value variants need a composite key.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CitizenValueBenchmark {
+
+    @Param({"1000", "1000000"})
+    public int size;
+
+    private List<Citizen> citizens;
+    private List<ImmutableCitizen> immutables;
+
+    @Setup
+    public void setUp() {
+        citizens = BenchmarkData.citizens(size);
+        immutables = citizens.stream().map(ImmutableCitizen::from).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public int hashSetCitizenCompositeKey() {
+        Set<List<Object>> keys = new HashSet<>();
+        for (Citizen citizen : citizens) {
+            keys.add(Arrays.asList(citizen.getName(), citizen.getAge()));
+        }
+        return keys.size();
+    }
+
+    @Benchmark
+    public int hashSetImmutable() {
+        return new HashSet<>(immutables).size();
+    }
+
+    @Benchmark
+    public long distinctCitizenStringKey() {
+        return citizens.stream().map(x -> x.getName() + ":" + x.getAge()).distinct().count();
+    }
+
+    @Benchmark
+    public long distinctImmutable() {
+        return immutables.stream().distinct().count();
+    }
+
+    @Benchmark
+    public long toStringCitizen() {
+        long length = 0;
+        for (Citizen citizen : citizens) {
+            length += citizen.toString().length();
+        }
+        return length;
+    }
+
+    @Benchmark
+    public long toStringImmutable() {
+        long length = 0;
+        for (ImmutableCitizen citizen : immutables) {
+            length += citizen.toString().length();
+        }
+        return length;
+    }
+
+    @Benchmark
+    public int appendToReusedBuilder() {
+        StringBuilder out = new StringBuilder();
+        for (ImmutableCitizen citizen : immutables) {
+            out.setLength(0);
+            citizen.appendTo(out);
+        }
+        return out.length();
+    }
+}
@@ -0,0 +1,175 @@
+package com.mikulajakub.benchmarks;
+
+import com.mikulajakub.io.CompactCodec;
+import com.mikulajakub.model.Citizen;
+import com.mikulajakub.model.Movie;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding and decoding batches of citizens and movies with {@link CompactCodec},
+ * Java serialization and the {@code toString()} text form.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CodecBenchmark {
+
+    private static final int ACTORS_PER_MOVIE = 5;
+
+    @Param({"10000"})
+    public int size;
+
+    private List<Citizen> citizens;
+    private List<Movie> movies;
+    private ByteBuffer buffer;
+    private CompactCodec.Writer movieWriter;
+    private ByteArrayOutputStream serialized;
+    private byte[] compactCitizens;
+    private byte[] serializedCitizens;
+    private byte[] textCitizens;
+
+    @Setup
+    public void setUp() throws IOException {
+        citizens = BenchmarkData.citizens(size);
+        String[] actors = BenchmarkData.names(size / 5);
+        SplittableRandom random = new SplittableRandom(42);
+        movies = new ArrayList<>(size / 10);
+        for (int i = 0; i < size / 10; i++) {
+            Movie movie = new Movie("Movie" + i);
+            for (int a = 0; a < ACTORS_PER_MOVIE; a++) {
+                movie.addActor(actors[random.nextInt(actors.length)]);
+            }
+            movies.add(movie);
+        }
+        buffer = ByteBuffer.allocate(size * 64);
+        serialized = new ByteArrayOutputStream(size * 64);
+        movieWriter = CompactCodec.writer(buffer);
+
+        compactEncodeCitizens();
+        compactCitizens = new byte[buffer.position()];
+        buffer.flip().get(compactCitizens);
+        javaSerializeCitizens();
+        serializedCitizens = serialized.toByteArray();
+        textCitizens = toStringCitizens();
+    }
+
+    @Benchmark
+    public int compactEncodeCitizens() {
+        buffer.clear();
+        CompactCodec.Writer writer = CompactCodec.writer(buffer);
+        for (Citizen citizen : citizens) {
+            writer.write(citizen);
+        }
+        return buffer.position();
+    }
+
+    @Benchmark
+    public int javaSerializeCitizens() throws IOException {
+        serialized.reset();
+        try (ObjectOutputStream out = new ObjectOutputStream(serialized)) {
+            for (Citizen citizen : citizens) {
+                out.writeObject(citizen);
+            }
+        }
+        return serialized.size();
+    }
+
+    @Benchmark
+    public byte[] toStringCitizens() {
+        StringBuilder text = new StringBuilder(size * 16);
+        for (Citizen citizen : citizens) {
+            text.append(citizen).append('\n');
+        }
+        return text.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public long compactDecodeCitizens() {
+        CompactCodec.Reader reader = CompactCodec.reader(ByteBuffer.wrap(compactCitizens)).cacheNames(1024);
+        long ages = 0;
+        while (reader.hasNext()) {
+            ages += reader.readCitizen().getAge();
+        }
+        return ages;
+    }
+
+    @Benchmark
+    public long javaDeserializeCitizens() throws IOException, ClassNotFoundException {
+        long ages = 0;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(serializedCitizens))) {
+            for (int i = 0; i < size; i++) {
+                ages += ((Citizen) in.readObject()).getAge();
+            }
+        }
+        return ages;
+    }
+
+    @Benchmark
+    public long parseToStringCitizens() {
+        long ages = 0;
+        for (String line : new String(textCitizens, StandardCharsets.UTF_8).split("\n")) {
+            int separator = line.lastIndexOf(": ");
+            Citizen citizen = new Citizen(line.substring(0, separator),
+                    Integer.parseInt(line.substring(separator + 2)));
+            ages += citizen.getAge();
+        }
+        return ages;
+    }
+
+    /**
+     * Keeps one writer across invocations, so after the first one every actor is a dictionary hit.
+     */
+    @Benchmark
+    public int compactEncodeMovies() {
+        buffer.clear();
+        for (Movie movie : movies) {
+            movieWriter.write(movie);
+        }
+        return buffer.position();
+    }
+
+    @Benchmark
+    public int javaSerializeMovies() throws IOException {
+        serialized.reset();
+        try (ObjectOutputStream out = new ObjectOutputStream(serialized)) {
+            for (Movie movie : movies) {
+                out.writeObject(movie);
+            }
+        }
+        return serialized.size();
+    }
+
+    @Benchmark
+    public int toStringMovies() {
+        StringBuilder text = new StringBuilder(size * 16);
+        for (Movie movie : movies) {
+            text.append(movie).append('\n');
+        }
+        return text.toString().getBytes(StandardCharsets.UTF_8).length;
+    }
+}
@@ -0,0 +1,83 @@
+package com.mikulajakub.benchmarks;
+
+import com.mikulajakub.model.Citizen;
+import com.mikulajakub.stream.Enrichment;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Enriching citizens through a stub backend with 5 ms latency:
+ * {@code parallel().map(...)} on the common pool against virtual-thread {@link Enrichment}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class EnrichmentBenchmark {
+
+    private static final long LATENCY_MILLIS = 5;
+
+    @Param({"1000"})
+    public int size;
+
+    @Param({"64", "256"})
+    public int maxConcurrency;
+
+    private List<Citizen> citizens;
+
+    @Setup
+    public void setUp() {
+        citizens = BenchmarkData.citizens(size);
+    }
+
+    static String lookup(Citizen citizen) {
+        try {
+            Thread.sleep(LATENCY_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return citizen.getName();
+    }
+
+    @Benchmark
+    public List<String> parallelMap() {
+        return citizens.parallelStream()
+                .map(EnrichmentBenchmark::lookup)
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<String> virtualThreadsOrdered() {
+        try (Stream<String> enriched = Enrichment.of(EnrichmentBenchmark::lookup)
+                .maxConcurrency(maxConcurrency)
+                .apply(citizens.stream())) {
+            return enriched.collect(Collectors.toList());
+        }
+    }
+
+    @Benchmark
+    public List<String> virtualThreadsUnordered() {
+        try (Stream<String> enriched = Enrichment.of(EnrichmentBenchmark::lookup)
+                .maxConcurrency(maxConcurrency)
+                .ordered(false)
+                .apply(citizens.stream())) {
+            return enriched.collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.mikulajakub.benchmarks;
+
+import com.mikulajakub.stream.Flatten;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parallel sums over a ragged matrix: {@code flatMap(Arrays::stream)} against {@link Flatten}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FlattenBenchmark {
+
+    @Param({"1000000", "10000000"})
+    public int size;
+
+    private int[][] ints;
+    private Integer[][] boxed;
+
+    @Setup
+    public void setUp() {
+        ints = BenchmarkData.raggedMatrix(size);
+        boxed = Arrays.stream(ints)
+                .map(row -> Arrays.stream(row).boxed().toArray(Integer[]::new))
+                .toArray(Integer[][]::new);
+    }
+
+    @Benchmark
+    public long flatMapToInt() {
+        return Arrays.stream(ints).parallel().flatMapToInt(Arrays::stream).asLongStream().sum();
+    }
+
+    @Benchmark
+    public long flattenInts() {
+        return Flatten.ints(ints).parallel().asLongStream().sum();
+    }
+
+    @Benchmark
+    public long flatMapBoxed() {
+        return Arrays.stream(boxed).parallel().flatMap(Arrays::stream).mapToLong(Integer::longValue).sum();
+    }
+
+    @Benchmark
+    public long flattenBoxed() {
+        return Flatten.of(boxed).parallel().mapToLong(Integer::longValue).sum();
+    }
+}
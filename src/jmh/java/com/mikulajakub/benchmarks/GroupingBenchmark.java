@@ -0,0 +1,79 @@
+package com.mikulajakub.benchmarks;
+
+import com.mikulajakub.collect.AggregatingCollectors;
+import com.mikulajakub.collect.IntKeyAggregates;
+import com.mikulajakub.collect.KeyAggregates;
+import com.mikulajakub.model.Citizen;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.IntSummaryStatistics;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Per-name and per-age aggregation: {@code groupingBy} against the primitive
+ * {@link AggregatingCollectors}. Run with {@code -prof gc} for the allocation difference.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GroupingBenchmark {
+
+    @Param({"1000", "1000000", "10000000"})
+    public int size;
+
+    @Param({"false", "true"})
+    public boolean parallel;
+
+    private List<Citizen> citizens;
+
+    @Setup
+    public void setUp() {
+        citizens = BenchmarkData.citizens(size);
+    }
+
+    private Stream<Citizen> stream() {
+        return parallel ? citizens.parallelStream() : citizens.stream();
+    }
+
+    @Benchmark
+    public Map<String, Integer> sumByNameGroupingBy() {
+        return stream().collect(Collectors.groupingBy(Citizen::getName, Collectors.summingInt(Citizen::getAge)));
+    }
+
+    @Benchmark
+    public Map<String, IntSummaryStatistics> statsByNameGroupingBy() {
+        return stream().collect(Collectors.groupingBy(Citizen::getName, Collectors.summarizingInt(Citizen::getAge)));
+    }
+
+    @Benchmark
+    public KeyAggregates<String> statsByNamePrimitive() {
+        return stream().collect(AggregatingCollectors.byKey(Citizen::getName, Citizen::getAge));
+    }
+
+    @Benchmark
+    public Map<Integer, Long> countByAgeGroupingBy() {
+        return stream().collect(Collectors.groupingBy(Citizen::getAge, Collectors.counting()));
+    }
+
+    @Benchmark
+    public IntKeyAggregates countByAgePrimitive() {
+        return stream().collect(AggregatingCollectors.byIntKey(Citizen::getAge, Citizen::getAge));
+    }
+}
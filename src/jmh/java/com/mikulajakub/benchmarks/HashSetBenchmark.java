@@ -0,0 +1,119 @@
+package com.mikulajakub.benchmarks;
+
+import com.mikulajakub.collect.Distinct;
+import com.mikulajakub.collect.IntHashSet;
+import com.mikulajakub.collect.LongHashSet;
+import com.mikulajakub.collect.StringHashSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building a set of {@code size} random keys, about 63% of them distinct, with
+ * {@code java.util.HashSet} and the open-addressing sets. With {@code -prof gc}
+ * the allocation per operation approximates the footprint plus resize garbage.
+ * <p>
+ * {@code java.util.HashSet} and the string sets do not fit 10^8 keys in this heap,
+ * run that size for the primitive sets only:
+ * {@code -p size=100000000 "HashSetBenchmark.(int|long)HashSet"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class HashSetBenchmark {
+
+    @Param({"1000000", "10000000"})
+    public int size;
+
+    private int[] ints;
+    private String[] strings;
+
+    @Setup
+    public void setUp() {
+        ints = new SplittableRandom(42).ints(size, 0, size).toArray();
+        if (size <= 10_000_000) {
+            strings = Arrays.stream(ints).mapToObj(i -> "Citizen" + i).toArray(String[]::new);
+        }
+    }
+
+    @Benchmark
+    public int hashSetInteger() {
+        Set<Integer> set = new HashSet<>();
+        for (int value : ints) {
+            set.add(value);
+        }
+        return set.size();
+    }
+
+    @Benchmark
+    public int intHashSet() {
+        IntHashSet set = new IntHashSet();
+        for (int value : ints) {
+            set.add(value);
+        }
+        return set.size();
+    }
+
+    @Benchmark
+    public int hashSetLong() {
+        Set<Long> set = new HashSet<>();
+        for (int value : ints) {
+            set.add(value * 0x9E3779B97F4A7C15L);
+        }
+        return set.size();
+    }
+
+    @Benchmark
+    public int longHashSet() {
+        LongHashSet set = new LongHashSet();
+        for (int value : ints) {
+            set.add(value * 0x9E3779B97F4A7C15L);
+        }
+        return set.size();
+    }
+
+    @Benchmark
+    public int hashSetString() {
+        Set<String> set = new HashSet<>();
+        for (String value : strings) {
+            set.add(value);
+        }
+        return set.size();
+    }
+
+    @Benchmark
+    public int stringHashSet() {
+        StringHashSet set = new StringHashSet();
+        for (String value : strings) {
+            set.add(value);
+        }
+        return set.size();
+    }
+
+    @Benchmark
+    public long intStreamDistinct() {
+        return Arrays.stream(ints).distinct().count();
+    }
+
+    @Benchmark
+    public long distinctInts() {
+        return Distinct.ints(Arrays.stream(ints)).count();
+    }
+}
@@ -0,0 +1,112 @@
+package com.mikulajakub.benchmarks;
+
+import com.mikulajakub.id.SnowflakeIds;
+import com.mikulajakub.id.Uuids;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Generating {@code size} ids in a parallel stream, from the
+ * {@code Stream.generate(UUID::randomUUID).map(toString)} of {@code AppTest}
+ * to Snowflake ids formatted into reused per-thread buffers, 1024 ids per task.
+ * Every variant returns a checksum over each id so none of them can be skipped.
+ * The Snowflake run-ahead is lifted to a day here, which measures generation rather
+ * than the 4096 ids per millisecond the clock allows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IdBenchmark {
+
+    private static final int IDS_PER_TASK = 1024;
+
+    @Param({"1000000"})
+    public int size;
+
+    private SnowflakeIds snowflake;
+    private final ThreadLocal<byte[]> uuidBuffers =
+            ThreadLocal.withInitial(() -> new byte[IDS_PER_TASK * Uuids.LENGTH]);
+    private final ThreadLocal<byte[]> hexBuffers =
+            ThreadLocal.withInitial(() -> new byte[IDS_PER_TASK * SnowflakeIds.HEX_LENGTH]);
+
+    @Setup
+    public void setUp() {
+        snowflake = SnowflakeIds.builder().node(1).maxRunAhead(Duration.ofDays(1)).build();
+    }
+
+    @Benchmark
+    public long randomUuidToString() {
+        return Stream.generate(UUID::randomUUID).parallel()
+                .limit(size)
+                .map(UUID::toString)
+                .mapToLong(s -> s.charAt(0) + s.charAt(35))
+                .sum();
+    }
+
+    @Benchmark
+    public long threadLocalUuidToString() {
+        return Stream.generate(Uuids::randomV4).parallel()
+                .limit(size)
+                .map(UUID::toString)
+                .mapToLong(s -> s.charAt(0) + s.charAt(35))
+                .sum();
+    }
+
+    @Benchmark
+    public long threadLocalUuidIntoBuffer() {
+        return IntStream.range(0, size / IDS_PER_TASK).parallel()
+                .mapToLong(task -> {
+                    byte[] buffer = uuidBuffers.get();
+                    long check = 0;
+                    for (int offset = 0; offset < buffer.length; ) {
+                        offset = Uuids.randomV4(buffer, offset);
+                        check += buffer[offset - 1];
+                    }
+                    return check;
+                })
+                .sum();
+    }
+
+    @Benchmark
+    public long snowflakeRange() {
+        return snowflake.ids(size).parallel().sum();
+    }
+
+    @Benchmark
+    public long snowflakeNextId() {
+        return snowflake.stream().parallel().limit(size).sum();
+    }
+
+    @Benchmark
+    public long snowflakeIntoBuffer() {
+        return IntStream.range(0, size / IDS_PER_TASK).parallel()
+                .mapToLong(task -> {
+                    byte[] buffer = hexBuffers.get();
+                    long check = 0;
+                    for (int offset = 0; offset < buffer.length; ) {
+                        offset = SnowflakeIds.formatHex(snowflake.nextId(), buffer, offset);
+                        check += buffer[offset - 1];
+                    }
+                    return check;
+                })
+                .sum();
+    }
+}
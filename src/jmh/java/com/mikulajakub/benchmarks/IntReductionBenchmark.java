@@ -0,0 +1,110 @@
+package com.mikulajakub.benchmarks;
+
+import com.mikulajakub.collect.IntCondition;
+import com.mikulajakub.collect.IntReductions;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code IntStream} reductions against {@link IntReductions} over an {@code int[]}
+ * of {@code size} values. The scalar loops are what the same API does without
+ * {@code --add-modules jdk.incubator.vector}; compare the operations per second
+ * of each pair.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class IntReductionBenchmark {
+
+    @Param({"1000", "1000000"})
+    private int size;
+
+    private int[] values;
+    private final IntCondition even = IntCondition.even();
+
+    @Setup
+    public void setup() {
+        values = new SplittableRandom(42).ints(size, -1_000, 1_000).toArray();
+    }
+
+    @Benchmark
+    public int streamSum() {
+        return Arrays.stream(values).sum();
+    }
+
+    @Benchmark
+    public int streamReduceSum() {
+        return Arrays.stream(values).reduce(Integer::sum).getAsInt();
+    }
+
+    @Benchmark
+    public int vectorSum() {
+        return IntReductions.sum(values);
+    }
+
+    @Benchmark
+    public int scalarSum() {
+        int sum = 0;
+        for (int value : values) {
+            sum += value;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int streamProduct() {
+        return Arrays.stream(values).reduce(1, (a, b) -> a * b);
+    }
+
+    @Benchmark
+    public int vectorProduct() {
+        return IntReductions.product(values);
+    }
+
+    @Benchmark
+    public int streamMax() {
+        return Arrays.stream(values).max().getAsInt();
+    }
+
+    @Benchmark
+    public int vectorMax() {
+        return IntReductions.max(values).getAsInt();
+    }
+
+    @Benchmark
+    public int streamSumEven() {
+        return Arrays.stream(values).filter(value -> value % 2 == 0).sum();
+    }
+
+    @Benchmark
+    public int vectorSumEven() {
+        return IntReductions.sumWhere(values, even);
+    }
+
+    @Benchmark
+    public int scalarSumEven() {
+        int sum = 0;
+        for (int value : values) {
+            if ((value & 1) == 0) {
+                sum += value;
+            }
+        }
+        return sum;
+    }
+}
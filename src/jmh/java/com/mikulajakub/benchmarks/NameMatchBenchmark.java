@@ -0,0 +1,107 @@
+package com.mikulajakub.benchmarks;
+
+import com.mikulajakub.stream.IgnoreCaseMatcher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Case-insensitive filtering of Polish full names: the {@code toLowerCase().contains} idiom
+ * against a precompiled {@link IgnoreCaseMatcher}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NameMatchBenchmark {
+
+    private static final String[] FIRST_NAMES = {
+            "Anna", "Jan", "Katarzyna", "Piotr", "Małgorzata", "Andrzej", "Agnieszka", "Tomasz",
+            "Ewa", "Marcin", "Joanna", "Krzysztof", "Magdalena", "Michał", "Beata", "Łukasz"
+    };
+    private static final String[] SURNAMES = {
+            "Nowak", "Kowalski", "Wiśniewska", "Wójcik", "Kowalczyk", "Kamiński", "Lewandowska",
+            "Zieliński", "Szymańska", "Woźniak", "Dąbrowski", "Kozłowska", "Jankowski", "Mazur"
+    };
+    private static final List<String> ANY = Arrays.asList("ski", "ewa", "łuk", "mazur");
+
+    private static final IgnoreCaseMatcher WITH_S = IgnoreCaseMatcher.contains("s");
+    private static final IgnoreCaseMatcher WITH_KOWAL = IgnoreCaseMatcher.contains("kowalczyk");
+    private static final IgnoreCaseMatcher STARTS_WITH_L = IgnoreCaseMatcher.startsWith("ł");
+    private static final IgnoreCaseMatcher WITH_ANY = IgnoreCaseMatcher.containsAny(ANY);
+
+    @Param({"1000000", "5000000"})
+    public int size;
+
+    private String[] names;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        names = new String[size];
+        for (int i = 0; i < size; i++) {
+            names[i] = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " "
+                    + SURNAMES[random.nextInt(SURNAMES.length)];
+        }
+    }
+
+    @Benchmark
+    public long toLowerCaseContainsChar() {
+        return Arrays.stream(names).filter(x -> x.toLowerCase().contains("s")).count();
+    }
+
+    @Benchmark
+    public long matcherContainsChar() {
+        return Arrays.stream(names).filter(WITH_S).count();
+    }
+
+    @Benchmark
+    public long toLowerCaseContainsWord() {
+        return Arrays.stream(names).filter(x -> x.toLowerCase().contains("kowalczyk")).count();
+    }
+
+    @Benchmark
+    public long matcherContainsWord() {
+        return Arrays.stream(names).filter(WITH_KOWAL).count();
+    }
+
+    @Benchmark
+    public long toLowerCaseStartsWith() {
+        return Arrays.stream(names).filter(x -> x.toLowerCase().startsWith("ł")).count();
+    }
+
+    @Benchmark
+    public long matcherStartsWith() {
+        return Arrays.stream(names).filter(STARTS_WITH_L).count();
+    }
+
+    @Benchmark
+    public long toLowerCaseContainsAny() {
+        return Arrays.stream(names)
+                .filter(x -> {
+                    String lower = x.toLowerCase();
+                    return ANY.stream().anyMatch(lower::contains);
+                })
+                .count();
+    }
+
+    @Benchmark
+    public long matcherContainsAny() {
+        return Arrays.stream(names).filter(WITH_ANY).count();
+    }
+}
@@ -0,0 +1,78 @@
+package com.mikulajakub.benchmarks;
+
+import com.mikulajakub.model.Citizen;
+import com.mikulajakub.stream.OrderedParallelSink;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ordered export of citizens as text lines: {@code parallel().forEachOrdered} against {@link OrderedParallelSink}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderedSinkBenchmark {
+
+    @Param({"1000000"})
+    public int size;
+
+    private List<Citizen> citizens;
+    private final OrderedParallelSink.Encoder<Citizen> encoder = OrderedParallelSink.lines(Citizen::toString);
+
+    @Setup
+    public void setUp() {
+        citizens = BenchmarkData.citizens(size);
+    }
+
+    @Benchmark
+    public long forEachOrdered() {
+        CountingOutputStream out = new CountingOutputStream();
+        citizens.parallelStream().forEachOrdered(x -> {
+            try {
+                encoder.encode(x, out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return out.bytes;
+    }
+
+    @Benchmark
+    public long orderedParallelSink() throws IOException {
+        CountingOutputStream out = new CountingOutputStream();
+        OrderedParallelSink.write(citizens.stream(), encoder, out);
+        return out.bytes;
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+        private long bytes;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.mikulajakub.benchmarks;
+
+import com.mikulajakub.stream.ParallelSearch;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of top-1 and first-match searches: {@code sorted().findFirst()} and the JDK's
+ * parallel short-circuiting against {@link ParallelSearch}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class SearchBenchmark {
+
+    @Param({"1000000", "100000000"})
+    public int size;
+
+    private int[] values;
+    private int needle;
+
+    @Setup
+    public void setUp() {
+        values = BenchmarkData.ints(size);
+        values[size / 3] = 1_000;
+        needle = 1_000;
+    }
+
+    @Benchmark
+    public int sortedFindFirst() {
+        return Arrays.stream(values).parallel().sorted().findFirst().getAsInt();
+    }
+
+    @Benchmark
+    public int streamMin() {
+        return Arrays.stream(values).parallel().min().getAsInt();
+    }
+
+    @Benchmark
+    public int parallelSearchMin() {
+        return ParallelSearch.min(values).getAsInt();
+    }
+
+    @Benchmark
+    public int streamFirstMatch() {
+        int target = needle;
+        return Arrays.stream(values).parallel().filter(x -> x == target).findFirst().getAsInt();
+    }
+
+    @Benchmark
+    public int parallelSearchFirstMatch() {
+        int target = needle;
+        return ParallelSearch.firstIndex(values, x -> x == target);
+    }
+}
@@ -0,0 +1,137 @@
+package com.mikulajakub.benchmarks;
+
+import com.mikulajakub.model.Citizen;
+import com.mikulajakub.stream.DistinctBy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * The alternative idioms used in {@code AppTest}, measured against each other.
+ * <p>
+ * The largest sizes need a big heap, pass e.g. {@code -jvmArgsAppend -Xmx16g},
+ * or restrict the sizes with {@code -p size=1000,100000}.
+ * Add {@code -prof gc} to see the allocation rate of every variant.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StreamIdiomsBenchmark {
+
+    @Param({"1000", "100000", "10000000", "100000000"})
+    public int size;
+
+    @Param({"false", "true"})
+    public boolean parallel;
+
+    private List<Citizen> citizens;
+    private List<Integer> integers;
+    private int[][] matrix;
+
+    @Setup
+    public void setUp() {
+        citizens = BenchmarkData.citizens(size);
+        integers = BenchmarkData.integers(size);
+        matrix = BenchmarkData.matrix(size, 1_000);
+    }
+
+    private <T> Stream<T> stream(Collection<T> source) {
+        return parallel ? source.parallelStream() : source.stream();
+    }
+
+    @Benchmark
+    public Collection<Citizen> distinctByNameToMapValues() {
+        return stream(citizens)
+                .collect(Collectors.toMap(Citizen::getName, Function.identity(), (a, b) -> a))
+                .values();
+    }
+
+    /**
+     * Always sequential: the captured {@link HashSet} is not thread-safe.
+     */
+    @Benchmark
+    public List<Citizen> distinctByNameFilterHashSet() {
+        Set<String> keys = new HashSet<>();
+        return citizens.stream()
+                .filter(x -> keys.add(x.getName()))
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<Citizen> distinctByNameFilterConcurrentKeySet() {
+        return stream(citizens)
+                .filter(DistinctBy.key(Citizen::getName))
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public int sumCollectorsSummingInt() {
+        return stream(integers)
+                .collect(Collectors.summingInt(x -> x));
+    }
+
+    @Benchmark
+    public int sumMapToInt() {
+        return stream(integers)
+                .mapToInt(x -> x)
+                .sum();
+    }
+
+    @Benchmark
+    public int sumReduceBoxed() {
+        return stream(integers)
+                .reduce(0, (x, y) -> x + y);
+    }
+
+    @Benchmark
+    public int sumAgesMapToInt() {
+        return stream(citizens)
+                .mapToInt(Citizen::getAge)
+                .sum();
+    }
+
+    @Benchmark
+    public int sumAgesSummingInt() {
+        return stream(citizens)
+                .collect(Collectors.summingInt(Citizen::getAge));
+    }
+
+    @Benchmark
+    public long flatMapBoxed() {
+        Stream<int[]> rows = parallel ? Arrays.stream(matrix).parallel() : Arrays.stream(matrix);
+        return rows
+                .flatMap(x -> Arrays.stream(x).boxed())
+                .mapToLong(x -> x)
+                .sum();
+    }
+
+    @Benchmark
+    public long flatMapToIntPrimitive() {
+        Stream<int[]> rows = parallel ? Arrays.stream(matrix).parallel() : Arrays.stream(matrix);
+        return rows
+                .flatMapToInt(Arrays::stream)
+                .asLongStream()
+                .sum();
+    }
+}
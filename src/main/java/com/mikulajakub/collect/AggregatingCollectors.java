@@ -0,0 +1,41 @@
+package com.mikulajakub.collect;
+
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collector;
+
+/**
+ * Group-by collectors which keep count, sum, min and max per key in primitive
+ * open-addressing maps instead of {@code groupingBy} + {@code summingInt}.
+ * <pre>
+ * KeyAggregates&lt;String&gt; byName = citizens.parallelStream()
+ *         .collect(AggregatingCollectors.byKey(Citizen::getName, Citizen::getAge));
+ * long sumOfKubas = byName.sum("Kuba");
+ * </pre>
+ * When combining parallel partial results the smaller map is merged into the larger one.
+ */
+public final class AggregatingCollectors {
+
+    private AggregatingCollectors() {
+    }
+
+    public static <T, K> Collector<T, ?, KeyAggregates<K>> byKey(
+            Function<? super T, ? extends K> keyProvider, ToIntFunction<? super T> valueProvider) {
+        return Collector.of(
+                KeyAggregates::new,
+                (aggregates, x) -> aggregates.add(keyProvider.apply(x), valueProvider.applyAsInt(x)),
+                (x, y) -> x.size() >= y.size() ? x.merge(y) : y.merge(x),
+                Collector.Characteristics.IDENTITY_FINISH,
+                Collector.Characteristics.UNORDERED);
+    }
+
+    public static <T> Collector<T, ?, IntKeyAggregates> byIntKey(
+            ToIntFunction<? super T> keyProvider, ToIntFunction<? super T> valueProvider) {
+        return Collector.of(
+                IntKeyAggregates::new,
+                (aggregates, x) -> aggregates.add(keyProvider.applyAsInt(x), valueProvider.applyAsInt(x)),
+                (x, y) -> x.size() >= y.size() ? x.merge(y) : y.merge(x),
+                Collector.Characteristics.IDENTITY_FINISH,
+                Collector.Characteristics.UNORDERED);
+    }
+}
@@ -0,0 +1,247 @@
+package com.mikulajakub.collect;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Replacements for {@code distinct()} backed by the primitive hash sets.
+ * <p>
+ * The sets are not thread-safe, so values are deduplicated on one thread
+ * while they are streamed: lazily, keeping the first occurrence of every
+ * value in encounter order like {@code distinct()}. Such a stream never
+ * splits, calling {@code parallel()} on the result keeps it correct but runs
+ * it on one thread. A parallel source is the exception: when the terminal
+ * operation runs in parallel and the source is not known to be infinite, the
+ * source is first collected into per-thread sets which are merged, and the
+ * result is in no particular order, like {@code unordered().distinct()}.
+ * That collection happens when the terminal operation starts, so a parallel
+ * {@code limit} still reads the whole source; infinite sources, whose size
+ * is unknown, are always deduplicated lazily.
+ * <pre>
+ * long actors = Distinct.strings(movies.stream().flatMap(m -&gt; m.getActors().stream())).count();
+ * </pre>
+ */
+public final class Distinct {
+
+    private Distinct() {
+    }
+
+    public static IntStream ints(IntStream values) {
+        boolean parallel = values.isParallel();
+        return StreamSupport.intStream(new IntDistinct(values.spliterator(), parallel), parallel)
+                .onClose(values::close);
+    }
+
+    public static LongStream longs(LongStream values) {
+        boolean parallel = values.isParallel();
+        return StreamSupport.longStream(new LongDistinct(values.spliterator(), parallel), parallel)
+                .onClose(values::close);
+    }
+
+    /**
+     * @throws NullPointerException when the stream contains {@code null}
+     */
+    public static Stream<String> strings(Stream<String> values) {
+        boolean parallel = values.isParallel();
+        return StreamSupport.stream(new StringDistinct(values.spliterator(), parallel), parallel)
+                .onClose(values::close);
+    }
+
+    /**
+     * Filters the source through a set on the traversing thread, or, on the
+     * first split of a parallel source, collects it into a set in parallel and
+     * streams that set instead.
+     */
+    private abstract static class DistinctSpliterator<T, S extends Spliterator<T>> implements Spliterator<T> {
+        final S source;
+        private final boolean parallelSource;
+        private boolean started;
+        S collected;
+
+        DistinctSpliterator(S source, boolean parallelSource) {
+            this.source = source;
+            this.parallelSource = parallelSource;
+        }
+
+        @Override
+        public S trySplit() {
+            if (collected == null) {
+                if (!parallelSource || started || source.estimateSize() == Long.MAX_VALUE) {
+                    return null;
+                }
+                collected = collect();
+            }
+            @SuppressWarnings("unchecked")
+            S prefix = (S) collected.trySplit();
+            return prefix;
+        }
+
+        /**
+         * Marks the source as traversed by this thread, after which it never splits.
+         */
+        boolean filtering() {
+            started = true;
+            return collected == null;
+        }
+
+        @Override
+        public long estimateSize() {
+            return collected != null ? collected.estimateSize() : source.estimateSize();
+        }
+
+        @Override
+        public int characteristics() {
+            int ordered = parallelSource ? 0 : source.characteristics() & ORDERED;
+            return ordered | DISTINCT | source.characteristics() & NONNULL;
+        }
+
+        abstract S collect();
+    }
+
+    private static final class IntDistinct extends DistinctSpliterator<Integer, Spliterator.OfInt>
+            implements Spliterator.OfInt {
+        private final IntHashSet seen = new IntHashSet();
+
+        IntDistinct(Spliterator.OfInt source, boolean parallelSource) {
+            super(source, parallelSource);
+        }
+
+        @Override
+        public boolean tryAdvance(IntConsumer action) {
+            if (!filtering()) {
+                return collected.tryAdvance(action);
+            }
+            boolean[] added = new boolean[1];
+            while (!added[0] && source.tryAdvance((int value) -> {
+                if (seen.add(value)) {
+                    added[0] = true;
+                    action.accept(value);
+                }
+            })) {
+                // until a new value was passed on
+            }
+            return added[0];
+        }
+
+        @Override
+        public void forEachRemaining(IntConsumer action) {
+            if (!filtering()) {
+                collected.forEachRemaining(action);
+                return;
+            }
+            source.forEachRemaining((int value) -> {
+                if (seen.add(value)) {
+                    action.accept(value);
+                }
+            });
+        }
+
+        @Override
+        public OfInt trySplit() {
+            return super.trySplit();
+        }
+
+        @Override
+        OfInt collect() {
+            return IntHashSet.of(StreamSupport.intStream(source, true)).stream().spliterator();
+        }
+    }
+
+    private static final class LongDistinct extends DistinctSpliterator<Long, Spliterator.OfLong>
+            implements Spliterator.OfLong {
+        private final LongHashSet seen = new LongHashSet();
+
+        LongDistinct(Spliterator.OfLong source, boolean parallelSource) {
+            super(source, parallelSource);
+        }
+
+        @Override
+        public boolean tryAdvance(LongConsumer action) {
+            if (!filtering()) {
+                return collected.tryAdvance(action);
+            }
+            boolean[] added = new boolean[1];
+            while (!added[0] && source.tryAdvance((long value) -> {
+                if (seen.add(value)) {
+                    added[0] = true;
+                    action.accept(value);
+                }
+            })) {
+                // until a new value was passed on
+            }
+            return added[0];
+        }
+
+        @Override
+        public void forEachRemaining(LongConsumer action) {
+            if (!filtering()) {
+                collected.forEachRemaining(action);
+                return;
+            }
+            source.forEachRemaining((long value) -> {
+                if (seen.add(value)) {
+                    action.accept(value);
+                }
+            });
+        }
+
+        @Override
+        public OfLong trySplit() {
+            return super.trySplit();
+        }
+
+        @Override
+        OfLong collect() {
+            return LongHashSet.of(StreamSupport.longStream(source, true)).stream().spliterator();
+        }
+    }
+
+    private static final class StringDistinct extends DistinctSpliterator<String, Spliterator<String>> {
+        private final StringHashSet seen = new StringHashSet();
+
+        StringDistinct(Spliterator<String> source, boolean parallelSource) {
+            super(source, parallelSource);
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super String> action) {
+            if (!filtering()) {
+                return collected.tryAdvance(action);
+            }
+            boolean[] added = new boolean[1];
+            while (!added[0] && source.tryAdvance(value -> {
+                if (seen.add(value)) {
+                    added[0] = true;
+                    action.accept(value);
+                }
+            })) {
+                // until a new value was passed on
+            }
+            return added[0];
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super String> action) {
+            if (!filtering()) {
+                collected.forEachRemaining(action);
+                return;
+            }
+            source.forEachRemaining(value -> {
+                if (seen.add(value)) {
+                    action.accept(value);
+                }
+            });
+        }
+
+        @Override
+        Spliterator<String> collect() {
+            return StringHashSet.of(StreamSupport.stream(source, true)).stream().spliterator();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.mikulajakub.collect;
+
+/**
+ * Fast non-cryptographic 64-bit hashing for sketches.
+ */
+public final class Hashing {
+
+    private static final long C1 = 0x87c37b91114253d5L;
+    private static final long C2 = 0x4cf5ad432745937fL;
+
+    private Hashing() {
+    }
+
+    /**
+     * MurmurHash3-style 64-bit hash of the UTF-16 chars of the sequence, four chars per round.
+     */
+    public static long hash64(CharSequence chars) {
+        int length = chars.length();
+        long h = 0x9E3779B97F4A7C15L ^ (length * C1);
+        int i = 0;
+        for (; i + 4 <= length; i += 4) {
+            long k = chars.charAt(i)
+                    | (long) chars.charAt(i + 1) << 16
+                    | (long) chars.charAt(i + 2) << 32
+                    | (long) chars.charAt(i + 3) << 48;
+            h ^= mixK(k);
+            h = Long.rotateLeft(h, 27) * 5 + 0x52dce729;
+        }
+        long k = 0;
+        for (int shift = 0; i < length; i++, shift += 16) {
+            k |= (long) chars.charAt(i) << shift;
+        }
+        h ^= mixK(k);
+        return fmix64(h ^ length);
+    }
+
+    public static long hash64(long value) {
+        return fmix64(value ^ C2);
+    }
+
+    private static long mixK(long k) {
+        k *= C1;
+        k = Long.rotateLeft(k, 31);
+        return k * C2;
+    }
+
+    static long fmix64(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        return h ^ h >>> 33;
+    }
+}
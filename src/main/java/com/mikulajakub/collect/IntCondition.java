@@ -0,0 +1,85 @@
+package com.mikulajakub.collect;
+
+import java.util.function.IntPredicate;
+
+/**
+ * Predicate over ints from a fixed set of shapes, so that {@link IntReductions}
+ * can evaluate it on whole SIMD lanes instead of calling a lambda per value.
+ */
+public final class IntCondition implements IntPredicate {
+
+    enum Kind {
+        EVEN, ODD, EQUAL, LESS_THAN, GREATER_THAN, BETWEEN
+    }
+
+    final Kind kind;
+    final int first;
+    final int second;
+
+    private IntCondition(Kind kind, int first, int second) {
+        this.kind = kind;
+        this.first = first;
+        this.second = second;
+    }
+
+    public static IntCondition even() {
+        return new IntCondition(Kind.EVEN, 0, 0);
+    }
+
+    public static IntCondition odd() {
+        return new IntCondition(Kind.ODD, 0, 0);
+    }
+
+    public static IntCondition equalTo(int value) {
+        return new IntCondition(Kind.EQUAL, value, 0);
+    }
+
+    public static IntCondition lessThan(int bound) {
+        return new IntCondition(Kind.LESS_THAN, bound, 0);
+    }
+
+    public static IntCondition greaterThan(int bound) {
+        return new IntCondition(Kind.GREATER_THAN, bound, 0);
+    }
+
+    /**
+     * Values in {@code [min, max]}, both ends included.
+     */
+    public static IntCondition between(int min, int max) {
+        if (max < min) {
+            throw new IllegalArgumentException("max < min: " + max + " < " + min);
+        }
+        return new IntCondition(Kind.BETWEEN, min, max);
+    }
+
+    @Override
+    public boolean test(int value) {
+        switch (kind) {
+            case EVEN:
+                return (value & 1) == 0;
+            case ODD:
+                return (value & 1) != 0;
+            case EQUAL:
+                return value == first;
+            case LESS_THAN:
+                return value < first;
+            case GREATER_THAN:
+                return value > first;
+            default:
+                return value >= first && value <= second;
+        }
+    }
+
+    @Override
+    public String toString() {
+        switch (kind) {
+            case EVEN:
+            case ODD:
+                return kind.name().toLowerCase();
+            case BETWEEN:
+                return "between " + first + " and " + second;
+            default:
+                return kind.name().toLowerCase() + " " + first;
+        }
+    }
+}
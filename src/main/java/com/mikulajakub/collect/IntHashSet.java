@@ -0,0 +1,115 @@
+package com.mikulajakub.collect;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Set of {@code int} values in one flat array, open addressing with linear probing.
+ * Adding never boxes and allocates only when the table grows; each element
+ * costs 8 to 16 bytes against about 50 for a {@code HashSet<Integer>}.
+ * {@code 0} marks a free slot, so the value zero is tracked by a flag.
+ */
+public final class IntHashSet extends OpenHashSet {
+
+    private int[] keys;
+    private boolean containsZero;
+
+    public IntHashSet() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public IntHashSet(int expectedSize) {
+        keys = new int[capacityFor(expectedSize)];
+        mask = keys.length - 1;
+    }
+
+    public static IntHashSet of(IntStream values) {
+        return values.collect(IntHashSet::new, IntHashSet::add, IntHashSet::addAll);
+    }
+
+    /**
+     * @return whether the value was not in the set yet
+     */
+    public boolean add(int value) {
+        if (value == 0) {
+            if (containsZero) {
+                return false;
+            }
+            containsZero = true;
+            size++;
+            return true;
+        }
+        if (needsResize()) {
+            resize();
+        }
+        int slot = PrimitiveAggregates.mix(value) & mask;
+        for (int key; (key = keys[slot]) != 0; slot = (slot + 1) & mask) {
+            if (key == value) {
+                return false;
+            }
+        }
+        keys[slot] = value;
+        size++;
+        return true;
+    }
+
+    public IntHashSet addAll(IntHashSet other) {
+        other.forEach(this::add);
+        return this;
+    }
+
+    public boolean contains(int value) {
+        if (value == 0) {
+            return containsZero;
+        }
+        int slot = PrimitiveAggregates.mix(value) & mask;
+        for (int key; (key = keys[slot]) != 0; slot = (slot + 1) & mask) {
+            if (key == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0);
+        containsZero = false;
+        size = 0;
+    }
+
+    public void forEach(IntConsumer action) {
+        if (containsZero) {
+            action.accept(0);
+        }
+        for (int key : keys) {
+            if (key != 0) {
+                action.accept(key);
+            }
+        }
+    }
+
+    public IntStream stream() {
+        IntStream nonZero = Arrays.stream(keys).filter(key -> key != 0);
+        return containsZero ? IntStream.concat(IntStream.of(0), nonZero) : nonZero;
+    }
+
+    public int[] toArray() {
+        return stream().toArray();
+    }
+
+    private void resize() {
+        int[] old = keys;
+        keys = new int[grownCapacity()];
+        mask = keys.length - 1;
+        for (int key : old) {
+            if (key != 0) {
+                int slot = PrimitiveAggregates.mix(key) & mask;
+                while (keys[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+            }
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.mikulajakub.collect;
+
+import java.util.OptionalInt;
+import java.util.stream.IntStream;
+
+/**
+ * Exact counting histogram over a small closed range of ints, such as ages.
+ * <p>
+ * Memory is one {@code long} per possible value regardless of the number of
+ * inputs, histograms of parallel splits merge by adding counts, and percentiles
+ * or the k-th largest value are answered by one walk over the range.
+ * <pre>
+ * IntHistogram ages = IntHistogram.of(citizens.parallelStream().mapToInt(Citizen::getAge), 0, 150);
+ * int median = ages.percentile(50).getAsInt();
+ * </pre>
+ */
+public final class IntHistogram {
+
+    private final int min;
+    private final long[] counts;
+    private long total;
+
+    public IntHistogram(int min, int max) {
+        if (max < min) {
+            throw new IllegalArgumentException("max < min: " + max + " < " + min);
+        }
+        this.min = min;
+        this.counts = new long[max - min + 1];
+    }
+
+    public static IntHistogram of(IntStream values, int min, int max) {
+        return values.collect(() -> new IntHistogram(min, max), IntHistogram::add, IntHistogram::merge);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the value is outside the histogram range
+     */
+    public void add(int value) {
+        int index = value - min;
+        if (index < 0 || index >= counts.length) {
+            throw new IllegalArgumentException("Value " + value + " outside [" + min + ", "
+                    + (min + counts.length - 1) + "]");
+        }
+        counts[index]++;
+        total++;
+    }
+
+    public void merge(IntHistogram other) {
+        if (other.min != min || other.counts.length != counts.length) {
+            throw new IllegalArgumentException("Histogram ranges differ");
+        }
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        total += other.total;
+    }
+
+    public long count() {
+        return total;
+    }
+
+    public long count(int value) {
+        int index = value - min;
+        return index < 0 || index >= counts.length ? 0 : counts[index];
+    }
+
+    /**
+     * Nearest-rank percentile, {@code percentile} in {@code (0, 100]}.
+     */
+    public OptionalInt percentile(double percentile) {
+        if (!(percentile > 0 && percentile <= 100)) {
+            throw new IllegalArgumentException("percentile must be in (0, 100]: " + percentile);
+        }
+        if (total == 0) {
+            return OptionalInt.empty();
+        }
+        return kthSmallest((long) Math.ceil(percentile / 100 * total));
+    }
+
+    /**
+     * The k-th largest value, {@code k = 1} is the maximum.
+     */
+    public OptionalInt kthLargest(long k) {
+        if (k <= 0 || k > total) {
+            return OptionalInt.empty();
+        }
+        return kthSmallest(total - k + 1);
+    }
+
+    /**
+     * The k-th smallest value, {@code k = 1} is the minimum.
+     */
+    public OptionalInt kthSmallest(long k) {
+        if (k <= 0 || k > total) {
+            return OptionalInt.empty();
+        }
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= k) {
+                return OptionalInt.of(min + i);
+            }
+        }
+        throw new IllegalStateException("Counts do not add up to " + total);
+    }
+}
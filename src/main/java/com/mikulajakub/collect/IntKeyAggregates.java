@@ -0,0 +1,136 @@
+package com.mikulajakub.collect;
+
+import java.util.stream.IntStream;
+
+/**
+ * Per-key count, sum, min and max of {@code int} values, keyed by {@code int}.
+ * Open addressing with linear probing over flat primitive arrays: recording
+ * a value never boxes and allocates only when the table grows.
+ */
+public final class IntKeyAggregates extends PrimitiveAggregates {
+
+    @FunctionalInterface
+    public interface Consumer {
+        void accept(int key, long count, long sum, int min, int max);
+    }
+
+    private int[] keys;
+
+    public IntKeyAggregates() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public IntKeyAggregates(int expectedKeys) {
+        super(expectedKeys);
+    }
+
+    @Override
+    void allocate(int capacity) {
+        super.allocate(capacity);
+        keys = new int[capacity];
+    }
+
+    public void add(int key, int value) {
+        record(slotFor(key), value);
+    }
+
+    /**
+     * Adds all aggregates of {@code other} into this map.
+     */
+    public IntKeyAggregates merge(IntKeyAggregates other) {
+        for (int slot = 0; slot < other.keys.length; slot++) {
+            if (other.counts[slot] > 0) {
+                combine(slotFor(other.keys[slot]), other.counts[slot], other.sums[slot],
+                        other.mins[slot], other.maxs[slot]);
+            }
+        }
+        return this;
+    }
+
+    public boolean containsKey(int key) {
+        return find(key) >= 0;
+    }
+
+    public long count(int key) {
+        return countAt(find(key));
+    }
+
+    public long sum(int key) {
+        return sumAt(find(key));
+    }
+
+    /**
+     * @throws java.util.NoSuchElementException if the key has no values
+     */
+    public int min(int key) {
+        return minAt(find(key), key);
+    }
+
+    /**
+     * @throws java.util.NoSuchElementException if the key has no values
+     */
+    public int max(int key) {
+        return maxAt(find(key), key);
+    }
+
+    public IntStream keys() {
+        return IntStream.range(0, keys.length).filter(slot -> counts[slot] > 0).map(slot -> keys[slot]);
+    }
+
+    public void forEach(Consumer consumer) {
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (counts[slot] > 0) {
+                consumer.accept(keys[slot], counts[slot], sums[slot], mins[slot], maxs[slot]);
+            }
+        }
+    }
+
+    private int find(int key) {
+        for (int slot = mix(key) & mask; ; slot = (slot + 1) & mask) {
+            if (counts[slot] == 0) {
+                return -1;
+            }
+            if (keys[slot] == key) {
+                return slot;
+            }
+        }
+    }
+
+    private int slotFor(int key) {
+        if (needsResize()) {
+            resize();
+        }
+        int slot = mix(key) & mask;
+        while (counts[slot] != 0) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        size++;
+        return slot;
+    }
+
+    private void resize() {
+        int[] oldKeys = keys;
+        long[] oldCounts = counts;
+        long[] oldSums = sums;
+        int[] oldMins = mins;
+        int[] oldMaxs = maxs;
+        allocate(oldKeys.length << 1);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldCounts[i] > 0) {
+                int slot = mix(oldKeys[i]) & mask;
+                while (counts[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                counts[slot] = oldCounts[i];
+                sums[slot] = oldSums[i];
+                mins[slot] = oldMins[i];
+                maxs[slot] = oldMaxs[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.mikulajakub.collect;
+
+/**
+ * Reductions over {@code a[from, to)} behind {@link IntReductions}; {@code from < to} is guaranteed.
+ */
+interface IntReducer {
+
+    int sum(int[] a, int from, int to);
+
+    long sumAsLong(int[] a, int from, int to);
+
+    int product(int[] a, int from, int to);
+
+    int min(int[] a, int from, int to);
+
+    int max(int[] a, int from, int to);
+
+    long count(int[] a, int from, int to, IntCondition condition);
+
+    int sumWhere(int[] a, int from, int to, IntCondition condition);
+}
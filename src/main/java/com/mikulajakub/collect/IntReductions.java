@@ -0,0 +1,194 @@
+package com.mikulajakub.collect;
+
+import java.nio.IntBuffer;
+import java.util.OptionalInt;
+
+/**
+ * Reductions over {@code int[]} and {@code IntBuffer} without going through a stream.
+ * <p>
+ * When the JVM runs with {@code --add-modules jdk.incubator.vector} the loops
+ * use SIMD lanes of the widest vector shape the CPU supports; otherwise, or
+ * with {@code -Dstreams.vector=false}, the same API runs plain scalar loops.
+ * {@link #sum}, {@link #product} and {@link #sumWhere} wrap around on overflow
+ * exactly like {@code IntStream.sum()} and {@code reduce}; {@link #sumAsLong}
+ * does not overflow.
+ * <pre>
+ * int evenSum = IntReductions.sumWhere(values, IntCondition.even());
+ * long adults = IntReductions.count(ages, IntCondition.greaterThan(17));
+ * </pre>
+ * Direct buffers are copied into a small scratch array chunk by chunk.
+ */
+public final class IntReductions {
+
+    static final IntReducer SCALAR = ScalarIntReducer.INSTANCE;
+    static final IntReducer VECTOR = loadVectorReducer();
+
+    private static final IntReducer REDUCER =
+            VECTOR != null && !"false".equals(System.getProperty("streams.vector")) ? VECTOR : SCALAR;
+
+    private static final int CHUNK = 4096;
+
+    private IntReductions() {
+    }
+
+    /**
+     * Whether the Vector API implementation is in use.
+     */
+    public static boolean isVectorized() {
+        return REDUCER == VECTOR;
+    }
+
+    public static int sum(int[] values) {
+        return sum(values, 0, values.length);
+    }
+
+    public static int sum(int[] values, int from, int to) {
+        checkRange(values, from, to);
+        return from == to ? 0 : REDUCER.sum(values, from, to);
+    }
+
+    public static int sum(IntBuffer buffer) {
+        return (int) reduce(buffer, Operation.SUM, null);
+    }
+
+    public static long sumAsLong(int[] values) {
+        return sumAsLong(values, 0, values.length);
+    }
+
+    public static long sumAsLong(int[] values, int from, int to) {
+        checkRange(values, from, to);
+        return from == to ? 0 : REDUCER.sumAsLong(values, from, to);
+    }
+
+    public static long sumAsLong(IntBuffer buffer) {
+        return reduce(buffer, Operation.SUM_AS_LONG, null);
+    }
+
+    /**
+     * Product of all values, {@code 1} for none, like {@code reduce(1, (a, b) -> a * b)}.
+     */
+    public static int product(int[] values) {
+        return product(values, 0, values.length);
+    }
+
+    public static int product(int[] values, int from, int to) {
+        checkRange(values, from, to);
+        return from == to ? 1 : REDUCER.product(values, from, to);
+    }
+
+    public static int product(IntBuffer buffer) {
+        return (int) reduce(buffer, Operation.PRODUCT, null);
+    }
+
+    public static OptionalInt min(int[] values) {
+        return values.length == 0 ? OptionalInt.empty() : OptionalInt.of(REDUCER.min(values, 0, values.length));
+    }
+
+    public static OptionalInt min(IntBuffer buffer) {
+        return buffer.hasRemaining() ? OptionalInt.of((int) reduce(buffer, Operation.MIN, null)) : OptionalInt.empty();
+    }
+
+    public static OptionalInt max(int[] values) {
+        return values.length == 0 ? OptionalInt.empty() : OptionalInt.of(REDUCER.max(values, 0, values.length));
+    }
+
+    public static OptionalInt max(IntBuffer buffer) {
+        return buffer.hasRemaining() ? OptionalInt.of((int) reduce(buffer, Operation.MAX, null)) : OptionalInt.empty();
+    }
+
+    public static long count(int[] values, IntCondition condition) {
+        return values.length == 0 ? 0 : REDUCER.count(values, 0, values.length, condition);
+    }
+
+    public static long count(IntBuffer buffer, IntCondition condition) {
+        return reduce(buffer, Operation.COUNT, condition);
+    }
+
+    /**
+     * Sum of the values matching the condition, like {@code filter(condition).sum()}.
+     */
+    public static int sumWhere(int[] values, IntCondition condition) {
+        return values.length == 0 ? 0 : REDUCER.sumWhere(values, 0, values.length, condition);
+    }
+
+    public static int sumWhere(IntBuffer buffer, IntCondition condition) {
+        return (int) reduce(buffer, Operation.SUM_WHERE, condition);
+    }
+
+    private enum Operation {
+        SUM, SUM_AS_LONG, PRODUCT, MIN, MAX, COUNT, SUM_WHERE
+    }
+
+    /**
+     * Reduces the remaining elements of the buffer, leaving its position unchanged.
+     */
+    private static long reduce(IntBuffer buffer, Operation operation, IntCondition condition) {
+        if (buffer.hasArray()) {
+            int from = buffer.arrayOffset() + buffer.position();
+            return apply(buffer.array(), from, from + buffer.remaining(), operation, condition, identity(operation));
+        }
+        int[] chunk = new int[Math.min(CHUNK, Math.max(1, buffer.remaining()))];
+        long result = identity(operation);
+        for (int at = buffer.position(); at < buffer.limit(); at += chunk.length) {
+            int length = Math.min(chunk.length, buffer.limit() - at);
+            buffer.get(at, chunk, 0, length);
+            result = apply(chunk, 0, length, operation, condition, result);
+        }
+        return result;
+    }
+
+    private static long identity(Operation operation) {
+        switch (operation) {
+            case PRODUCT:
+                return 1;
+            case MIN:
+                return Integer.MAX_VALUE;
+            case MAX:
+                return Integer.MIN_VALUE;
+            default:
+                return 0;
+        }
+    }
+
+    private static long apply(int[] a, int from, int to, Operation operation, IntCondition condition, long acc) {
+        if (from == to) {
+            return acc;
+        }
+        switch (operation) {
+            case SUM:
+                return (int) acc + REDUCER.sum(a, from, to);
+            case SUM_AS_LONG:
+                return acc + REDUCER.sumAsLong(a, from, to);
+            case PRODUCT:
+                return (int) acc * REDUCER.product(a, from, to);
+            case MIN:
+                return Math.min((int) acc, REDUCER.min(a, from, to));
+            case MAX:
+                return Math.max((int) acc, REDUCER.max(a, from, to));
+            case COUNT:
+                return acc + REDUCER.count(a, from, to, condition);
+            default:
+                return (int) acc + REDUCER.sumWhere(a, from, to, condition);
+        }
+    }
+
+    private static void checkRange(int[] values, int from, int to) {
+        if (from < 0 || to > values.length || from > to) {
+            throw new IndexOutOfBoundsException("Range [" + from + ", " + to + ") out of bounds for length "
+                    + values.length);
+        }
+    }
+
+    private static IntReducer loadVectorReducer() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return null;
+        }
+        try {
+            return (IntReducer) Class.forName(IntReductions.class.getPackageName() + ".VectorIntReducer")
+                    .getDeclaredConstructor()
+                    .newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.mikulajakub.collect;
+
+import java.util.Objects;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Per-key count, sum, min and max of {@code int} values, keyed by any object, usually a {@code String}.
+ * Keys and their cached hashes live in flat arrays next to the primitive value columns,
+ * so there is no map entry or boxed value per key.
+ *
+ * @param <K> key type, must not be {@code null}
+ */
+public final class KeyAggregates<K> extends PrimitiveAggregates {
+
+    @FunctionalInterface
+    public interface Consumer<K> {
+        void accept(K key, long count, long sum, int min, int max);
+    }
+
+    private Object[] keys;
+    private int[] hashes;
+
+    public KeyAggregates() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public KeyAggregates(int expectedKeys) {
+        super(expectedKeys);
+    }
+
+    @Override
+    void allocate(int capacity) {
+        super.allocate(capacity);
+        keys = new Object[capacity];
+        hashes = new int[capacity];
+    }
+
+    public void add(K key, int value) {
+        record(slotFor(Objects.requireNonNull(key, "key")), value);
+    }
+
+    /**
+     * Adds all aggregates of {@code other} into this map.
+     */
+    public KeyAggregates<K> merge(KeyAggregates<K> other) {
+        for (int slot = 0; slot < other.keys.length; slot++) {
+            if (other.keys[slot] != null) {
+                combine(slotFor(other.keys[slot]), other.counts[slot], other.sums[slot],
+                        other.mins[slot], other.maxs[slot]);
+            }
+        }
+        return this;
+    }
+
+    public boolean containsKey(K key) {
+        return find(key) >= 0;
+    }
+
+    public long count(K key) {
+        return countAt(find(key));
+    }
+
+    public long sum(K key) {
+        return sumAt(find(key));
+    }
+
+    /**
+     * @throws java.util.NoSuchElementException if the key has no values
+     */
+    public int min(K key) {
+        return minAt(find(key), key);
+    }
+
+    /**
+     * @throws java.util.NoSuchElementException if the key has no values
+     */
+    public int max(K key) {
+        return maxAt(find(key), key);
+    }
+
+    @SuppressWarnings("unchecked")
+    public Stream<K> keys() {
+        return IntStream.range(0, keys.length).filter(slot -> keys[slot] != null).mapToObj(slot -> (K) keys[slot]);
+    }
+
+    @SuppressWarnings("unchecked")
+    public void forEach(Consumer<? super K> consumer) {
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != null) {
+                consumer.accept((K) keys[slot], counts[slot], sums[slot], mins[slot], maxs[slot]);
+            }
+        }
+    }
+
+    private int find(Object key) {
+        if (key == null) {
+            return -1;
+        }
+        int hash = mix(key.hashCode());
+        for (int slot = hash & mask; keys[slot] != null; slot = (slot + 1) & mask) {
+            if (hashes[slot] == hash && keys[slot].equals(key)) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private int slotFor(Object key) {
+        if (needsResize()) {
+            resize();
+        }
+        int hash = mix(key.hashCode());
+        int slot = hash & mask;
+        while (keys[slot] != null) {
+            if (hashes[slot] == hash && keys[slot].equals(key)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        hashes[slot] = hash;
+        size++;
+        return slot;
+    }
+
+    private void resize() {
+        Object[] oldKeys = keys;
+        int[] oldHashes = hashes;
+        long[] oldCounts = counts;
+        long[] oldSums = sums;
+        int[] oldMins = mins;
+        int[] oldMaxs = maxs;
+        allocate(oldKeys.length << 1);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                int slot = oldHashes[i] & mask;
+                while (keys[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                hashes[slot] = oldHashes[i];
+                counts[slot] = oldCounts[i];
+                sums[slot] = oldSums[i];
+                mins[slot] = oldMins[i];
+                maxs[slot] = oldMaxs[i];
+            }
+        }
+    }
+}
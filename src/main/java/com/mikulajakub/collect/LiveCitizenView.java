@@ -0,0 +1,168 @@
+package com.mikulajakub.collect;
+
+import com.mikulajakub.model.Citizen;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.OptionalInt;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Materialized view over a feed of citizen insert, update and delete events,
+ * keyed by name with last-write-wins semantics.
+ * <p>
+ * Count and sum of ages are maintained in O(1) per event and the maximum and
+ * minimum in O(log n) through a multiset of ages, so deletions never force a
+ * rescan. Writers are serialized; after each event, or each batch given to
+ * {@link #applyAll}, an immutable {@link Snapshot} is published through a
+ * volatile field, so readers never block and never see half an update.
+ * {@link #latest(String)} reads the current row of one name lock-free; it is
+ * consistent per name but may be newer than the last snapshot.
+ * <pre>
+ * LiveCitizenView view = new LiveCitizenView();
+ * events.forEach(view::apply);
+ * LiveCitizenView.Snapshot now = view.snapshot();
+ * long sum = now.getSum();
+ * </pre>
+ */
+public final class LiveCitizenView {
+
+    public enum Kind {
+        INSERT, UPDATE, DELETE
+    }
+
+    /**
+     * One change of the feed. Inserts and updates are both upserts of the whole
+     * row; a delete only needs the name.
+     */
+    @Getter
+    @AllArgsConstructor(access = AccessLevel.PRIVATE)
+    public static final class Event {
+        private final Kind kind;
+        private final String name;
+        private final int age;
+
+        public static Event insert(Citizen citizen) {
+            return new Event(Kind.INSERT, citizen.getName(), citizen.getAge());
+        }
+
+        public static Event update(Citizen citizen) {
+            return new Event(Kind.UPDATE, citizen.getName(), citizen.getAge());
+        }
+
+        public static Event delete(String name) {
+            return new Event(Kind.DELETE, name, 0);
+        }
+    }
+
+    /**
+     * Aggregates as of one point of the feed.
+     */
+    @Getter
+    @AllArgsConstructor(access = AccessLevel.PRIVATE)
+    public static final class Snapshot {
+        private final long version;
+        private final long count;
+        private final long sum;
+        @Getter(AccessLevel.NONE)
+        private final int max;
+        @Getter(AccessLevel.NONE)
+        private final int min;
+
+        public OptionalInt getMaxAge() {
+            return count == 0 ? OptionalInt.empty() : OptionalInt.of(max);
+        }
+
+        public OptionalInt getMinAge() {
+            return count == 0 ? OptionalInt.empty() : OptionalInt.of(min);
+        }
+
+        public double getAverageAge() {
+            return count == 0 ? 0 : (double) sum / count;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("v%d: count=%d sum=%d max=%s min=%s",
+                    version, count, sum, getMaxAge(), getMinAge());
+        }
+    }
+
+    private static final Snapshot EMPTY = new Snapshot(0, 0, 0, 0, 0);
+
+    private final Map<String, Integer> ages = new ConcurrentHashMap<>();
+    private final TreeMap<Integer, int[]> ageCounts = new TreeMap<>();
+    private long sum;
+    private long version;
+    private volatile Snapshot snapshot = EMPTY;
+
+    public synchronized void apply(Event event) {
+        change(event);
+        publish();
+    }
+
+    /**
+     * Applies the events in order and publishes one snapshot at the end.
+     */
+    public synchronized void applyAll(Stream<Event> events) {
+        events.sequential().forEachOrdered(this::change);
+        publish();
+    }
+
+    public void insert(Citizen citizen) {
+        apply(Event.insert(citizen));
+    }
+
+    public void update(Citizen citizen) {
+        apply(Event.update(citizen));
+    }
+
+    public void delete(String name) {
+        apply(Event.delete(name));
+    }
+
+    public Snapshot snapshot() {
+        return snapshot;
+    }
+
+    public OptionalInt latest(String name) {
+        Integer age = ages.get(name);
+        return age == null ? OptionalInt.empty() : OptionalInt.of(age);
+    }
+
+    /**
+     * Live read-only view of the current age per name.
+     */
+    public Map<String, Integer> latestPerName() {
+        return Collections.unmodifiableMap(ages);
+    }
+
+    private void change(Event event) {
+        String name = Objects.requireNonNull(event.getName(), "name");
+        Integer previous = event.getKind() == Kind.DELETE ? ages.remove(name) : ages.put(name, event.getAge());
+        if (previous != null) {
+            sum -= previous;
+            int[] count = ageCounts.get(previous);
+            if (--count[0] == 0) {
+                ageCounts.remove(previous);
+            }
+        }
+        if (event.getKind() != Kind.DELETE) {
+            sum += event.getAge();
+            ageCounts.computeIfAbsent(event.getAge(), age -> new int[1])[0]++;
+        }
+        version++;
+    }
+
+    private void publish() {
+        snapshot = ageCounts.isEmpty()
+                ? new Snapshot(version, 0, 0, 0, 0)
+                : new Snapshot(version, ages.size(), sum, ageCounts.lastKey(), ageCounts.firstKey());
+    }
+}
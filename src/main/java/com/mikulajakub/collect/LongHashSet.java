@@ -0,0 +1,117 @@
+package com.mikulajakub.collect;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+import java.util.stream.LongStream;
+
+/**
+ * Set of {@code long} values in one flat array, open addressing with linear probing.
+ * Each element costs 16 to 32 bytes against about 56 for a {@code HashSet<Long>}.
+ * {@code 0} marks a free slot, so the value zero is tracked by a flag.
+ */
+public final class LongHashSet extends OpenHashSet {
+
+    private long[] keys;
+    private boolean containsZero;
+
+    public LongHashSet() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public LongHashSet(int expectedSize) {
+        keys = new long[capacityFor(expectedSize)];
+        mask = keys.length - 1;
+    }
+
+    public static LongHashSet of(LongStream values) {
+        return values.collect(LongHashSet::new, LongHashSet::add, LongHashSet::addAll);
+    }
+
+    /**
+     * @return whether the value was not in the set yet
+     */
+    public boolean add(long value) {
+        if (value == 0) {
+            if (containsZero) {
+                return false;
+            }
+            containsZero = true;
+            size++;
+            return true;
+        }
+        if (needsResize()) {
+            resize();
+        }
+        int slot = slotOf(value);
+        for (long key; (key = keys[slot]) != 0; slot = (slot + 1) & mask) {
+            if (key == value) {
+                return false;
+            }
+        }
+        keys[slot] = value;
+        size++;
+        return true;
+    }
+
+    public LongHashSet addAll(LongHashSet other) {
+        other.forEach(this::add);
+        return this;
+    }
+
+    public boolean contains(long value) {
+        if (value == 0) {
+            return containsZero;
+        }
+        for (int slot = slotOf(value); keys[slot] != 0; slot = (slot + 1) & mask) {
+            if (keys[slot] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0);
+        containsZero = false;
+        size = 0;
+    }
+
+    public void forEach(LongConsumer action) {
+        if (containsZero) {
+            action.accept(0);
+        }
+        for (long key : keys) {
+            if (key != 0) {
+                action.accept(key);
+            }
+        }
+    }
+
+    public LongStream stream() {
+        LongStream nonZero = Arrays.stream(keys).filter(key -> key != 0);
+        return containsZero ? LongStream.concat(LongStream.of(0), nonZero) : nonZero;
+    }
+
+    public long[] toArray() {
+        return stream().toArray();
+    }
+
+    private int slotOf(long value) {
+        return (int) Hashing.fmix64(value) & mask;
+    }
+
+    private void resize() {
+        long[] old = keys;
+        keys = new long[grownCapacity()];
+        mask = keys.length - 1;
+        for (long key : old) {
+            if (key != 0) {
+                int slot = slotOf(key);
+                while (keys[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+            }
+        }
+    }
+}
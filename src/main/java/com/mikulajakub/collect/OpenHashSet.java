@@ -0,0 +1,58 @@
+package com.mikulajakub.collect;
+
+/**
+ * Sizing shared by the open-addressing hash sets: power-of-two tables kept at
+ * most half full, probed linearly.
+ */
+abstract class OpenHashSet {
+
+    static final int DEFAULT_CAPACITY = 16;
+    static final float LOAD_FACTOR = 0.5f;
+    static final int MAX_CAPACITY = 1 << 30;
+
+    int size;
+    int mask;
+
+    static int capacityFor(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("expectedSize must not be negative: " + expectedSize);
+        }
+        long wanted = Math.max(DEFAULT_CAPACITY, (long) Math.ceil(expectedSize / (double) LOAD_FACTOR));
+        if (wanted > MAX_CAPACITY) {
+            throw new IllegalArgumentException("Too many elements: " + expectedSize);
+        }
+        return Integer.highestOneBit((int) wanted - 1) << 1;
+    }
+
+    final boolean needsResize() {
+        return size + 1 > (mask + 1) * LOAD_FACTOR;
+    }
+
+    final int grownCapacity() {
+        int capacity = mask + 1;
+        if (capacity >= MAX_CAPACITY) {
+            throw new IllegalStateException("Set is full: " + size + " elements");
+        }
+        return capacity << 1;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Number of slots in the table, each slot costs the same whether used or not.
+     */
+    public int capacity() {
+        return mask + 1;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[size=" + size + ", capacity=" + capacity() + "]";
+    }
+}
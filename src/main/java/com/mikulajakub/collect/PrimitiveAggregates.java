@@ -0,0 +1,104 @@
+package com.mikulajakub.collect;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Count, sum, min and max columns shared by the open-addressing aggregate maps.
+ * Slot {@code i} of every column belongs to the key in slot {@code i} of the subclass.
+ */
+abstract class PrimitiveAggregates {
+
+    static final int DEFAULT_CAPACITY = 16;
+    static final float LOAD_FACTOR = 0.5f;
+
+    long[] counts;
+    long[] sums;
+    int[] mins;
+    int[] maxs;
+    int size;
+    int mask;
+
+    PrimitiveAggregates(int expectedKeys) {
+        int capacity = Integer.highestOneBit(Math.max(DEFAULT_CAPACITY, (int) (expectedKeys / LOAD_FACTOR)) - 1) << 1;
+        allocate(capacity);
+    }
+
+    void allocate(int capacity) {
+        counts = new long[capacity];
+        sums = new long[capacity];
+        mins = new int[capacity];
+        maxs = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    final void record(int slot, int value) {
+        if (counts[slot] == 0) {
+            mins[slot] = value;
+            maxs[slot] = value;
+        } else {
+            if (value < mins[slot]) {
+                mins[slot] = value;
+            }
+            if (value > maxs[slot]) {
+                maxs[slot] = value;
+            }
+        }
+        counts[slot]++;
+        sums[slot] += value;
+    }
+
+    final void combine(int slot, long count, long sum, int min, int max) {
+        if (counts[slot] == 0) {
+            mins[slot] = min;
+            maxs[slot] = max;
+        } else {
+            mins[slot] = Math.min(mins[slot], min);
+            maxs[slot] = Math.max(maxs[slot], max);
+        }
+        counts[slot] += count;
+        sums[slot] += sum;
+    }
+
+    final boolean needsResize() {
+        return size + 1 > (mask + 1) * LOAD_FACTOR;
+    }
+
+    /**
+     * Number of distinct keys.
+     */
+    public int size() {
+        return size;
+    }
+
+    final long countAt(int slot) {
+        return slot < 0 ? 0 : counts[slot];
+    }
+
+    final long sumAt(int slot) {
+        return slot < 0 ? 0 : sums[slot];
+    }
+
+    final int minAt(int slot, Object key) {
+        if (slot < 0) {
+            throw new NoSuchElementException("No values for key " + key);
+        }
+        return mins[slot];
+    }
+
+    final int maxAt(int slot, Object key) {
+        if (slot < 0) {
+            throw new NoSuchElementException("No values for key " + key);
+        }
+        return maxs[slot];
+    }
+
+    static int mix(int h) {
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[size=" + size + ", capacity=" + counts.length + "]";
+    }
+}
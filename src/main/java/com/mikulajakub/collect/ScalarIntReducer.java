@@ -0,0 +1,79 @@
+package com.mikulajakub.collect;
+
+/**
+ * Plain loops, used when the {@code jdk.incubator.vector} module is not available.
+ */
+final class ScalarIntReducer implements IntReducer {
+
+    static final ScalarIntReducer INSTANCE = new ScalarIntReducer();
+
+    private ScalarIntReducer() {
+    }
+
+    @Override
+    public int sum(int[] a, int from, int to) {
+        int sum = 0;
+        for (int i = from; i < to; i++) {
+            sum += a[i];
+        }
+        return sum;
+    }
+
+    @Override
+    public long sumAsLong(int[] a, int from, int to) {
+        long sum = 0;
+        for (int i = from; i < to; i++) {
+            sum += a[i];
+        }
+        return sum;
+    }
+
+    @Override
+    public int product(int[] a, int from, int to) {
+        int product = 1;
+        for (int i = from; i < to; i++) {
+            product *= a[i];
+        }
+        return product;
+    }
+
+    @Override
+    public int min(int[] a, int from, int to) {
+        int min = Integer.MAX_VALUE;
+        for (int i = from; i < to; i++) {
+            min = Math.min(min, a[i]);
+        }
+        return min;
+    }
+
+    @Override
+    public int max(int[] a, int from, int to) {
+        int max = Integer.MIN_VALUE;
+        for (int i = from; i < to; i++) {
+            max = Math.max(max, a[i]);
+        }
+        return max;
+    }
+
+    @Override
+    public long count(int[] a, int from, int to, IntCondition condition) {
+        long count = 0;
+        for (int i = from; i < to; i++) {
+            if (condition.test(a[i])) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public int sumWhere(int[] a, int from, int to, IntCondition condition) {
+        int sum = 0;
+        for (int i = from; i < to; i++) {
+            if (condition.test(a[i])) {
+                sum += a[i];
+            }
+        }
+        return sum;
+    }
+}
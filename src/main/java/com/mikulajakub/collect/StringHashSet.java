@@ -0,0 +1,118 @@
+package com.mikulajakub.collect;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Set of strings kept as two flat arrays, the hash and the reference of every
+ * element, with linear probing. Probes compare the cached hashes first and call
+ * {@code equals} only on a hash match; adding allocates no per-element node,
+ * so each element costs 16 to 32 bytes of table against about 40 for a
+ * {@code HashSet<String>}, not counting the strings themselves.
+ */
+public final class StringHashSet extends OpenHashSet {
+
+    private int[] hashes;
+    private String[] values;
+
+    public StringHashSet() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public StringHashSet(int expectedSize) {
+        int capacity = capacityFor(expectedSize);
+        hashes = new int[capacity];
+        values = new String[capacity];
+        mask = capacity - 1;
+    }
+
+    public static StringHashSet of(Stream<String> values) {
+        return values.collect(StringHashSet::new, StringHashSet::add, StringHashSet::addAll);
+    }
+
+    /**
+     * @return whether the value was not in the set yet
+     */
+    public boolean add(String value) {
+        int hash = hash(Objects.requireNonNull(value, "value"));
+        if (needsResize()) {
+            resize();
+        }
+        int slot = hash & mask;
+        for (int h; (h = hashes[slot]) != 0; slot = (slot + 1) & mask) {
+            if (h == hash && values[slot].equals(value)) {
+                return false;
+            }
+        }
+        hashes[slot] = hash;
+        values[slot] = value;
+        size++;
+        return true;
+    }
+
+    public StringHashSet addAll(StringHashSet other) {
+        other.forEach(this::add);
+        return this;
+    }
+
+    public boolean contains(String value) {
+        if (value == null) {
+            return false;
+        }
+        int hash = hash(value);
+        for (int slot = hash & mask, h; (h = hashes[slot]) != 0; slot = (slot + 1) & mask) {
+            if (h == hash && values[slot].equals(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void clear() {
+        Arrays.fill(hashes, 0);
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    public void forEach(Consumer<? super String> action) {
+        for (int slot = 0; slot < hashes.length; slot++) {
+            if (hashes[slot] != 0) {
+                action.accept(values[slot]);
+            }
+        }
+    }
+
+    public Stream<String> stream() {
+        return IntStream.range(0, hashes.length).filter(slot -> hashes[slot] != 0).mapToObj(slot -> values[slot]);
+    }
+
+    /**
+     * Spread {@link String#hashCode()}, cached by the string itself; {@code 0} is reserved for free slots.
+     */
+    private static int hash(String value) {
+        int h = PrimitiveAggregates.mix(value.hashCode());
+        return h == 0 ? 1 : h;
+    }
+
+    private void resize() {
+        int[] oldHashes = hashes;
+        String[] oldValues = values;
+        int capacity = grownCapacity();
+        hashes = new int[capacity];
+        values = new String[capacity];
+        mask = capacity - 1;
+        for (int i = 0; i < oldHashes.length; i++) {
+            if (oldHashes[i] != 0) {
+                int slot = oldHashes[i] & mask;
+                while (hashes[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                hashes[slot] = oldHashes[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
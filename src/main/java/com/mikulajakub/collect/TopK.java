@@ -0,0 +1,178 @@
+package com.mikulajakub.collect;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.PriorityQueue;
+import java.util.stream.Collector;
+import java.util.stream.IntStream;
+
+/**
+ * Bounded top-K selection, a replacement for {@code sorted().limit(k)}.
+ * <p>
+ * Elements are kept in a heap of at most {@code k} entries, so selection costs
+ * {@code O(n log k)} time and {@code O(k)} memory. Partial heaps of parallel
+ * splits are merged by pushing the smaller heap into the larger one.
+ * <pre>
+ * List&lt;Citizen&gt; oldest = citizens.parallelStream()
+ *         .collect(TopK.greatest(10, Comparator.comparingInt(Citizen::getAge)));
+ * int[] youngestAges = TopK.least(citizens.stream().mapToInt(Citizen::getAge), 3);
+ * </pre>
+ */
+public final class TopK {
+
+    private TopK() {
+    }
+
+    /**
+     * The {@code k} greatest elements by the comparator, greatest first.
+     */
+    public static <T> Collector<T, ?, List<T>> greatest(int k, Comparator<? super T> comparator) {
+        checkK(k);
+        return Collector.of(
+                () -> new PriorityQueue<T>(Math.min(k, 1024) + 1, comparator),
+                (heap, x) -> offer(heap, x, k, comparator),
+                (x, y) -> {
+                    PriorityQueue<T> into = x.size() >= y.size() ? x : y;
+                    PriorityQueue<T> from = into == x ? y : x;
+                    for (T element : from) {
+                        offer(into, element, k, comparator);
+                    }
+                    return into;
+                },
+                heap -> {
+                    List<T> result = new ArrayList<>(heap);
+                    result.sort(comparator.reversed());
+                    return result;
+                },
+                Collector.Characteristics.UNORDERED);
+    }
+
+    /**
+     * The {@code k} least elements by the comparator, least first.
+     */
+    public static <T> Collector<T, ?, List<T>> least(int k, Comparator<? super T> comparator) {
+        return greatest(k, comparator.reversed());
+    }
+
+    /**
+     * The {@code k} greatest ints, greatest first.
+     */
+    public static int[] greatest(IntStream values, int k) {
+        return values.collect(() -> new IntHeap(k, false), IntHeap::add, IntHeap::merge).toSortedArray();
+    }
+
+    /**
+     * The {@code k} least ints, least first.
+     */
+    public static int[] least(IntStream values, int k) {
+        return values.collect(() -> new IntHeap(k, true), IntHeap::add, IntHeap::merge).toSortedArray();
+    }
+
+    /**
+     * The k-th largest value ({@code k = 1} is the maximum), empty if there are fewer than {@code k} values.
+     */
+    public static OptionalInt kthLargest(IntStream values, int k) {
+        IntHeap heap = values.collect(() -> new IntHeap(k, false), IntHeap::add, IntHeap::merge);
+        return heap.size < k ? OptionalInt.empty() : OptionalInt.of(heap.heap[0]);
+    }
+
+    private static <T> void offer(PriorityQueue<T> heap, T element, int k, Comparator<? super T> comparator) {
+        if (heap.size() < k) {
+            heap.add(element);
+        } else if (comparator.compare(element, heap.peek()) > 0) {
+            heap.poll();
+            heap.add(element);
+        }
+    }
+
+    private static void checkK(int k) {
+        if (k <= 0) {
+            throw new IllegalArgumentException("k must be positive: " + k);
+        }
+    }
+
+    /**
+     * Binary heap of at most {@code k} ints whose root is the weakest kept value:
+     * the smallest when keeping the greatest values, the largest when keeping the least.
+     */
+    static final class IntHeap {
+        private final int[] heap;
+        private final boolean keepLeast;
+        private int size;
+
+        IntHeap(int k, boolean keepLeast) {
+            checkK(k);
+            this.heap = new int[k];
+            this.keepLeast = keepLeast;
+        }
+
+        void add(int value) {
+            if (size < heap.length) {
+                heap[size] = value;
+                siftUp(size++);
+            } else if (better(value, heap[0])) {
+                heap[0] = value;
+                siftDown(0);
+            }
+        }
+
+        void merge(IntHeap other) {
+            for (int i = 0; i < other.size; i++) {
+                add(other.heap[i]);
+            }
+        }
+
+        int[] toSortedArray() {
+            int[] sorted = Arrays.copyOf(heap, size);
+            Arrays.sort(sorted);
+            if (!keepLeast) {
+                for (int i = 0, j = sorted.length - 1; i < j; i++, j--) {
+                    int swap = sorted[i];
+                    sorted[i] = sorted[j];
+                    sorted[j] = swap;
+                }
+            }
+            return sorted;
+        }
+
+        /**
+         * Whether {@code a} should be kept in preference to {@code b}.
+         */
+        private boolean better(int a, int b) {
+            return keepLeast ? a < b : a > b;
+        }
+
+        private void siftUp(int i) {
+            int value = heap[i];
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!better(heap[parent], value)) {
+                    break;
+                }
+                heap[i] = heap[parent];
+                i = parent;
+            }
+            heap[i] = value;
+        }
+
+        private void siftDown(int i) {
+            int value = heap[i];
+            int half = size >>> 1;
+            while (i < half) {
+                int child = 2 * i + 1;
+                if (child + 1 < size && better(heap[child], heap[child + 1])) {
+                    child++;
+                }
+                if (!better(value, heap[child])) {
+                    break;
+                }
+                heap[i] = heap[child];
+                i = child;
+            }
+            heap[i] = value;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.mikulajakub.collect;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD reductions on the preferred vector shape of the CPU. Only loaded
+ * reflectively by {@link IntReductions}, so the rest of the code runs without
+ * the incubator module; the tail shorter than one vector goes through
+ * {@link ScalarIntReducer}.
+ */
+final class VectorIntReducer implements IntReducer {
+
+    private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Long> LONGS = LongVector.SPECIES_PREFERRED;
+    private static final ScalarIntReducer TAIL = ScalarIntReducer.INSTANCE;
+
+    @Override
+    public int sum(int[] a, int from, int to) {
+        int bound = from + INTS.loopBound(to - from);
+        IntVector acc = IntVector.zero(INTS);
+        int i = from;
+        for (; i < bound; i += INTS.length()) {
+            acc = acc.add(IntVector.fromArray(INTS, a, i));
+        }
+        int sum = acc.reduceLanes(VectorOperators.ADD);
+        return i < to ? sum + TAIL.sum(a, i, to) : sum;
+    }
+
+    @Override
+    public long sumAsLong(int[] a, int from, int to) {
+        int bound = from + INTS.loopBound(to - from);
+        LongVector low = LongVector.zero(LONGS);
+        LongVector high = LongVector.zero(LONGS);
+        int i = from;
+        for (; i < bound; i += INTS.length()) {
+            IntVector v = IntVector.fromArray(INTS, a, i);
+            low = low.add(v.convertShape(VectorOperators.I2L, LONGS, 0));
+            high = high.add(v.convertShape(VectorOperators.I2L, LONGS, 1));
+        }
+        long sum = low.add(high).reduceLanes(VectorOperators.ADD);
+        return i < to ? sum + TAIL.sumAsLong(a, i, to) : sum;
+    }
+
+    @Override
+    public int product(int[] a, int from, int to) {
+        int bound = from + INTS.loopBound(to - from);
+        IntVector acc = IntVector.broadcast(INTS, 1);
+        int i = from;
+        for (; i < bound; i += INTS.length()) {
+            acc = acc.mul(IntVector.fromArray(INTS, a, i));
+        }
+        int product = acc.reduceLanes(VectorOperators.MUL);
+        return i < to ? product * TAIL.product(a, i, to) : product;
+    }
+
+    @Override
+    public int min(int[] a, int from, int to) {
+        int bound = from + INTS.loopBound(to - from);
+        IntVector acc = IntVector.broadcast(INTS, Integer.MAX_VALUE);
+        int i = from;
+        for (; i < bound; i += INTS.length()) {
+            acc = acc.min(IntVector.fromArray(INTS, a, i));
+        }
+        int min = acc.reduceLanes(VectorOperators.MIN);
+        return i < to ? Math.min(min, TAIL.min(a, i, to)) : min;
+    }
+
+    @Override
+    public int max(int[] a, int from, int to) {
+        int bound = from + INTS.loopBound(to - from);
+        IntVector acc = IntVector.broadcast(INTS, Integer.MIN_VALUE);
+        int i = from;
+        for (; i < bound; i += INTS.length()) {
+            acc = acc.max(IntVector.fromArray(INTS, a, i));
+        }
+        int max = acc.reduceLanes(VectorOperators.MAX);
+        return i < to ? Math.max(max, TAIL.max(a, i, to)) : max;
+    }
+
+    @Override
+    public long count(int[] a, int from, int to, IntCondition condition) {
+        int bound = from + INTS.loopBound(to - from);
+        long count = 0;
+        int i = from;
+        for (; i < bound; i += INTS.length()) {
+            count += test(IntVector.fromArray(INTS, a, i), condition).trueCount();
+        }
+        return i < to ? count + TAIL.count(a, i, to, condition) : count;
+    }
+
+    @Override
+    public int sumWhere(int[] a, int from, int to, IntCondition condition) {
+        int bound = from + INTS.loopBound(to - from);
+        IntVector acc = IntVector.zero(INTS);
+        int i = from;
+        for (; i < bound; i += INTS.length()) {
+            IntVector v = IntVector.fromArray(INTS, a, i);
+            acc = acc.add(v, test(v, condition));
+        }
+        int sum = acc.reduceLanes(VectorOperators.ADD);
+        return i < to ? sum + TAIL.sumWhere(a, i, to, condition) : sum;
+    }
+
+    private static VectorMask<Integer> test(IntVector v, IntCondition condition) {
+        switch (condition.kind) {
+            case EVEN:
+                return v.and(1).compare(VectorOperators.EQ, 0);
+            case ODD:
+                return v.and(1).compare(VectorOperators.NE, 0);
+            case EQUAL:
+                return v.compare(VectorOperators.EQ, condition.first);
+            case LESS_THAN:
+                return v.compare(VectorOperators.LT, condition.first);
+            case GREATER_THAN:
+                return v.compare(VectorOperators.GT, condition.first);
+            default:
+                return v.compare(VectorOperators.GE, condition.first)
+                        .and(v.compare(VectorOperators.LE, condition.second));
+        }
+    }
+}
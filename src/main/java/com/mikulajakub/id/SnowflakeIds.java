@@ -0,0 +1,249 @@
+package com.mikulajakub.id;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.stream.LongStream;
+
+/**
+ * Unique 64-bit ids, Snowflake style: 41 bits of milliseconds since the epoch,
+ * 12 bits of sequence and the node number in the low 10 bits, so ids of
+ * different nodes never collide and ids of one node sort by time.
+ * <p>
+ * Timestamp and sequence form one counter which threads advance with a single
+ * compare-and-set per block of ids: {@link #nextId()} hands out ids from a
+ * block of {@code blockSize} reserved per thread, {@link #ids(long)} reserves
+ * its whole range up front and then splits like {@code LongStream.range}.
+ * When more than 4096 ids per millisecond are taken the counter runs ahead of
+ * the clock, by at most {@code maxRunAhead}, 100 ms by default; past that,
+ * reservations wait for the clock like classic Snowflake, so a node issues
+ * about 4 million ids per second at most. A node restarted quicker than its
+ * {@link #runAhead()} would issue those ids again, so it must not restart
+ * within {@code maxRunAhead}.
+ * <pre>
+ * SnowflakeIds generator = SnowflakeIds.builder().node(7).build();
+ * long[] ids = generator.ids(citizens.size()).toArray();
+ * </pre>
+ * {@code nextId()} always increases within a thread; ids of different threads
+ * interleave by up to a block, and a thread sitting on a block issues ids with
+ * the time of its reservation.
+ */
+public final class SnowflakeIds {
+
+    public static final int NODE_BITS = 10;
+    public static final int SEQUENCE_BITS = 12;
+    public static final int TIMESTAMP_BITS = 41;
+
+    /**
+     * Length of {@link #formatHex} output.
+     */
+    public static final int HEX_LENGTH = 16;
+
+    static final long MAX_COUNTER = (1L << TIMESTAMP_BITS + SEQUENCE_BITS) - 1;
+    private static final long DEFAULT_EPOCH = Instant.parse("2020-01-01T00:00:00Z").toEpochMilli();
+
+    private final long node;
+    private final long epochMillis;
+    private final int blockSize;
+    private final long maxRunAhead;
+    private final LongSupplier clock;
+    /**
+     * Counter after the last reserved id, timestamp and sequence bits together.
+     */
+    private final AtomicLong reserved = new AtomicLong();
+    private final ThreadLocal<long[]> blocks = ThreadLocal.withInitial(() -> new long[2]);
+
+    private SnowflakeIds(Builder builder) {
+        this.node = builder.node;
+        this.epochMillis = builder.epochMillis;
+        this.blockSize = builder.blockSize;
+        this.maxRunAhead = Math.min(builder.maxRunAheadMillis, 1L << TIMESTAMP_BITS) << SEQUENCE_BITS;
+        this.clock = builder.clock;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public long nextId() {
+        long[] block = blocks.get();
+        if (block[0] == block[1]) {
+            block[0] = reserve(blockSize);
+            block[1] = block[0] + blockSize;
+        }
+        return toId(block[0]++);
+    }
+
+    /**
+     * {@code count} consecutive ids in increasing order, reserved at once.
+     * Past {@code maxRunAhead}, this waits until the clock has caught up with
+     * the end of the range, about 24 seconds for 10<sup>8</sup> ids.
+     */
+    public LongStream ids(long count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("count must not be negative: " + count);
+        }
+        if (count == 0) {
+            return LongStream.empty();
+        }
+        long first = reserve(count);
+        return LongStream.range(first, first + count).map(this::toId);
+    }
+
+    /**
+     * Endless stream of {@link #nextId()}, to be cut with {@code limit}.
+     */
+    public LongStream stream() {
+        return LongStream.generate(this::nextId);
+    }
+
+    /**
+     * How far the timestamp of the last reserved id is ahead of the clock,
+     * zero while the load stays below 4096 ids per millisecond.
+     */
+    public Duration runAhead() {
+        long ahead = (reserved.get() - 1 >> SEQUENCE_BITS) - (clock.getAsLong() - epochMillis);
+        return Duration.ofMillis(Math.max(0, ahead));
+    }
+
+    public long getNode() {
+        return node;
+    }
+
+    public Instant timestampOf(long id) {
+        return Instant.ofEpochMilli(epochMillis + (id >>> NODE_BITS + SEQUENCE_BITS));
+    }
+
+    public static int sequenceOf(long id) {
+        return (int) (id >>> NODE_BITS) & (1 << SEQUENCE_BITS) - 1;
+    }
+
+    public static int nodeOf(long id) {
+        return (int) id & (1 << NODE_BITS) - 1;
+    }
+
+    /**
+     * Writes the id as 16 lower-case hex digits at {@code offset} and returns
+     * the offset after them. The width is fixed, so the text sorts like the id.
+     */
+    public static int formatHex(long id, byte[] buffer, int offset) {
+        if (offset < 0 || offset > buffer.length - HEX_LENGTH) {
+            throw new IndexOutOfBoundsException("No room for an id at " + offset + " in " + buffer.length + " bytes");
+        }
+        Uuids.hex8((int) (id >>> 32), buffer, offset);
+        Uuids.hex8((int) id, buffer, offset + 8);
+        return offset + HEX_LENGTH;
+    }
+
+    /**
+     * Reserves {@code count} consecutive counter values, never below the
+     * current time, and returns once the clock is at most {@code maxRunAhead}
+     * behind the last of them.
+     */
+    private long reserve(long count) {
+        long now = elapsedMillis() << SEQUENCE_BITS;
+        long first;
+        while (true) {
+            long current = reserved.get();
+            first = Math.max(current, now);
+            if (first > MAX_COUNTER - count + 1) {
+                throw new IllegalStateException("Timestamp bits exhausted, " + TIMESTAMP_BITS
+                        + " bits of milliseconds since the epoch");
+            }
+            if (reserved.compareAndSet(current, first + count)) {
+                break;
+            }
+        }
+        long ahead;
+        while ((ahead = first + count - (elapsedMillis() + 1 << SEQUENCE_BITS) - maxRunAhead) > 0) {
+            waitForClock((ahead + (1 << SEQUENCE_BITS) - 1) >>> SEQUENCE_BITS);
+        }
+        return first;
+    }
+
+    private long elapsedMillis() {
+        long elapsed = clock.getAsLong() - epochMillis;
+        if (elapsed < 0) {
+            throw new IllegalStateException("Clock is before the epoch by " + -elapsed + " ms");
+        }
+        return elapsed;
+    }
+
+    private static void waitForClock(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the clock", e);
+        }
+    }
+
+    private long toId(long counter) {
+        return counter << NODE_BITS | node;
+    }
+
+    public static final class Builder {
+        private long node;
+        private long epochMillis = DEFAULT_EPOCH;
+        private int blockSize = 64;
+        private long maxRunAheadMillis = 100;
+        private LongSupplier clock = System::currentTimeMillis;
+
+        private Builder() {
+        }
+
+        /**
+         * Number of this generator, unique among the generators whose ids may meet.
+         */
+        public Builder node(int node) {
+            if (node < 0 || node >= 1 << NODE_BITS) {
+                throw new IllegalArgumentException("node must be in [0, " + (1 << NODE_BITS) + "): " + node);
+            }
+            this.node = node;
+            return this;
+        }
+
+        /**
+         * Start of the 69 years the timestamp bits cover, 2020-01-01 by default.
+         */
+        public Builder epoch(Instant epoch) {
+            this.epochMillis = epoch.toEpochMilli();
+            return this;
+        }
+
+        /**
+         * Ids reserved per thread at once by {@link #nextId()}, 64 by default.
+         */
+        public Builder blockSize(int blockSize) {
+            if (blockSize <= 0) {
+                throw new IllegalArgumentException("blockSize must be positive: " + blockSize);
+            }
+            this.blockSize = blockSize;
+            return this;
+        }
+
+        /**
+         * How far ahead of the clock the timestamps may run under load, 100 ms
+         * by default; with zero, ids wait for the next millisecond once the 4096
+         * of the current one are taken, as in classic Snowflake.
+         * A node must not restart quicker than this.
+         */
+        public Builder maxRunAhead(Duration maxRunAhead) {
+            if (maxRunAhead.isNegative()) {
+                throw new IllegalArgumentException("maxRunAhead must not be negative: " + maxRunAhead);
+            }
+            this.maxRunAheadMillis = maxRunAhead.toMillis();
+            return this;
+        }
+
+        Builder clock(LongSupplier clock) {
+            this.clock = clock;
+            return this;
+        }
+
+        public SnowflakeIds build() {
+            return new SnowflakeIds(this);
+        }
+    }
+}
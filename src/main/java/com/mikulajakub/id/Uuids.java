@@ -0,0 +1,129 @@
+package com.mikulajakub.id;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Version 4 and version 7 UUIDs drawn from {@link ThreadLocalRandom}, a
+ * contention-free replacement for {@link UUID#randomUUID()} when ids only
+ * have to be unique, not unguessable: {@code randomUUID} reads one shared
+ * {@code SecureRandom}, which serializes parallel streams.
+ * <p>
+ * The {@code byte[]} methods write the canonical 36-char form as ASCII into a
+ * caller's buffer, without creating a {@code UUID} or a {@code String}.
+ * <pre>
+ * byte[] line = new byte[Uuids.LENGTH];
+ * Uuids.randomV4(line, 0);
+ * out.write(line);
+ * </pre>
+ * The random bits are not fit for secrets such as session tokens.
+ */
+public final class Uuids {
+
+    /**
+     * Length of the canonical form, {@code 8-4-4-4-12} hex digits.
+     */
+    public static final int LENGTH = 36;
+
+    private static final VarHandle LONG_BE = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+    private static final VarHandle INT_BE = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+
+    private Uuids() {
+    }
+
+    public static UUID randomV4() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return new UUID(v4High(random.nextLong()), variant(random.nextLong()));
+    }
+
+    /**
+     * UUID whose first 48 bits are the Unix time in milliseconds, so ids sort
+     * by creation time to the millisecond; ids of the same millisecond are in
+     * random order.
+     */
+    public static UUID timeOrderedV7() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return new UUID(v7High(System.currentTimeMillis(), random.nextInt()), variant(random.nextLong()));
+    }
+
+    /**
+     * Writes a fresh version 4 UUID at {@code offset} and returns the offset after it.
+     */
+    public static int randomV4(byte[] buffer, int offset) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return format(v4High(random.nextLong()), variant(random.nextLong()), buffer, offset);
+    }
+
+    public static int timeOrderedV7(byte[] buffer, int offset) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return format(v7High(System.currentTimeMillis(), random.nextInt()), variant(random.nextLong()),
+                buffer, offset);
+    }
+
+    public static int format(UUID uuid, byte[] buffer, int offset) {
+        return format(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), buffer, offset);
+    }
+
+    /**
+     * Writes the canonical lower-case form, as {@link UUID#toString()}, at
+     * {@code offset} and returns the offset after it.
+     */
+    public static int format(long mostSignificantBits, long leastSignificantBits, byte[] buffer, int offset) {
+        if (offset < 0 || offset > buffer.length - LENGTH) {
+            throw new IndexOutOfBoundsException("No room for a UUID at " + offset + " in " + buffer.length + " bytes");
+        }
+        hex8((int) (mostSignificantBits >>> 32), buffer, offset);
+        buffer[offset + 8] = '-';
+        hex4((int) (mostSignificantBits >>> 16), buffer, offset + 9);
+        buffer[offset + 13] = '-';
+        hex4((int) mostSignificantBits, buffer, offset + 14);
+        buffer[offset + 18] = '-';
+        hex4((int) (leastSignificantBits >>> 48), buffer, offset + 19);
+        buffer[offset + 23] = '-';
+        hex4((int) (leastSignificantBits >>> 32), buffer, offset + 24);
+        hex8((int) leastSignificantBits, buffer, offset + 28);
+        return offset + LENGTH;
+    }
+
+    static void hex8(int value, byte[] buffer, int offset) {
+        LONG_BE.set(buffer, offset, hexDigits(value));
+    }
+
+    /**
+     * Writes the low 16 bits of the value as 4 hex digits.
+     */
+    static void hex4(int value, byte[] buffer, int offset) {
+        INT_BE.set(buffer, offset, (int) hexDigits(value & 0xFFFF));
+    }
+
+    /**
+     * The 8 hex digits of the value as ASCII bytes of a long, most significant
+     * digit in the highest byte, computed without a table or branches.
+     */
+    private static long hexDigits(int value) {
+        long x = value & 0xFFFF_FFFFL;
+        x = (x | x << 16) & 0x0000_FFFF_0000_FFFFL;
+        x = (x | x << 8) & 0x00FF_00FF_00FF_00FFL;
+        x = (x | x << 4) & 0x0F0F_0F0F_0F0F_0F0FL;
+        long letters = (x + 0x0606_0606_0606_0606L) >>> 4 & 0x0101_0101_0101_0101L;
+        return x + 0x3030_3030_3030_3030L + letters * ('a' - '0' - 10);
+    }
+
+    private static long v4High(long random) {
+        return random & ~0xF000L | 0x4000L;
+    }
+
+    private static long v7High(long unixMillis, int random) {
+        return unixMillis << 16 | 0x7000L | random & 0x0FFFL;
+    }
+
+    /**
+     * Sets the IETF variant, {@code 10} in the two top bits.
+     */
+    private static long variant(long random) {
+        return random & 0x3FFF_FFFF_FFFF_FFFFL | 0x8000_0000_0000_0000L;
+    }
+}
@@ -0,0 +1,406 @@
+package com.mikulajakub.io;
+
+import com.mikulajakub.model.Citizen;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Memory-mapped binary file of citizens, for datasets larger than the heap.
+ * <p>
+ * Layout, all numbers big-endian:
+ * <pre>
+ * header   magic, version, record count, block size, region offsets (48 bytes)
+ * names    per record: unsigned short length + UTF-8 bytes
+ * index    one long offset per block of {@code blockSize} records
+ * ages     one int per record
+ * </pre>
+ * Ages are a separate column, so {@link #ages()} reads them straight from the
+ * mapping without touching the names. Streams split on block boundaries and
+ * map only the window they are reading, so {@code .parallel()} scales across
+ * cores without loading the file into memory.
+ */
+public final class CitizenFile implements Closeable {
+
+    public static final int DEFAULT_BLOCK_SIZE = 4096;
+
+    static final int MAGIC = 0x43545A4E;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 48;
+
+    private static final int AGES_WINDOW = 1 << 24;
+    private static final long NAMES_WINDOW_BYTES = 1 << 28;
+    private static final int MAX_NAME_BYTES = 0xFFFF;
+
+    private final FileChannel channel;
+    private final long count;
+    private final int blockSize;
+    private final long agesOffset;
+    private final long namesOffset;
+    private final long indexOffset;
+    private final long[] blockOffsets;
+
+    private CitizenFile(FileChannel channel) throws IOException {
+        this.channel = channel;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        readFully(channel, header, 0);
+        header.flip();
+        if (header.getInt() != MAGIC) {
+            throw new IOException("Not a citizen file");
+        }
+        int version = header.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported citizen file version: " + version);
+        }
+        count = header.getLong();
+        blockSize = header.getInt();
+        header.getInt();
+        agesOffset = header.getLong();
+        namesOffset = header.getLong();
+        indexOffset = header.getLong();
+
+        int blocks = (int) ((count + blockSize - 1) / blockSize);
+        ByteBuffer index = ByteBuffer.allocate(blocks * Long.BYTES);
+        readFully(channel, index, indexOffset);
+        index.flip();
+        blockOffsets = new long[blocks + 1];
+        for (int i = 0; i < blocks; i++) {
+            blockOffsets[i] = index.getLong();
+        }
+        blockOffsets[blocks] = indexOffset;
+    }
+
+    public static CitizenFile open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return new CitizenFile(channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public static Writer writer(Path path) throws IOException {
+        return new Writer(path, DEFAULT_BLOCK_SIZE);
+    }
+
+    public static Writer writer(Path path, int blockSize) throws IOException {
+        return new Writer(path, blockSize);
+    }
+
+    /**
+     * Writes all citizens of the stream to a new file.
+     */
+    public static long write(Path path, Stream<Citizen> citizens) throws IOException {
+        try (Writer writer = writer(path)) {
+            citizens.forEachOrdered(writer::write);
+            return writer.count();
+        }
+    }
+
+    public long size() {
+        return count;
+    }
+
+    /**
+     * Citizens in file order. Names are decoded on the fly, the ages come from the mapped column.
+     */
+    public Stream<Citizen> stream() {
+        return StreamSupport.stream(new CitizenSpliterator(0, count), false);
+    }
+
+    /**
+     * Ages in file order, read directly from the mapped ages column.
+     */
+    public IntStream ages() {
+        return StreamSupport.intStream(new AgeSpliterator(0, count), false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private MappedByteBuffer map(long position, long length) {
+        try {
+            return channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new IOException("Unexpected end of citizen file");
+            }
+        }
+    }
+
+    private final class AgeSpliterator implements Spliterator.OfInt {
+        private long from;
+        private final long to;
+        private IntBuffer window;
+        private long windowStart;
+
+        AgeSpliterator(long from, long to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        private IntBuffer window() {
+            if (window == null || from >= windowStart + window.limit()) {
+                windowStart = from;
+                int length = (int) Math.min(AGES_WINDOW, to - from);
+                window = map(agesOffset + from * Integer.BYTES, (long) length * Integer.BYTES).asIntBuffer();
+            }
+            return window;
+        }
+
+        @Override
+        public boolean tryAdvance(IntConsumer action) {
+            if (from >= to) {
+                return false;
+            }
+            action.accept(window().get((int) (from - windowStart)));
+            from++;
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(IntConsumer action) {
+            while (from < to) {
+                IntBuffer ages = window();
+                int start = (int) (from - windowStart);
+                int end = (int) Math.min(ages.limit(), to - windowStart);
+                for (int i = start; i < end; i++) {
+                    action.accept(ages.get(i));
+                }
+                from = windowStart + end;
+            }
+        }
+
+        @Override
+        public Spliterator.OfInt trySplit() {
+            long mid = (from + to) >>> 1;
+            if (mid - from < blockSize) {
+                return null;
+            }
+            AgeSpliterator prefix = new AgeSpliterator(from, mid);
+            from = mid;
+            window = null;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return to - from;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+        }
+    }
+
+    private final class CitizenSpliterator implements Spliterator<Citizen> {
+        private long from;
+        private final long to;
+        private final byte[] scratch = new byte[MAX_NAME_BYTES];
+        private AgeSpliterator ages;
+        private MappedByteBuffer names;
+        private long namesEnd;
+
+        CitizenSpliterator(long from, long to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        private void openWindow() {
+            int firstBlock = (int) (from / blockSize);
+            int lastBlock = (int) ((to - 1) / blockSize);
+            int endBlock = firstBlock + 1;
+            while (endBlock <= lastBlock
+                    && blockOffsets[endBlock + 1] - blockOffsets[firstBlock] <= NAMES_WINDOW_BYTES) {
+                endBlock++;
+            }
+            long start = blockOffsets[firstBlock];
+            names = map(start, blockOffsets[endBlock] - start);
+            namesEnd = Math.min(to, (long) endBlock * blockSize);
+            if (ages == null) {
+                ages = new AgeSpliterator(from, to);
+            }
+        }
+
+        private Citizen next() {
+            if (names == null || from >= namesEnd) {
+                openWindow();
+            }
+            int length = names.getShort() & 0xFFFF;
+            names.get(scratch, 0, length);
+            String name = new String(scratch, 0, length, StandardCharsets.UTF_8);
+            int age = ages.window().get((int) (from - ages.windowStart));
+            ages.from = ++from;
+            return new Citizen(name, age);
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Citizen> action) {
+            if (from >= to) {
+                return false;
+            }
+            action.accept(next());
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super Citizen> action) {
+            while (from < to) {
+                action.accept(next());
+            }
+        }
+
+        @Override
+        public Spliterator<Citizen> trySplit() {
+            if (names != null) {
+                return null;
+            }
+            long firstBlock = from / blockSize;
+            long lastBlock = (to + blockSize - 1) / blockSize;
+            long midBlock = (firstBlock + lastBlock) >>> 1;
+            if (midBlock <= firstBlock) {
+                return null;
+            }
+            CitizenSpliterator prefix = new CitizenSpliterator(from, midBlock * blockSize);
+            from = midBlock * blockSize;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return to - from;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+        }
+    }
+
+    /**
+     * Appends citizens to a new file. Ages are buffered in a temporary file and
+     * copied behind the names when the writer is closed.
+     */
+    public static final class Writer implements Closeable {
+        private final Path path;
+        private final Path agesPath;
+        private final int blockSize;
+        private final DataOutputStream names;
+        private final DataOutputStream ages;
+        private long[] blockOffsets = new long[16];
+        private long position = HEADER_SIZE;
+        private long count;
+
+        private Writer(Path path, int blockSize) throws IOException {
+            if (blockSize <= 0) {
+                throw new IllegalArgumentException("blockSize must be positive: " + blockSize);
+            }
+            this.path = path;
+            this.blockSize = blockSize;
+            this.agesPath = Files.createTempFile(path.toAbsolutePath().getParent(), "ages", ".tmp");
+            this.names = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), 1 << 16));
+            this.ages = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(agesPath), 1 << 16));
+            names.write(new byte[HEADER_SIZE]);
+        }
+
+        public void write(Citizen citizen) {
+            write(citizen.getName(), citizen.getAge());
+        }
+
+        public void write(String name, int age) {
+            byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length > MAX_NAME_BYTES) {
+                throw new IllegalArgumentException("Name longer than " + MAX_NAME_BYTES + " bytes");
+            }
+            try {
+                if (count % blockSize == 0) {
+                    int block = (int) (count / blockSize);
+                    if (block == blockOffsets.length) {
+                        blockOffsets = Arrays.copyOf(blockOffsets, block * 2);
+                    }
+                    blockOffsets[block] = position;
+                }
+                names.writeShort(bytes.length);
+                names.write(bytes);
+                ages.writeInt(age);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            position += Short.BYTES + bytes.length;
+            count++;
+        }
+
+        public long count() {
+            return count;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                int blocks = (int) ((count + blockSize - 1) / blockSize);
+                long indexOffset = position;
+                for (int i = 0; i < blocks; i++) {
+                    names.writeLong(blockOffsets[i]);
+                }
+                position += (long) blocks * Long.BYTES;
+                int padding = (int) (-position & 7);
+                names.write(new byte[padding]);
+                long agesOffset = position + padding;
+                names.close();
+                ages.close();
+
+                try (FileChannel out = FileChannel.open(path, StandardOpenOption.WRITE);
+                     FileChannel in = FileChannel.open(agesPath, StandardOpenOption.READ)) {
+                    long size = in.size();
+                    for (long copied = 0; copied < size; ) {
+                        copied += in.transferTo(copied, size - copied, out.position(agesOffset + copied));
+                    }
+                    ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+                            .putInt(MAGIC)
+                            .putInt(VERSION)
+                            .putLong(count)
+                            .putInt(blockSize)
+                            .putInt(0)
+                            .putLong(agesOffset)
+                            .putLong(HEADER_SIZE)
+                            .putLong(indexOffset);
+                    header.flip();
+                    while (header.hasRemaining()) {
+                        out.write(header, header.position());
+                    }
+                }
+            } finally {
+                Files.deleteIfExists(agesPath);
+            }
+        }
+    }
+}
@@ -0,0 +1,438 @@
+package com.mikulajakub.io;
+
+import com.mikulajakub.model.Citizen;
+import com.mikulajakub.model.Movie;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StreamCorruptedException;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary encoding of {@link Citizen} and {@link Movie} records.
+ * <p>
+ * Records carry no type tag, the reader has to know what comes next:
+ * <pre>
+ * string   varint UTF-8 length + UTF-8 bytes
+ * citizen  string name, zigzag varint age
+ * movie    string title, varint actor count, per actor a varint reference:
+ *          0 followed by the name for an actor not seen before in this stream,
+ *          otherwise the 1-based dictionary id of an earlier actor
+ * </pre>
+ * A citizen such as {@code Citizen1234, 42} takes 13 bytes, against 24 for Java
+ * serialization of the same records in one stream and 16 for its {@code toString()} line.
+ * Names are UTF-8 encoded by hand straight into the buffer, so writing allocates
+ * nothing per record. The actor dictionary lives as long as the writer and the
+ * reader, both ends build it in the same order.
+ * <pre>
+ * try (CompactCodec.Writer writer = CompactCodec.writer(out)) {
+ *     citizens.forEach(writer::write);
+ * }
+ * CompactCodec.Reader reader = CompactCodec.reader(in).cacheNames(1024);
+ * while (reader.hasNext()) {
+ *     Citizen citizen = reader.readCitizen();
+ * }
+ * </pre>
+ */
+public final class CompactCodec {
+
+    static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+
+    private static final int MAX_VARINT_BYTES = 5;
+
+    private CompactCodec() {
+    }
+
+    /**
+     * Buffered writer flushing to {@code out}.
+     */
+    public static Writer writer(OutputStream out) {
+        return new Writer(ByteBuffer.allocate(DEFAULT_BUFFER_SIZE), out);
+    }
+
+    /**
+     * Writer filling {@code buffer}. A record which does not fit throws
+     * {@link BufferOverflowException} and leaves the buffer as it was, so the
+     * caller can drain it and write the record again.
+     */
+    public static Writer writer(ByteBuffer buffer) {
+        return new Writer(buffer, null);
+    }
+
+    public static Reader reader(InputStream in) {
+        ByteBuffer buffer = ByteBuffer.allocate(DEFAULT_BUFFER_SIZE);
+        buffer.flip();
+        return new Reader(buffer, in);
+    }
+
+    /**
+     * Reader consuming {@code buffer} from its position to its limit.
+     */
+    public static Reader reader(ByteBuffer buffer) {
+        return new Reader(buffer, null);
+    }
+
+    /**
+     * Streaming encoder. Not thread-safe.
+     */
+    public static final class Writer implements Flushable, Closeable {
+        private ByteBuffer buffer;
+        private final OutputStream out;
+        private final Map<String, Integer> actorIds = new HashMap<>();
+        private final List<String> actors = new ArrayList<>();
+        private byte[] scratch = new byte[64];
+        private String[] actorScratch = new String[16];
+
+        private Writer(ByteBuffer buffer, OutputStream out) {
+            this.buffer = buffer;
+            this.out = out;
+        }
+
+        public void write(Citizen citizen) {
+            write(citizen.getName(), citizen.getAge());
+        }
+
+        public void write(String name, int age) {
+            int start = buffer.position();
+            try {
+                putString(name);
+                ensure(MAX_VARINT_BYTES);
+                putVarint((age << 1) ^ (age >> 31));
+            } catch (BufferOverflowException e) {
+                buffer.position(start);
+                throw e;
+            }
+        }
+
+        public void write(Movie movie) {
+            int start = buffer.position();
+            int knownActors = actors.size();
+            try {
+                putString(movie.getTitle());
+                ensure(MAX_VARINT_BYTES);
+                int count = movie.getActors().size();
+                putVarint(count);
+                if (actorScratch.length < count) {
+                    actorScratch = new String[Math.max(count, actorScratch.length * 2)];
+                }
+                String[] actorArray = movie.getActors().toArray(actorScratch);
+                for (int i = 0; i < count; i++) {
+                    String actor = actorArray[i];
+                    Integer id = actorIds.get(actor);
+                    ensure(MAX_VARINT_BYTES);
+                    if (id != null) {
+                        putVarint(id);
+                    } else {
+                        putVarint(0);
+                        putString(actor);
+                        actors.add(actor);
+                        actorIds.put(actor, actors.size());
+                    }
+                }
+            } catch (BufferOverflowException e) {
+                buffer.position(start);
+                while (actors.size() > knownActors) {
+                    actorIds.remove(actors.remove(actors.size() - 1));
+                }
+                throw e;
+            }
+        }
+
+        /**
+         * Number of distinct actors in the dictionary so far.
+         */
+        public int dictionarySize() {
+            return actors.size();
+        }
+
+        @Override
+        public void flush() {
+            if (out == null) {
+                return;
+            }
+            try {
+                out.write(buffer.array(), 0, buffer.position());
+                buffer.clear();
+                out.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+            if (out != null) {
+                out.close();
+            }
+        }
+
+        /**
+         * Makes room for {@code bytes} more bytes when writing to a stream, by draining or growing the buffer.
+         */
+        private void ensure(int bytes) {
+            if (out == null || buffer.remaining() >= bytes) {
+                return;
+            }
+            try {
+                out.write(buffer.array(), 0, buffer.position());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            buffer.clear();
+            if (buffer.capacity() < bytes) {
+                buffer = ByteBuffer.allocate(Math.max(bytes, buffer.capacity() * 2));
+            }
+        }
+
+        private void putVarint(int value) {
+            while ((value & ~0x7F) != 0) {
+                buffer.put((byte) (value & 0x7F | 0x80));
+                value >>>= 7;
+            }
+            buffer.put((byte) value);
+        }
+
+        private void putString(String value) {
+            int bytes = utf8Length(value);
+            ensure(MAX_VARINT_BYTES + bytes);
+            putVarint(bytes);
+            if (buffer.remaining() < bytes) {
+                throw new BufferOverflowException();
+            }
+            if (buffer.hasArray()) {
+                int at = buffer.arrayOffset() + buffer.position();
+                encode(value, bytes, buffer.array(), at);
+                buffer.position(buffer.position() + bytes);
+            } else {
+                byte[] encoded = scratch.length >= bytes ? scratch : (scratch = new byte[bytes]);
+                encode(value, bytes, encoded, 0);
+                buffer.put(encoded, 0, bytes);
+            }
+        }
+
+        private static void encode(String value, int bytes, byte[] target, int at) {
+            int length = value.length();
+            if (bytes == length) {
+                for (int i = 0; i < length; i++) {
+                    target[at + i] = (byte) value.charAt(i);
+                }
+                return;
+            }
+            for (int i = 0; i < length; i++) {
+                char c = value.charAt(i);
+                if (c < 0x80) {
+                    target[at++] = (byte) c;
+                } else if (c < 0x800) {
+                    target[at++] = (byte) (0xC0 | c >> 6);
+                    target[at++] = (byte) (0x80 | c & 0x3F);
+                } else if (Character.isHighSurrogate(c) && i + 1 < length
+                        && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    int cp = Character.toCodePoint(c, value.charAt(++i));
+                    target[at++] = (byte) (0xF0 | cp >> 18);
+                    target[at++] = (byte) (0x80 | cp >> 12 & 0x3F);
+                    target[at++] = (byte) (0x80 | cp >> 6 & 0x3F);
+                    target[at++] = (byte) (0x80 | cp & 0x3F);
+                } else if (Character.isSurrogate(c)) {
+                    target[at++] = (byte) '?';
+                } else {
+                    target[at++] = (byte) (0xE0 | c >> 12);
+                    target[at++] = (byte) (0x80 | c >> 6 & 0x3F);
+                    target[at++] = (byte) (0x80 | c & 0x3F);
+                }
+            }
+        }
+
+        /**
+         * Encoded length, with unpaired surrogates replaced by {@code '?'} like {@link String#getBytes}.
+         */
+        static int utf8Length(String value) {
+            int length = value.length();
+            int bytes = length;
+            for (int i = 0; i < length; i++) {
+                char c = value.charAt(i);
+                if (c >= 0x80) {
+                    if (c < 0x800) {
+                        bytes++;
+                    } else if (Character.isHighSurrogate(c) && i + 1 < length
+                            && Character.isLowSurrogate(value.charAt(i + 1))) {
+                        bytes += 2;
+                        i++;
+                    } else if (!Character.isSurrogate(c)) {
+                        bytes += 2;
+                    }
+                }
+            }
+            return bytes;
+        }
+    }
+
+    /**
+     * Streaming decoder. Not thread-safe.
+     */
+    public static final class Reader {
+        private ByteBuffer buffer;
+        private final InputStream in;
+        private final List<String> actors = new ArrayList<>();
+        private byte[] scratch = new byte[64];
+        private String[] cachedNames;
+        private byte[][] cachedBytes;
+
+        private Reader(ByteBuffer buffer, InputStream in) {
+            this.buffer = buffer;
+            this.in = in;
+        }
+
+        /**
+         * Reuses the {@code String} of recently decoded citizen names and titles
+         * instead of allocating a new one, which pays off when names repeat.
+         * The cache is direct-mapped with {@code slots} entries.
+         */
+        public Reader cacheNames(int slots) {
+            if (slots <= 0) {
+                throw new IllegalArgumentException("slots must be positive: " + slots);
+            }
+            int size = Integer.highestOneBit(slots - 1) << 1;
+            cachedNames = new String[Math.max(1, size)];
+            cachedBytes = new byte[cachedNames.length][];
+            return this;
+        }
+
+        /**
+         * Whether another record follows, reading ahead from the stream if needed.
+         */
+        public boolean hasNext() {
+            return fill(1);
+        }
+
+        public Citizen readCitizen() {
+            String name = getString(cachedNames);
+            int zigzag = getVarint();
+            return new Citizen(name, (zigzag >>> 1) ^ -(zigzag & 1));
+        }
+
+        public Movie readMovie() {
+            Movie movie = new Movie(getString(cachedNames));
+            int count = getVarint();
+            for (int i = 0; i < count; i++) {
+                int id = getVarint();
+                if (id == 0) {
+                    String actor = getString(null);
+                    actors.add(actor);
+                    movie.addActor(actor);
+                } else if (id <= actors.size()) {
+                    movie.addActor(actors.get(id - 1));
+                } else {
+                    throw corrupt("Unknown actor id " + id);
+                }
+            }
+            return movie;
+        }
+
+        private int getVarint() {
+            int value = 0;
+            for (int shift = 0; shift < 7 * MAX_VARINT_BYTES; shift += 7) {
+                require(1);
+                byte b = buffer.get();
+                value |= (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+            throw corrupt("Malformed varint");
+        }
+
+        private String getString(String[] cache) {
+            int length = getVarint();
+            if (length < 0) {
+                throw corrupt("Negative string length");
+            }
+            require(length);
+            byte[] bytes;
+            int offset;
+            if (buffer.hasArray()) {
+                bytes = buffer.array();
+                offset = buffer.arrayOffset() + buffer.position();
+            } else {
+                if (scratch.length < length) {
+                    scratch = new byte[Math.max(length, scratch.length * 2)];
+                }
+                buffer.get(buffer.position(), scratch, 0, length);
+                bytes = scratch;
+                offset = 0;
+            }
+            buffer.position(buffer.position() + length);
+            if (cache == null) {
+                return new String(bytes, offset, length, StandardCharsets.UTF_8);
+            }
+            int hash = 1;
+            for (int i = offset; i < offset + length; i++) {
+                hash = 31 * hash + bytes[i];
+            }
+            int slot = (hash ^ hash >>> 16) & (cache.length - 1);
+            byte[] cached = cachedBytes[slot];
+            if (cached != null && Arrays.equals(cached, 0, cached.length, bytes, offset, offset + length)) {
+                return cache[slot];
+            }
+            String value = new String(bytes, offset, length, StandardCharsets.UTF_8);
+            cachedBytes[slot] = Arrays.copyOfRange(bytes, offset, offset + length);
+            cache[slot] = value;
+            return value;
+        }
+
+        private void require(int bytes) {
+            if (!fill(bytes)) {
+                throw new UncheckedIOException(new EOFException("Truncated record"));
+            }
+        }
+
+        /**
+         * Makes sure {@code bytes} bytes are buffered, returning false at the end of the input.
+         */
+        private boolean fill(int bytes) {
+            if (buffer.remaining() >= bytes) {
+                return true;
+            }
+            if (in == null) {
+                return false;
+            }
+            if (buffer.capacity() < bytes) {
+                ByteBuffer larger = ByteBuffer.allocate(Math.max(bytes, buffer.capacity() * 2));
+                larger.put(buffer);
+                buffer = larger;
+            } else {
+                buffer.compact();
+            }
+            try {
+                while (buffer.position() < bytes) {
+                    int read = in.read(buffer.array(), buffer.position(), buffer.remaining());
+                    if (read < 0) {
+                        break;
+                    }
+                    buffer.position(buffer.position() + read);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                buffer.flip();
+            }
+            return buffer.remaining() >= bytes;
+        }
+
+        private static UncheckedIOException corrupt(String message) {
+            return new UncheckedIOException(new StreamCorruptedException(message));
+        }
+    }
+}
@@ -0,0 +1,339 @@
+package com.mikulajakub.io;
+
+import com.mikulajakub.model.Citizen;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Sorts citizens within a memory budget.
+ * <p>
+ * The input is cut into chunks which fit the budget, every chunk is sorted
+ * with {@link Arrays#parallelSort} and spilled to a temporary run file, and
+ * the runs are k-way merged back into a lazy stream. Inputs that fit into a
+ * single chunk are never spilled. The sort is stable.
+ * <pre>
+ * ExternalCitizenSort sort = ExternalCitizenSort.builder()
+ *         .comparator(ExternalCitizenSort.BY_NAME.reversed())
+ *         .memoryBudgetBytes(512L &lt;&lt; 20)
+ *         .build();
+ * try (ExternalCitizenSort.Result result = sort.sort(citizens)) {
+ *     result.stream().forEach(System.out::println);
+ * }
+ * </pre>
+ */
+public final class ExternalCitizenSort {
+
+    public static final Comparator<Citizen> BY_NAME = Comparator.comparing(Citizen::getName);
+    public static final Comparator<Citizen> BY_AGE = Comparator.comparingInt(Citizen::getAge);
+    public static final Comparator<Citizen> BY_NAME_THEN_AGE = BY_NAME.thenComparing(BY_AGE);
+
+    private static final int IO_BUFFER = 1 << 16;
+    private static final int REFERENCE_BYTES = 8;
+
+    private final Comparator<? super Citizen> comparator;
+    private final long memoryBudgetBytes;
+    private final Path tempDirectory;
+
+    private ExternalCitizenSort(Builder builder) {
+        this.comparator = builder.comparator;
+        this.memoryBudgetBytes = builder.memoryBudgetBytes;
+        this.tempDirectory = builder.tempDirectory;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Rough heap footprint of a citizen while its chunk is sorted: object,
+     * String and its byte array, plus its reference in the chunk, in the array
+     * copy and in the merge buffer of {@link Arrays#parallelSort}.
+     */
+    static long estimateBytes(Citizen citizen) {
+        return 64 + citizen.getName().length() + 3 * REFERENCE_BYTES;
+    }
+
+    /**
+     * Consumes the input and returns the sorted result. The result must be
+     * closed to delete the spilled runs.
+     */
+    public Result sort(Stream<Citizen> citizens) {
+        Result result = new Result();
+        List<Citizen> chunk = new ArrayList<>();
+        long chunkBytes = 0;
+        try {
+            Iterator<Citizen> input = citizens.sequential().iterator();
+            while (input.hasNext()) {
+                Citizen citizen = input.next();
+                chunk.add(citizen);
+                chunkBytes += estimateBytes(citizen);
+                if (chunkBytes >= memoryBudgetBytes) {
+                    result.spill(sortChunk(chunk, result));
+                    chunk.clear();
+                    chunkBytes = 0;
+                }
+            }
+            Citizen[] last = sortChunk(chunk, result);
+            if (result.runs.isEmpty()) {
+                result.inMemory = last;
+            } else if (last.length > 0) {
+                result.spill(last);
+            }
+            return result;
+        } catch (IOException e) {
+            result.close();
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            result.close();
+            throw e;
+        } finally {
+            citizens.close();
+        }
+    }
+
+    private Citizen[] sortChunk(List<Citizen> chunk, Result result) {
+        long start = System.nanoTime();
+        Citizen[] sorted = chunk.toArray(new Citizen[0]);
+        Arrays.parallelSort(sorted, comparator);
+        result.sortNanos += System.nanoTime() - start;
+        return sorted;
+    }
+
+    /**
+     * Sorted output of one {@link #sort} call together with its spill statistics.
+     */
+    public final class Result implements Closeable {
+        private final List<Path> runs = new ArrayList<>();
+        private final List<DataInputStream> readers = new ArrayList<>();
+        private Citizen[] inMemory;
+        private long records;
+        private long spilledRecords;
+        private long spilledBytes;
+        private long sortNanos;
+        private long spillNanos;
+        private long mergeNanos;
+        private boolean consumed;
+
+        private Result() {
+        }
+
+        private void spill(Citizen[] sorted) throws IOException {
+            long start = System.nanoTime();
+            Path run = Files.createTempFile(tempDirectory, "citizen-run", ".bin");
+            runs.add(run);
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(run), IO_BUFFER))) {
+                out.writeInt(sorted.length);
+                for (Citizen citizen : sorted) {
+                    out.writeUTF(citizen.getName());
+                    out.writeInt(citizen.getAge());
+                }
+            }
+            // DataOutputStream.size() stops counting at 2 GiB
+            spilledBytes += Files.size(run);
+            spilledRecords += sorted.length;
+            records += sorted.length;
+            spillNanos += System.nanoTime() - start;
+        }
+
+        /**
+         * The sorted citizens, can be consumed once.
+         */
+        public Stream<Citizen> stream() {
+            if (consumed) {
+                throw new IllegalStateException("Sorted result already consumed");
+            }
+            consumed = true;
+            if (inMemory != null) {
+                return Arrays.stream(inMemory);
+            }
+            Iterator<Citizen> merged = merge();
+            Spliterator<Citizen> spliterator = Spliterators.spliterator(merged, records,
+                    Spliterator.ORDERED | Spliterator.NONNULL);
+            return StreamSupport.stream(spliterator, false).onClose(this::close);
+        }
+
+        private Iterator<Citizen> merge() {
+            PriorityQueue<Run> heads = new PriorityQueue<>((x, y) -> {
+                int c = comparator.compare(x.head, y.head);
+                return c != 0 ? c : Integer.compare(x.index, y.index);
+            });
+            try {
+                for (int i = 0; i < runs.size(); i++) {
+                    DataInputStream in = new DataInputStream(
+                            new BufferedInputStream(Files.newInputStream(runs.get(i)), IO_BUFFER));
+                    readers.add(in);
+                    Run run = new Run(i, in);
+                    if (run.advance()) {
+                        heads.add(run);
+                    }
+                }
+            } catch (IOException e) {
+                close();
+                throw new UncheckedIOException(e);
+            }
+            return new Iterator<Citizen>() {
+                @Override
+                public boolean hasNext() {
+                    return !heads.isEmpty();
+                }
+
+                @Override
+                public Citizen next() {
+                    if (heads.isEmpty()) {
+                        throw new NoSuchElementException();
+                    }
+                    long start = System.nanoTime();
+                    Run run = heads.poll();
+                    Citizen next = run.head;
+                    try {
+                        if (run.advance()) {
+                            heads.add(run);
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    mergeNanos += System.nanoTime() - start;
+                    return next;
+                }
+            };
+        }
+
+        /**
+         * Number of spilled runs, zero when the input fitted into memory.
+         */
+        public int runCount() {
+            return runs.size();
+        }
+
+        public long records() {
+            return inMemory != null ? inMemory.length : records;
+        }
+
+        public long spilledRecords() {
+            return spilledRecords;
+        }
+
+        public long spilledBytes() {
+            return spilledBytes;
+        }
+
+        public long sortNanos() {
+            return sortNanos;
+        }
+
+        public long spillNanos() {
+            return spillNanos;
+        }
+
+        /**
+         * Time spent merging runs so far; grows while the stream is consumed.
+         */
+        public long mergeNanos() {
+            return mergeNanos;
+        }
+
+        @Override
+        public void close() {
+            for (DataInputStream reader : readers) {
+                try {
+                    reader.close();
+                } catch (IOException ignored) {
+                    // best effort, the file is deleted below
+                }
+            }
+            readers.clear();
+            for (Path run : runs) {
+                try {
+                    Files.deleteIfExists(run);
+                } catch (IOException ignored) {
+                    // best effort cleanup of a temporary file
+                }
+            }
+        }
+
+        @Override
+        public String toString() {
+            return String.format("records=%d runs=%d spilled=%d bytes sort=%d ms spill=%d ms merge=%d ms",
+                    records(), runCount(), spilledBytes, sortNanos / 1_000_000, spillNanos / 1_000_000,
+                    mergeNanos / 1_000_000);
+        }
+    }
+
+    private static final class Run {
+        private final int index;
+        private final DataInputStream in;
+        private int remaining = -1;
+        private Citizen head;
+
+        Run(int index, DataInputStream in) {
+            this.index = index;
+            this.in = in;
+        }
+
+        boolean advance() throws IOException {
+            if (remaining < 0) {
+                remaining = in.readInt();
+            }
+            if (remaining == 0) {
+                head = null;
+                return false;
+            }
+            remaining--;
+            String name = in.readUTF();
+            head = new Citizen(name, in.readInt());
+            return true;
+        }
+    }
+
+    public static final class Builder {
+        private Comparator<? super Citizen> comparator = BY_NAME;
+        private long memoryBudgetBytes = 256L << 20;
+        private Path tempDirectory = Paths.get(System.getProperty("java.io.tmpdir"));
+
+        private Builder() {
+        }
+
+        public Builder comparator(Comparator<? super Citizen> comparator) {
+            this.comparator = comparator;
+            return this;
+        }
+
+        public Builder memoryBudgetBytes(long memoryBudgetBytes) {
+            if (memoryBudgetBytes <= 0) {
+                throw new IllegalArgumentException("memoryBudgetBytes must be positive: " + memoryBudgetBytes);
+            }
+            this.memoryBudgetBytes = memoryBudgetBytes;
+            return this;
+        }
+
+        public Builder tempDirectory(Path tempDirectory) {
+            this.tempDirectory = tempDirectory;
+            return this;
+        }
+
+        public ExternalCitizenSort build() {
+            return new ExternalCitizenSort(this);
+        }
+    }
+}
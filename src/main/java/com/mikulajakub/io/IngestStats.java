@@ -0,0 +1,61 @@
+package com.mikulajakub.io;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Throughput counters of an ingestion run. Readers count locally and publish
+ * here once per buffer, so counting costs nothing per record, and after every
+ * record when the stream is pulled one record at a time ({@code iterator},
+ * {@code findFirst}, {@code limit}).
+ */
+public final class IngestStats {
+
+    private final LongAdder bytes = new LongAdder();
+    private final LongAdder records = new LongAdder();
+    private final LongAdder malformed = new LongAdder();
+    private final long startNanos = System.nanoTime();
+
+    void add(long bytes, long records, long malformed) {
+        this.bytes.add(bytes);
+        this.records.add(records);
+        this.malformed.add(malformed);
+    }
+
+    public long bytes() {
+        return bytes.sum();
+    }
+
+    /**
+     * Number of successfully parsed records.
+     */
+    public long records() {
+        return records.sum();
+    }
+
+    public long malformed() {
+        return malformed.sum();
+    }
+
+    public long elapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    public double megabytesPerSecond() {
+        return bytes() / 1e6 / seconds();
+    }
+
+    public double recordsPerSecond() {
+        return records() / seconds();
+    }
+
+    private double seconds() {
+        return Math.max(1, elapsedNanos()) / (double) TimeUnit.SECONDS.toNanos(1);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d records, %d malformed, %d bytes, %.1f MB/s, %.0f records/s",
+                records(), malformed(), bytes(), megabytesPerSecond(), recordsPerSecond());
+    }
+}
@@ -0,0 +1,263 @@
+package com.mikulajakub.io;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Lazy streams of records from line based files (CSV, NDJSON) of any size.
+ * <p>
+ * The file is read with positional {@link FileChannel} reads into a reusable
+ * buffer and every line is handed to a {@link RecordParser} as a byte range,
+ * so no intermediate {@code String} is created per line. The spliterator
+ * splits the file into byte ranges; a line belongs to the range in which it
+ * starts, so splits always fall on record boundaries and {@code .parallel()}
+ * keeps all cores busy. Quoted fields spanning several lines are not supported.
+ * <pre>
+ * IngestStats stats = new IngestStats();
+ * try (Stream&lt;Citizen&gt; citizens = RecordFiles.stream(path, RecordParsers.citizenCsv(), true, stats)) {
+ *     citizens.parallel().mapToInt(Citizen::getAge).sum();
+ * }
+ * </pre>
+ */
+public final class RecordFiles {
+
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final long MIN_SPLIT = 1 << 20;
+
+    private RecordFiles() {
+    }
+
+    public static <T> Stream<T> stream(Path path, RecordParser<T> parser) throws IOException {
+        return stream(path, parser, false, new IngestStats());
+    }
+
+    /**
+     * Streams the records of the file. The stream must be closed to release the file.
+     *
+     * @param skipHeader ignore the first line of the file
+     * @param stats      receives byte, record and malformed line counts
+     */
+    public static <T> Stream<T> stream(Path path, RecordParser<T> parser, boolean skipHeader,
+                                       IngestStats stats) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            LineSpliterator<T> spliterator = new LineSpliterator<>(channel, parser, stats, skipHeader,
+                    0, channel.size());
+            return StreamSupport.stream(spliterator, false).onClose(() -> {
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private static final class LineSpliterator<T> implements Spliterator<T> {
+        private final FileChannel channel;
+        private final RecordParser<T> parser;
+        private final IngestStats stats;
+        private final boolean skipHeader;
+        private long start;
+        private final long end;
+
+        private byte[] buffer;
+        private int position;
+        private int limit;
+        private long bufferOffset;
+        private boolean eof;
+        private boolean done;
+        private long bytes;
+        private long records;
+        private long malformed;
+
+        LineSpliterator(FileChannel channel, RecordParser<T> parser, IngestStats stats, boolean skipHeader,
+                        long start, long end) {
+            this.channel = channel;
+            this.parser = parser;
+            this.stats = stats;
+            this.skipHeader = skipHeader;
+            this.start = start;
+            this.end = end;
+        }
+
+        private void open() {
+            buffer = new byte[BUFFER_SIZE];
+            if (start == 0) {
+                bufferOffset = 0;
+                if (skipHeader) {
+                    skipLine();
+                }
+            } else {
+                bufferOffset = start - 1;
+                skipLine();
+            }
+        }
+
+        private void skipLine() {
+            while (true) {
+                for (int i = position; i < limit; i++) {
+                    if (buffer[i] == '\n') {
+                        position = i + 1;
+                        return;
+                    }
+                }
+                position = limit;
+                if (!fill()) {
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Moves the unread bytes to the front of the buffer and reads more, growing it for very long lines.
+         */
+        private boolean fill() {
+            if (eof) {
+                return false;
+            }
+            publish();
+            int unread = limit - position;
+            if (position > 0) {
+                System.arraycopy(buffer, position, buffer, 0, unread);
+                bufferOffset += position;
+                position = 0;
+                limit = unread;
+            } else if (limit == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+            try {
+                ByteBuffer target = ByteBuffer.wrap(buffer, limit, buffer.length - limit);
+                int read = channel.read(target, bufferOffset + limit);
+                if (read <= 0) {
+                    eof = true;
+                    return false;
+                }
+                limit += read;
+                return true;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void publish() {
+            if (bytes == 0) {
+                return;
+            }
+            stats.add(bytes, records, malformed);
+            bytes = 0;
+            records = 0;
+            malformed = 0;
+        }
+
+        private boolean owns(long lineStart) {
+            return lineStart < end;
+        }
+
+        /**
+         * Parses the next owned line, returns {@code false} once the range is exhausted.
+         */
+        private boolean advance(Consumer<? super T> action) {
+            if (done) {
+                return false;
+            }
+            if (buffer == null) {
+                open();
+            }
+            while (true) {
+                if ((position >= limit && !fill()) || !owns(bufferOffset + position)) {
+                    publish();
+                    done = true;
+                    return false;
+                }
+                int newline = -1;
+                while (true) {
+                    for (int i = position; i < limit; i++) {
+                        if (buffer[i] == '\n') {
+                            newline = i;
+                            break;
+                        }
+                    }
+                    if (newline >= 0 || !fill()) {
+                        break;
+                    }
+                }
+                int lineEnd = newline >= 0 ? newline : limit;
+                int next = newline >= 0 ? newline + 1 : limit;
+                int to = lineEnd > position && buffer[lineEnd - 1] == '\r' ? lineEnd - 1 : lineEnd;
+                int from = position;
+                position = next;
+                bytes += next - from;
+                if (to == from) {
+                    continue;
+                }
+                T record = parser.parse(buffer, from, to);
+                if (record == null) {
+                    malformed++;
+                    continue;
+                }
+                records++;
+                action.accept(record);
+                return true;
+            }
+        }
+
+        /**
+         * Publishes after every record: short-circuiting operations such as
+         * {@code findFirst} or {@code limit} pull records one by one and may
+         * never exhaust the range.
+         */
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            try {
+                return advance(action);
+            } finally {
+                publish();
+            }
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            try {
+                while (advance(action)) {
+                    // keep going until the range is exhausted
+                }
+            } finally {
+                publish();
+            }
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            if (buffer != null || end - start < 2 * MIN_SPLIT) {
+                return null;
+            }
+            long mid = start + (end - start) / 2;
+            LineSpliterator<T> prefix = new LineSpliterator<>(channel, parser, stats, skipHeader, start, mid);
+            start = mid;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return end - start;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | NONNULL;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.mikulajakub.io;
+
+/**
+ * Parses one record from a line of raw bytes.
+ *
+ * @param <T> record type
+ */
+@FunctionalInterface
+public interface RecordParser<T> {
+
+    /**
+     * Parses the bytes {@code [from, to)} of {@code line}, without the line terminator.
+     *
+     * @return the record, or {@code null} if the line is malformed
+     */
+    T parse(byte[] line, int from, int to);
+}
@@ -0,0 +1,433 @@
+package com.mikulajakub.io;
+
+import com.mikulajakub.model.Citizen;
+import com.mikulajakub.model.Movie;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Byte level parsers for the line formats understood by {@link RecordFiles}.
+ * <ul>
+ * <li>citizen CSV: {@code name,age}</li>
+ * <li>movie CSV: {@code title,actor,actor,...}</li>
+ * <li>citizen NDJSON: {@code {"name":"Kuba","age":50}}</li>
+ * <li>movie NDJSON: {@code {"title":"Psy","actors":["Bogusław Linda","Cezary Pazura"]}}</li>
+ * </ul>
+ * CSV fields may be quoted with {@code "}, a doubled quote inside a quoted field is a literal quote.
+ * The parsers scan the line once and allocate only the strings of the resulting record.
+ */
+public final class RecordParsers {
+
+    private RecordParsers() {
+    }
+
+    public static RecordParser<Citizen> citizenCsv() {
+        return (line, from, to) -> {
+            CsvCursor csv = new CsvCursor(line, from, to);
+            String name = csv.nextString();
+            if (name == null || !csv.hasNext()) {
+                return null;
+            }
+            long age = csv.nextInt();
+            if (age == Long.MIN_VALUE || csv.hasNext()) {
+                return null;
+            }
+            return new Citizen(name, (int) age);
+        };
+    }
+
+    public static RecordParser<Movie> movieCsv() {
+        return (line, from, to) -> {
+            CsvCursor csv = new CsvCursor(line, from, to);
+            String title = csv.nextString();
+            if (title == null) {
+                return null;
+            }
+            Movie movie = new Movie(title);
+            while (csv.hasNext()) {
+                String actor = csv.nextString();
+                if (actor == null) {
+                    return null;
+                }
+                movie.addActor(actor);
+            }
+            return movie;
+        };
+    }
+
+    public static RecordParser<Citizen> citizenJson() {
+        return (line, from, to) -> {
+            JsonCursor json = new JsonCursor(line, from, to);
+            if (!json.beginObject()) {
+                return null;
+            }
+            String name = null;
+            long age = Long.MIN_VALUE;
+            do {
+                String key = json.nextKey();
+                if (key == null) {
+                    return null;
+                }
+                if ("name".equals(key)) {
+                    name = json.nextString();
+                } else if ("age".equals(key)) {
+                    age = json.nextInt();
+                } else if (!json.skipValue()) {
+                    return null;
+                }
+                if (json.failed()) {
+                    return null;
+                }
+            } while (json.nextMember());
+            if (!json.endObject() || name == null || age == Long.MIN_VALUE) {
+                return null;
+            }
+            return new Citizen(name, (int) age);
+        };
+    }
+
+    public static RecordParser<Movie> movieJson() {
+        return (line, from, to) -> {
+            JsonCursor json = new JsonCursor(line, from, to);
+            if (!json.beginObject()) {
+                return null;
+            }
+            Movie movie = null;
+            String[] actors = null;
+            int actorCount = 0;
+            do {
+                String key = json.nextKey();
+                if (key == null) {
+                    return null;
+                }
+                if ("title".equals(key)) {
+                    String title = json.nextString();
+                    if (title == null) {
+                        return null;
+                    }
+                    movie = new Movie(title);
+                } else if ("actors".equals(key)) {
+                    if (!json.beginArray()) {
+                        return null;
+                    }
+                    actors = new String[4];
+                    if (!json.endArray()) {
+                        do {
+                            String actor = json.nextString();
+                            if (actor == null) {
+                                return null;
+                            }
+                            if (actorCount == actors.length) {
+                                actors = Arrays.copyOf(actors, actorCount * 2);
+                            }
+                            actors[actorCount++] = actor;
+                        } while (json.nextMember());
+                        if (!json.endArray()) {
+                            return null;
+                        }
+                    }
+                } else if (!json.skipValue()) {
+                    return null;
+                }
+            } while (json.nextMember());
+            if (!json.endObject() || movie == null) {
+                return null;
+            }
+            for (int i = 0; i < actorCount; i++) {
+                movie.addActor(actors[i]);
+            }
+            return movie;
+        };
+    }
+
+    static long parseInt(byte[] bytes, int from, int to) {
+        while (from < to && bytes[from] == ' ') {
+            from++;
+        }
+        while (to > from && bytes[to - 1] == ' ') {
+            to--;
+        }
+        if (from == to) {
+            return Long.MIN_VALUE;
+        }
+        boolean negative = bytes[from] == '-';
+        if (negative || bytes[from] == '+') {
+            from++;
+        }
+        if (from == to || to - from > 10) {
+            return Long.MIN_VALUE;
+        }
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            int digit = bytes[i] - '0';
+            if (digit < 0 || digit > 9) {
+                return Long.MIN_VALUE;
+            }
+            value = value * 10 + digit;
+        }
+        value = negative ? -value : value;
+        return value < Integer.MIN_VALUE || value > Integer.MAX_VALUE ? Long.MIN_VALUE : value;
+    }
+
+    /**
+     * Walks comma separated fields of one line.
+     */
+    static final class CsvCursor {
+        private final byte[] bytes;
+        private final int to;
+        private int position;
+        private boolean more = true;
+
+        CsvCursor(byte[] bytes, int from, int to) {
+            this.bytes = bytes;
+            this.position = from;
+            this.to = to;
+        }
+
+        boolean hasNext() {
+            return more;
+        }
+
+        /**
+         * Next field as a string, {@code null} if the quoting is broken.
+         */
+        String nextString() {
+            if (!more) {
+                return null;
+            }
+            if (position < to && bytes[position] == '"') {
+                return nextQuoted();
+            }
+            int start = position;
+            int comma = indexOf(',');
+            return new String(bytes, start, comma - start, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Next field as an int, {@link Long#MIN_VALUE} if it is not a valid int.
+         */
+        long nextInt() {
+            if (!more) {
+                return Long.MIN_VALUE;
+            }
+            int start = position;
+            int comma = indexOf(',');
+            return parseInt(bytes, start, comma);
+        }
+
+        private int indexOf(char separator) {
+            int i = position;
+            while (i < to && bytes[i] != separator) {
+                i++;
+            }
+            more = i < to;
+            position = i + 1;
+            return i;
+        }
+
+        private String nextQuoted() {
+            int start = ++position;
+            boolean escaped = false;
+            int i = start;
+            while (true) {
+                if (i >= to) {
+                    more = false;
+                    return null;
+                }
+                if (bytes[i] == '"') {
+                    if (i + 1 < to && bytes[i + 1] == '"') {
+                        escaped = true;
+                        i += 2;
+                        continue;
+                    }
+                    break;
+                }
+                i++;
+            }
+            String value = new String(bytes, start, i - start, StandardCharsets.UTF_8);
+            if (escaped) {
+                value = value.replace("\"\"", "\"");
+            }
+            position = i + 1;
+            if (position < to && bytes[position] != ',') {
+                more = false;
+                return null;
+            }
+            more = position < to;
+            position++;
+            return value;
+        }
+    }
+
+    /**
+     * Minimal forward-only cursor over a single-line JSON object.
+     */
+    static final class JsonCursor {
+        private final byte[] bytes;
+        private final int to;
+        private int position;
+        private boolean failed;
+
+        JsonCursor(byte[] bytes, int from, int to) {
+            this.bytes = bytes;
+            this.position = from;
+            this.to = to;
+        }
+
+        boolean failed() {
+            return failed;
+        }
+
+        boolean beginObject() {
+            return consume('{');
+        }
+
+        boolean endObject() {
+            return consume('}') && skipWhitespace() == to;
+        }
+
+        boolean beginArray() {
+            return consume('[');
+        }
+
+        boolean endArray() {
+            return consume(']');
+        }
+
+        boolean nextMember() {
+            return consume(',');
+        }
+
+        String nextKey() {
+            String key = nextString();
+            return key != null && consume(':') ? key : null;
+        }
+
+        String nextString() {
+            if (!consume('"')) {
+                failed = true;
+                return null;
+            }
+            int start = position;
+            boolean escaped = false;
+            while (position < to && bytes[position] != '"') {
+                if (bytes[position] == '\\') {
+                    escaped = true;
+                    position++;
+                }
+                position++;
+            }
+            if (position >= to) {
+                failed = true;
+                return null;
+            }
+            String value = escaped ? unescape(start, position) : new String(bytes, start, position - start,
+                    StandardCharsets.UTF_8);
+            position++;
+            return value;
+        }
+
+        long nextInt() {
+            skipWhitespace();
+            int start = position;
+            while (position < to && (bytes[position] == '-' || (bytes[position] >= '0' && bytes[position] <= '9'))) {
+                position++;
+            }
+            long value = parseInt(bytes, start, position);
+            failed |= value == Long.MIN_VALUE;
+            return value;
+        }
+
+        /**
+         * Skips a scalar, string or flat array value.
+         */
+        boolean skipValue() {
+            skipWhitespace();
+            if (position >= to) {
+                return false;
+            }
+            if (bytes[position] == '"') {
+                return nextString() != null;
+            }
+            if (bytes[position] == '[') {
+                position++;
+                if (consume(']')) {
+                    return true;
+                }
+                do {
+                    if (!skipValue()) {
+                        return false;
+                    }
+                } while (nextMember());
+                return endArray();
+            }
+            int start = position;
+            while (position < to && bytes[position] != ',' && bytes[position] != '}' && bytes[position] != ']') {
+                position++;
+            }
+            return position > start;
+        }
+
+        private boolean consume(char expected) {
+            if (skipWhitespace() < to && bytes[position] == expected) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        private int skipWhitespace() {
+            while (position < to && (bytes[position] == ' ' || bytes[position] == '\t')) {
+                position++;
+            }
+            return position;
+        }
+
+        private String unescape(int start, int end) {
+            String raw = new String(bytes, start, end - start, StandardCharsets.UTF_8);
+            StringBuilder value = new StringBuilder(raw.length());
+            for (int i = 0; i < raw.length(); i++) {
+                char c = raw.charAt(i);
+                if (c != '\\' || i + 1 >= raw.length()) {
+                    value.append(c);
+                    continue;
+                }
+                char next = raw.charAt(++i);
+                switch (next) {
+                    case 'n':
+                        value.append('\n');
+                        break;
+                    case 't':
+                        value.append('\t');
+                        break;
+                    case 'r':
+                        value.append('\r');
+                        break;
+                    case 'b':
+                        value.append('\b');
+                        break;
+                    case 'f':
+                        value.append('\f');
+                        break;
+                    case 'u':
+                        int code = 0;
+                        for (int k = 1; k <= 4; k++) {
+                            int digit = i + k < raw.length() ? Character.digit(raw.charAt(i + k), 16) : -1;
+                            if (digit < 0) {
+                                failed = true;
+                                return null;
+                            }
+                            code = code * 16 + digit;
+                        }
+                        value.append((char) code);
+                        i += 4;
+                        break;
+                    default:
+                        value.append(next);
+                }
+            }
+            return value.toString();
+        }
+    }
+}
@@ -4,10 +4,14 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.Setter;
 
+import java.io.Serializable;
+
 @Setter
 @Getter
 @AllArgsConstructor
-public class Citizen {
+public class Citizen implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     private String name;
     private int age;
 
@@ -0,0 +1,273 @@
+package com.mikulajakub.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.Spliterator;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+
+/**
+ * Columnar, immutable table of citizens.
+ * <p>
+ * Ages are kept in an {@code int[]} and names are dictionary encoded: every
+ * row stores an {@code int} name id which points into a pool of distinct
+ * names. Aggregations over ages walk contiguous primitive memory and
+ * never allocate per row.
+ */
+public final class CitizenTable {
+
+    private final int size;
+    private final int[] ages;
+    private final int[] nameIds;
+    private final String[] names;
+    private final Map<String, Integer> dictionary;
+
+    private CitizenTable(int size, int[] ages, int[] nameIds, String[] names, Map<String, Integer> dictionary) {
+        this.size = size;
+        this.ages = ages;
+        this.nameIds = nameIds;
+        this.names = names;
+        this.dictionary = dictionary;
+    }
+
+    public static CitizenTable fromList(List<Citizen> citizens) {
+        Builder builder = new Builder(citizens.size());
+        for (Citizen citizen : citizens) {
+            builder.add(citizen.getName(), citizen.getAge());
+        }
+        return builder.build();
+    }
+
+    public static Builder builder() {
+        return new Builder(16);
+    }
+
+    public List<Citizen> toList() {
+        List<Citizen> citizens = new ArrayList<>(size);
+        for (int row = 0; row < size; row++) {
+            citizens.add(new Citizen(names[nameIds[row]], ages[row]));
+        }
+        return citizens;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int age(int row) {
+        return ages[checkRow(row)];
+    }
+
+    public String name(int row) {
+        return names[nameIds[checkRow(row)]];
+    }
+
+    public int nameId(int row) {
+        return nameIds[checkRow(row)];
+    }
+
+    /**
+     * Number of distinct names, name ids are {@code 0 .. distinctNames() - 1}.
+     */
+    public int distinctNames() {
+        return names.length;
+    }
+
+    public String nameOf(int nameId) {
+        return names[nameId];
+    }
+
+    /**
+     * Returns the id of the given name, or {@code -1} if no row has that name.
+     */
+    public int idOf(String name) {
+        Integer id = dictionary.get(name);
+        return id == null ? -1 : id;
+    }
+
+    public IntStream ages() {
+        return Arrays.stream(ages, 0, size);
+    }
+
+    public Spliterator.OfInt agesSpliterator() {
+        return Arrays.spliterator(ages, 0, size);
+    }
+
+    public IntStream nameIds() {
+        return Arrays.stream(nameIds, 0, size);
+    }
+
+    /**
+     * Indexes of the rows whose age matches the predicate.
+     */
+    public IntStream rowsWhereAge(IntPredicate predicate) {
+        return IntStream.range(0, size).filter(row -> predicate.test(ages[row]));
+    }
+
+    /**
+     * New table with the rows whose age matches the predicate. Its name pool
+     * holds only the names of those rows, so name ids are renumbered, keeping
+     * their relative order.
+     */
+    public CitizenTable filterByAge(IntPredicate predicate) {
+        int[] filteredAges = new int[size];
+        int[] filteredNameIds = new int[size];
+        boolean[] used = new boolean[names.length];
+        int count = 0;
+        for (int row = 0; row < size; row++) {
+            if (predicate.test(ages[row])) {
+                filteredAges[count] = ages[row];
+                filteredNameIds[count] = nameIds[row];
+                used[nameIds[row]] = true;
+                count++;
+            }
+        }
+        int[] newIds = new int[names.length];
+        int distinct = 0;
+        for (int id = 0; id < names.length; id++) {
+            newIds[id] = used[id] ? distinct++ : -1;
+        }
+        String[] filteredNames = new String[distinct];
+        Map<String, Integer> filteredDictionary = HashMap.newHashMap(distinct);
+        for (int id = 0; id < names.length; id++) {
+            if (newIds[id] >= 0) {
+                filteredNames[newIds[id]] = names[id];
+                filteredDictionary.put(names[id], newIds[id]);
+            }
+        }
+        for (int row = 0; row < count; row++) {
+            filteredNameIds[row] = newIds[filteredNameIds[row]];
+        }
+        return new CitizenTable(count, Arrays.copyOf(filteredAges, count), Arrays.copyOf(filteredNameIds, count),
+                filteredNames, filteredDictionary);
+    }
+
+    public long sumAges() {
+        long sum = 0;
+        for (int row = 0; row < size; row++) {
+            sum += ages[row];
+        }
+        return sum;
+    }
+
+    public OptionalInt maxAge() {
+        if (size == 0) {
+            return OptionalInt.empty();
+        }
+        int max = ages[0];
+        for (int row = 1; row < size; row++) {
+            max = Math.max(max, ages[row]);
+        }
+        return OptionalInt.of(max);
+    }
+
+    /**
+     * Number of rows per name, indexed by name id.
+     */
+    public int[] countByName() {
+        int[] counts = new int[names.length];
+        for (int row = 0; row < size; row++) {
+            counts[nameIds[row]]++;
+        }
+        return counts;
+    }
+
+    /**
+     * Sum of ages per name, indexed by name id.
+     */
+    public long[] sumAgeByName() {
+        long[] sums = new long[names.length];
+        for (int row = 0; row < size; row++) {
+            sums[nameIds[row]] += ages[row];
+        }
+        return sums;
+    }
+
+    /**
+     * Maximum age per name, indexed by name id. Names without rows hold {@link Integer#MIN_VALUE}.
+     */
+    public int[] maxAgeByName() {
+        int[] max = new int[names.length];
+        Arrays.fill(max, Integer.MIN_VALUE);
+        for (int row = 0; row < size; row++) {
+            int id = nameIds[row];
+            max[id] = Math.max(max[id], ages[row]);
+        }
+        return max;
+    }
+
+    /**
+     * Row indexes ordered by name, stable for equal names.
+     * Only the distinct names are compared, the rows are placed with a counting sort.
+     */
+    public int[] rowsSortedByName() {
+        Integer[] byName = new Integer[names.length];
+        for (int id = 0; id < names.length; id++) {
+            byName[id] = id;
+        }
+        Arrays.sort(byName, (x, y) -> names[x].compareTo(names[y]));
+
+        int[] start = new int[names.length + 1];
+        int[] counts = countByName();
+        for (int rank = 0; rank < byName.length; rank++) {
+            start[rank + 1] = start[rank] + counts[byName[rank]];
+        }
+        int[] rankOfId = new int[names.length];
+        for (int rank = 0; rank < byName.length; rank++) {
+            rankOfId[byName[rank]] = rank;
+        }
+        int[] rows = new int[size];
+        for (int row = 0; row < size; row++) {
+            rows[start[rankOfId[nameIds[row]]]++] = row;
+        }
+        return rows;
+    }
+
+    private int checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("row " + row + " out of " + size);
+        }
+        return row;
+    }
+
+    public static final class Builder {
+        private final Map<String, Integer> dictionary = new HashMap<>();
+        private final List<String> names = new ArrayList<>();
+        private int[] ages;
+        private int[] nameIds;
+        private int size;
+
+        private Builder(int capacity) {
+            ages = new int[Math.max(capacity, 1)];
+            nameIds = new int[Math.max(capacity, 1)];
+        }
+
+        public Builder add(String name, int age) {
+            if (size == ages.length) {
+                int capacity = Math.max(size + 1, size + (size >> 1));
+                ages = Arrays.copyOf(ages, capacity);
+                nameIds = Arrays.copyOf(nameIds, capacity);
+            }
+            Integer id = dictionary.get(name);
+            if (id == null) {
+                id = names.size();
+                dictionary.put(name, id);
+                names.add(name);
+            }
+            ages[size] = age;
+            nameIds[size] = id;
+            size++;
+            return this;
+        }
+
+        public CitizenTable build() {
+            return new CitizenTable(size,
+                    Arrays.copyOf(ages, size), Arrays.copyOf(nameIds, size), names.toArray(new String[0]),
+                    new HashMap<>(dictionary));
+        }
+    }
+}
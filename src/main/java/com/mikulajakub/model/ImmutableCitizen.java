@@ -0,0 +1,108 @@
+package com.mikulajakub.model;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.util.Objects;
+
+/**
+ * Immutable counterpart of {@link Citizen}, safe to share between threads and to use as a cache or set key.
+ * <p>
+ * Equality is by name and age. The hash code is computed once in the constructor
+ * and {@link #toString()} builds the {@code "name: age"} text without {@code String.format}.
+ */
+@Getter
+public final class ImmutableCitizen {
+
+    private final String name;
+    private final int age;
+
+    @Getter(AccessLevel.NONE)
+    private final int hash;
+
+    private ImmutableCitizen(String name, int age) {
+        this.name = Objects.requireNonNull(name, "name");
+        this.age = age;
+        this.hash = 31 * name.hashCode() + age;
+    }
+
+    public static ImmutableCitizen of(String name, int age) {
+        return new ImmutableCitizen(name, age);
+    }
+
+    public static ImmutableCitizen from(Citizen citizen) {
+        return new ImmutableCitizen(citizen.getName(), citizen.getAge());
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public Citizen toCitizen() {
+        return new Citizen(name, age);
+    }
+
+    public ImmutableCitizen withAge(int age) {
+        return age == this.age ? this : new ImmutableCitizen(name, age);
+    }
+
+    /**
+     * Appends {@code "name: age"} to the builder, used by {@link #toString()} and for bulk logging.
+     */
+    public StringBuilder appendTo(StringBuilder out) {
+        return out.append(name).append(": ").append(age);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ImmutableCitizen)) {
+            return false;
+        }
+        ImmutableCitizen other = (ImmutableCitizen) o;
+        return hash == other.hash && age == other.age && name.equals(other.name);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return appendTo(new StringBuilder(name.length() + 13)).toString();
+    }
+
+    public static final class Builder {
+        private String name;
+        private int age;
+        private NameInterner interner;
+
+        private Builder() {
+        }
+
+        public Builder name(String name) {
+            this.name = name;
+            return this;
+        }
+
+        public Builder age(int age) {
+            this.age = age;
+            return this;
+        }
+
+        /**
+         * Pool the name through the given interner when building.
+         */
+        public Builder interner(NameInterner interner) {
+            this.interner = interner;
+            return this;
+        }
+
+        public ImmutableCitizen build() {
+            return new ImmutableCitizen(interner == null ? name : interner.intern(name), age);
+        }
+    }
+}
@@ -1,22 +1,62 @@
 package com.mikulajakub.model;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import org.junit.jupiter.api.Test;
 
+import java.io.Serializable;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
 
 @Getter
-public class Movie {
+public class Movie implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     String title;
     Set<String> actors = new HashSet<>();
 
+    /**
+     * Created on first registration; copy-on-write because it is read on every
+     * added actor and may be changed by listeners or indexes meanwhile.
+     */
+    @Getter(AccessLevel.NONE)
+    private transient volatile List<BiConsumer<Movie, String>> actorListeners;
+
     public Movie(String title) {
         this.title = title;
     }
 
     public void addActor(String actor) {
-        actors.add(actor);
+        List<BiConsumer<Movie, String>> listeners = actorListeners;
+        if (actors.add(actor) && listeners != null) {
+            for (BiConsumer<Movie, String> listener : listeners) {
+                listener.accept(this, actor);
+            }
+        }
+    }
+
+    /**
+     * Registers a listener called with this movie and the actor every time a new actor is added.
+     */
+    public void onActorAdded(BiConsumer<Movie, String> listener) {
+        listeners().add(listener);
+    }
+
+    public void removeActorListener(BiConsumer<Movie, String> listener) {
+        List<BiConsumer<Movie, String>> listeners = actorListeners;
+        if (listeners != null) {
+            listeners.remove(listener);
+        }
+    }
+
+    private synchronized List<BiConsumer<Movie, String>> listeners() {
+        if (actorListeners == null) {
+            actorListeners = new CopyOnWriteArrayList<>();
+        }
+        return actorListeners;
     }
 
     @Override
@@ -0,0 +1,183 @@
+package com.mikulajakub.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+
+/**
+ * Inverted actor to movies index over {@link Movie}.
+ * <p>
+ * Actor names are interned to dense {@code int} ids and every id owns a
+ * posting list of the movies the actor plays in. Indexed movies report new
+ * actors back to the index, so it stays current as {@link Movie#addActor}
+ * is called. Actors added by mutating {@link Movie#getActors()} directly
+ * are not seen.
+ * <p>
+ * All methods are synchronized on the index.
+ */
+public final class MovieIndex {
+
+    private Map<String, Integer> actorIds = new HashMap<>();
+    private final ArrayList<String> actorNames = new ArrayList<>();
+    private final ArrayList<List<Movie>> postings = new ArrayList<>();
+    private final Set<Movie> movies = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final BiConsumer<Movie, String> listener = this::actorAdded;
+    private int distinctActors;
+
+    public synchronized void add(Movie movie) {
+        if (!movies.add(movie)) {
+            return;
+        }
+        for (String actor : movie.getActors()) {
+            addPosting(actor, movie);
+        }
+        movie.onActorAdded(listener);
+    }
+
+    /**
+     * Bulk load, faster than adding movies one by one because the actor tables are sized once
+     * up front, for about two distinct actors per movie, when the index is empty.
+     */
+    public synchronized void addAll(Collection<Movie> catalog) {
+        if (actorIds.isEmpty()) {
+            int expected = catalog.size() * 2;
+            actorIds = HashMap.newHashMap(expected);
+            actorNames.ensureCapacity(expected);
+            postings.ensureCapacity(expected);
+        }
+        for (Movie movie : catalog) {
+            add(movie);
+        }
+    }
+
+    /**
+     * Stops tracking the movie and drops it from the posting lists of its actors.
+     * Actors keep their ids even if they no longer play in any indexed movie.
+     */
+    public synchronized void remove(Movie movie) {
+        if (!movies.remove(movie)) {
+            return;
+        }
+        movie.removeActorListener(listener);
+        for (String actor : movie.getActors()) {
+            Integer id = actorIds.get(actor);
+            if (id != null) {
+                List<Movie> posting = postings.get(id);
+                if (posting.remove(movie) && posting.isEmpty()) {
+                    distinctActors--;
+                }
+            }
+        }
+    }
+
+    /**
+     * Movies the actor plays in, in the order they were indexed.
+     */
+    public synchronized List<Movie> moviesWith(String actor) {
+        Integer id = actorIds.get(actor);
+        return id == null ? Collections.emptyList() : Collections.unmodifiableList(new ArrayList<>(postings.get(id)));
+    }
+
+    /**
+     * Movies in which all the given actors play. Cost is bounded by the shortest posting list.
+     */
+    public synchronized List<Movie> moviesWithAll(String... actors) {
+        if (actors.length == 0) {
+            return Collections.emptyList();
+        }
+        List<Movie> shortest = null;
+        for (String actor : actors) {
+            Integer id = actorIds.get(actor);
+            if (id == null) {
+                return Collections.emptyList();
+            }
+            List<Movie> posting = postings.get(id);
+            if (shortest == null || posting.size() < shortest.size()) {
+                shortest = posting;
+            }
+        }
+        List<Movie> result = new ArrayList<>();
+        for (Movie movie : shortest) {
+            boolean all = true;
+            for (String actor : actors) {
+                if (!movie.getActors().contains(actor)) {
+                    all = false;
+                    break;
+                }
+            }
+            if (all) {
+                result.add(movie);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Interned id of the actor, or {@code -1} if the actor is not in the index.
+     */
+    public synchronized int actorId(String actor) {
+        Integer id = actorIds.get(actor);
+        return id == null ? -1 : id;
+    }
+
+    public synchronized String actorName(int id) {
+        return actorNames.get(id);
+    }
+
+    public synchronized int movieCount(String actor) {
+        Integer id = actorIds.get(actor);
+        return id == null ? 0 : postings.get(id).size();
+    }
+
+    /**
+     * Number of distinct actors playing in at least one indexed movie, in constant time.
+     */
+    public synchronized int distinctActorCount() {
+        return distinctActors;
+    }
+
+    public synchronized int size() {
+        return movies.size();
+    }
+
+    /**
+     * Snapshot of the actors playing in at least one indexed movie, in id order.
+     */
+    public synchronized Stream<String> actors() {
+        List<String> actors = new ArrayList<>(distinctActors);
+        for (int id = 0; id < actorNames.size(); id++) {
+            if (!postings.get(id).isEmpty()) {
+                actors.add(actorNames.get(id));
+            }
+        }
+        return actors.stream();
+    }
+
+    private synchronized void actorAdded(Movie movie, String actor) {
+        if (movies.contains(movie)) {
+            addPosting(actor, movie);
+        }
+    }
+
+    private void addPosting(String actor, Movie movie) {
+        Integer id = actorIds.get(actor);
+        if (id == null) {
+            id = actorNames.size();
+            actorIds.put(actor, id);
+            actorNames.add(actor);
+            postings.add(new ArrayList<>(2));
+        }
+        List<Movie> posting = postings.get(id);
+        if (posting.isEmpty()) {
+            distinctActors++;
+        }
+        posting.add(movie);
+    }
+}
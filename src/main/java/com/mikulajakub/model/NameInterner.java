@@ -0,0 +1,22 @@
+package com.mikulajakub.model;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Thread-safe pool which maps equal names to one shared {@code String} instance,
+ * so large datasets keep a single copy of every distinct name.
+ * Unlike {@link String#intern()} the pool is owned by the caller and can be dropped with the dataset.
+ */
+public final class NameInterner {
+
+    private final ConcurrentHashMap<String, String> pool = new ConcurrentHashMap<>();
+
+    public String intern(String name) {
+        String pooled = pool.putIfAbsent(name, name);
+        return pooled == null ? name : pooled;
+    }
+
+    public int size() {
+        return pool.size();
+    }
+}
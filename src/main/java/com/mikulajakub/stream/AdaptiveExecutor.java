@@ -0,0 +1,300 @@
+package com.mikulajakub.stream;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Runs stream pipelines either sequentially or in parallel on a dedicated
+ * {@link ForkJoinPool}, choosing per pipeline from the size of the source and
+ * the cost per element measured in earlier runs.
+ * <p>
+ * A pipeline goes parallel only when its predicted work, size times the
+ * smoothed nanoseconds per element, reaches {@code minParallelWorkNanos}; a
+ * pipeline without history goes parallel from {@code minParallelSize}
+ * elements. Parallel runs split the source no finer than leaves of about
+ * {@code targetLeafNanos} of work, so cheap pipelines do not drown in tasks.
+ * Every choice is kept as a {@link Decision} for inspection.
+ * <pre>
+ * try (AdaptiveExecutor executor = AdaptiveExecutor.builder().parallelism(4).build()) {
+ *     long adults = executor.execute("adults", citizens, s -&gt; s.filter(c -&gt; c.getAge() &gt;= 18).count());
+ *     System.out.println(executor.lastDecision("adults"));
+ * }
+ * </pre>
+ * Costs of parallel runs are estimated as wall time times the pool
+ * parallelism, which overstates them when a pipeline scales poorly.
+ */
+public final class AdaptiveExecutor implements AutoCloseable {
+
+    /**
+     * How one run of a pipeline was executed.
+     */
+    @Getter
+    @AllArgsConstructor(access = AccessLevel.PRIVATE)
+    public static final class Decision {
+        private final String pipeline;
+        private final long estimatedSize;
+        /**
+         * Smoothed cost per element the decision was based on, {@code NaN} without history.
+         */
+        private final double nanosPerElement;
+        private final boolean parallel;
+        private final long leafSize;
+        private final long elapsedNanos;
+
+        @Override
+        public String toString() {
+            return String.format("%s: size=%d cost=%.1fns/element %s leaf=%d took=%dus", pipeline,
+                    estimatedSize, nanosPerElement, parallel ? "parallel" : "sequential", leafSize,
+                    elapsedNanos / 1_000);
+        }
+    }
+
+    private static final class Profile {
+        double nanosPerElement = Double.NaN;
+
+        synchronized double get() {
+            return nanosPerElement;
+        }
+
+        synchronized void update(double sample, double alpha) {
+            nanosPerElement = Double.isNaN(nanosPerElement) ? sample : alpha * sample + (1 - alpha) * nanosPerElement;
+        }
+    }
+
+    private final ForkJoinPool pool;
+    private final boolean ownsPool;
+    private final long minParallelWorkNanos;
+    private final long minParallelSize;
+    private final long targetLeafNanos;
+    private final double smoothing;
+    private final Map<String, Profile> profiles = new ConcurrentHashMap<>();
+    private final Map<String, Decision> decisions = new ConcurrentHashMap<>();
+
+    private AdaptiveExecutor(Builder builder) {
+        this.ownsPool = builder.pool == null;
+        this.pool = ownsPool ? new ForkJoinPool(builder.parallelism) : builder.pool;
+        this.minParallelWorkNanos = builder.minParallelWorkNanos;
+        this.minParallelSize = builder.minParallelSize;
+        this.targetLeafNanos = builder.targetLeafNanos;
+        this.smoothing = builder.smoothing;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public <T, R> R execute(String pipelineId, Collection<T> source, Function<? super Stream<T>, R> pipeline) {
+        return execute(pipelineId, source.spliterator(), pipeline);
+    }
+
+    /**
+     * Runs {@code pipeline} over a stream of the source, sequentially in the
+     * calling thread or in parallel in the pool. The pipeline must not call
+     * {@code sequential()} or {@code parallel()} itself.
+     */
+    public <T, R> R execute(String pipelineId, Spliterator<T> source, Function<? super Stream<T>, R> pipeline) {
+        Profile profile = profiles.computeIfAbsent(pipelineId, id -> new Profile());
+        double cost = profile.get();
+        long size = source.estimateSize();
+        boolean parallel = pool.getParallelism() > 1 && (Double.isNaN(cost)
+                ? size >= minParallelSize
+                : size * cost >= minParallelWorkNanos);
+        long leafSize = parallel ? leafSize(size, cost) : size;
+
+        long start = System.nanoTime();
+        R result;
+        if (parallel) {
+            Stream<T> stream = StreamSupport.stream(new GranularitySpliterator<>(source, leafSize), true);
+            result = pool.invoke(ForkJoinTask.adapt(() -> pipeline.apply(stream)));
+        } else {
+            result = pipeline.apply(StreamSupport.stream(source, false));
+        }
+        long elapsed = System.nanoTime() - start;
+
+        if (size > 0 && size < Long.MAX_VALUE) {
+            profile.update((double) elapsed * (parallel ? pool.getParallelism() : 1) / size, smoothing);
+        }
+        decisions.put(pipelineId, new Decision(pipelineId, size, cost, parallel, leafSize, elapsed));
+        return result;
+    }
+
+    public Decision lastDecision(String pipelineId) {
+        return decisions.get(pipelineId);
+    }
+
+    /**
+     * Last decision of every pipeline run so far.
+     */
+    public Map<String, Decision> decisions() {
+        return Collections.unmodifiableMap(new HashMap<>(decisions));
+    }
+
+    public ForkJoinPool getPool() {
+        return pool;
+    }
+
+    /**
+     * Shuts the pool down if this executor created it.
+     */
+    @Override
+    public void close() {
+        if (ownsPool) {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Elements per leaf: enough for {@code targetLeafNanos} of work, but never so
+     * many that the pool cannot get one leaf per worker.
+     */
+    private long leafSize(long size, double cost) {
+        int parallelism = pool.getParallelism();
+        if (Double.isNaN(cost) || cost <= 0) {
+            return Math.max(1, size / (parallelism * 4L));
+        }
+        long byCost = (long) Math.ceil(targetLeafNanos / cost);
+        return Math.max(1, Math.min(byCost, size / parallelism));
+    }
+
+    /**
+     * Refuses to split below {@code leafSize} elements, which bounds the number of
+     * tasks the stream framework creates whatever the common pool parallelism.
+     */
+    static final class GranularitySpliterator<T> implements Spliterator<T> {
+        private final Spliterator<T> source;
+        private final long leafSize;
+
+        GranularitySpliterator(Spliterator<T> source, long leafSize) {
+            this.source = source;
+            this.leafSize = leafSize;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            return source.tryAdvance(action);
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            source.forEachRemaining(action);
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            if (source.estimateSize() < 2 * leafSize) {
+                return null;
+            }
+            Spliterator<T> prefix = source.trySplit();
+            return prefix == null ? null : new GranularitySpliterator<>(prefix, leafSize);
+        }
+
+        @Override
+        public long estimateSize() {
+            return source.estimateSize();
+        }
+
+        @Override
+        public long getExactSizeIfKnown() {
+            return source.getExactSizeIfKnown();
+        }
+
+        @Override
+        public int characteristics() {
+            return source.characteristics();
+        }
+
+        @Override
+        public Comparator<? super T> getComparator() {
+            return source.getComparator();
+        }
+    }
+
+    public static final class Builder {
+        private int parallelism = Runtime.getRuntime().availableProcessors();
+        private ForkJoinPool pool;
+        private long minParallelWorkNanos = 200_000;
+        private long minParallelSize = 10_000;
+        private long targetLeafNanos = 50_000;
+        private double smoothing = 0.3;
+
+        private Builder() {
+        }
+
+        /**
+         * Parallelism of the pool the executor creates, the number of processors by default.
+         */
+        public Builder parallelism(int parallelism) {
+            if (parallelism <= 0) {
+                throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+            }
+            this.parallelism = parallelism;
+            return this;
+        }
+
+        /**
+         * Runs parallel pipelines in an existing pool, which {@link #close()} leaves running.
+         */
+        public Builder pool(ForkJoinPool pool) {
+            this.pool = pool;
+            return this;
+        }
+
+        public Builder minParallelWorkNanos(long minParallelWorkNanos) {
+            if (minParallelWorkNanos < 0) {
+                throw new IllegalArgumentException("minParallelWorkNanos must not be negative: "
+                        + minParallelWorkNanos);
+            }
+            this.minParallelWorkNanos = minParallelWorkNanos;
+            return this;
+        }
+
+        /**
+         * Size from which a pipeline without history runs in parallel.
+         */
+        public Builder minParallelSize(long minParallelSize) {
+            if (minParallelSize < 0) {
+                throw new IllegalArgumentException("minParallelSize must not be negative: " + minParallelSize);
+            }
+            this.minParallelSize = minParallelSize;
+            return this;
+        }
+
+        public Builder targetLeafNanos(long targetLeafNanos) {
+            if (targetLeafNanos <= 0) {
+                throw new IllegalArgumentException("targetLeafNanos must be positive: " + targetLeafNanos);
+            }
+            this.targetLeafNanos = targetLeafNanos;
+            return this;
+        }
+
+        /**
+         * Weight of the newest run in the smoothed cost per element, 0.3 by default.
+         */
+        public Builder smoothing(double smoothing) {
+            if (!(smoothing > 0 && smoothing <= 1)) {
+                throw new IllegalArgumentException("smoothing must be in (0, 1]: " + smoothing);
+            }
+            this.smoothing = smoothing;
+            return this;
+        }
+
+        public AdaptiveExecutor build() {
+            return new AdaptiveExecutor(this);
+        }
+    }
+}
@@ -0,0 +1,455 @@
+package com.mikulajakub.stream;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Stages grouping a stream into batches, so that writers and enrichers pay
+ * their per-call overhead once per batch instead of once per element.
+ * <p>
+ * Batching is lazy, an element is pulled from the source only when the batch
+ * holding it is requested, and keeps encounter order: concatenating the
+ * batches gives back the source. In parallel every split of the source is
+ * batched on its own, so a batch never spans two splits and the last batch of
+ * a split may be short; splits are refused below two full batches. Batches of
+ * a {@code List} with random access are always exact.
+ * <pre>
+ * Batching.batch(citizens.stream(), 500).forEach(writer::writeAll);
+ * Batching.chunks(citizens.stream(), 500).forEach(chunk -&gt; chunk.forEach(writer::write));
+ * </pre>
+ */
+public final class Batching {
+
+    private Batching() {
+    }
+
+    /**
+     * Batches of {@code size} elements, the last one possibly shorter.
+     */
+    public static <T> Stream<List<T>> batch(Stream<T> stream, int size) {
+        checkPositive("size", size);
+        return wrap(stream, new SizeSpliterator<>(stream.spliterator(), size));
+    }
+
+    /**
+     * Exact batches of {@code size} elements as {@code subList} views of the list,
+     * split at batch boundaries in parallel. Lists without random access are
+     * batched like any other stream.
+     */
+    public static <T> Stream<List<T>> batch(List<T> list, int size) {
+        checkPositive("size", size);
+        if (!(list instanceof RandomAccess)) {
+            return batch(list.stream(), size);
+        }
+        int count = list.size();
+        int batches = (int) ((count + (long) size - 1) / size);
+        return IntStream.range(0, batches)
+                .mapToObj(b -> list.subList(b * size, (int) Math.min((long) b * size + size, count)));
+    }
+
+    /**
+     * Batches of at most {@code maxWeight}, as measured by the weigher, for
+     * example the encoded size of the elements in bytes. An element heavier
+     * than {@code maxWeight} forms a batch of its own. A batch is also closed
+     * once {@code maxDelay} has passed since its first element arrived, which
+     * bounds the latency of slow sources; the delay is checked as elements
+     * arrive, a stalled source still holds back its open batch, and a source
+     * slowing down abruptly may overshoot it by a few elements.
+     */
+    public static <T> Stream<List<T>> batchByWeight(Stream<T> stream, long maxWeight, Duration maxDelay,
+                                                    ToLongFunction<? super T> weigher) {
+        checkPositive("maxWeight", maxWeight);
+        if (maxDelay.isNegative() || maxDelay.isZero()) {
+            throw new IllegalArgumentException("maxDelay must be positive: " + maxDelay);
+        }
+        return wrap(stream, new WeightSpliterator<>(stream.spliterator(), maxWeight, maxDelay.toNanos(), weigher));
+    }
+
+    /**
+     * Batches of {@code size} elements in one reused {@link Chunk} per split of
+     * the source, so batching allocates nothing per batch. A chunk is refilled
+     * as soon as the next one is requested: consume it within the terminal
+     * operation, and {@link Chunk#toList()} it to keep it. The chunk is left
+     * empty when the source runs out.
+     */
+    public static <T> Stream<Chunk<T>> chunks(Stream<T> stream, int size) {
+        checkPositive("size", size);
+        return wrap(stream, new ChunkSpliterator<>(stream.spliterator(), new Chunk<>(size)));
+    }
+
+    private static <T, B> Stream<B> wrap(Stream<T> stream, Spliterator<B> batches) {
+        return StreamSupport.stream(batches, stream.isParallel()).onClose(stream::close);
+    }
+
+    private static void checkPositive(String name, long value) {
+        if (value <= 0) {
+            throw new IllegalArgumentException(name + " must be positive: " + value);
+        }
+    }
+
+    /**
+     * Reusable batch backed by an array, overwritten by the next batch of the
+     * same split.
+     */
+    public static final class Chunk<T> {
+        private final Object[] elements;
+        private int size;
+
+        Chunk(int capacity) {
+            this.elements = new Object[capacity];
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public boolean isEmpty() {
+            return size == 0;
+        }
+
+        @SuppressWarnings("unchecked")
+        public T get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+            }
+            return (T) elements[index];
+        }
+
+        @SuppressWarnings("unchecked")
+        public void forEach(Consumer<? super T> action) {
+            for (int i = 0; i < size; i++) {
+                action.accept((T) elements[i]);
+            }
+        }
+
+        /**
+         * Copy of the current content which outlives the chunk.
+         */
+        @SuppressWarnings("unchecked")
+        public List<T> toList() {
+            return (List<T>) List.of(Arrays.copyOf(elements, size));
+        }
+
+        int capacity() {
+            return elements.length;
+        }
+
+        @Override
+        public String toString() {
+            return Arrays.toString(Arrays.copyOf(elements, size));
+        }
+
+        private void add(T element) {
+            elements[size++] = element;
+        }
+
+        private void clear() {
+            Arrays.fill(elements, 0, size, null);
+            size = 0;
+        }
+    }
+
+    /**
+     * Fills batches from the source and splits by splitting the source.
+     * {@code tryAdvance} pulls elements one by one, {@code forEachRemaining}
+     * lets the source push them, which is much cheaper through a pipeline of
+     * intermediate operations.
+     */
+    private abstract static class BatchSpliterator<T, B> implements Spliterator<B>, Consumer<T> {
+        final Spliterator<T> source;
+
+        BatchSpliterator(Spliterator<T> source) {
+            this.source = source;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super B> action) {
+            begin();
+            while (!isFull() && source.tryAdvance(this)) {
+                // accept() adds the element
+            }
+            if (isEmpty()) {
+                return false;
+            }
+            action.accept(take());
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super B> action) {
+            begin();
+            source.forEachRemaining(element -> {
+                accept(element);
+                while (isFull()) {
+                    action.accept(take());
+                    begin();
+                }
+            });
+            if (!isEmpty()) {
+                action.accept(take());
+                begin();
+            }
+        }
+
+        @Override
+        public Spliterator<B> trySplit() {
+            if (source.estimateSize() < 2 * minSplitSize()) {
+                return null;
+            }
+            Spliterator<T> prefix = source.trySplit();
+            return prefix == null ? null : newSplit(prefix);
+        }
+
+        @Override
+        public int characteristics() {
+            return source.characteristics() & Spliterator.ORDERED | Spliterator.NONNULL;
+        }
+
+        /**
+         * Prepares the next batch after the previous one was handed out.
+         */
+        void begin() {
+        }
+
+        abstract boolean isFull();
+
+        abstract boolean isEmpty();
+
+        /**
+         * Hands out the current batch.
+         */
+        abstract B take();
+
+        abstract long minSplitSize();
+
+        abstract Spliterator<B> newSplit(Spliterator<T> prefix);
+    }
+
+    private static final class SizeSpliterator<T> extends BatchSpliterator<T, List<T>> {
+        private final int size;
+        private final int initialCapacity;
+        private List<T> batch;
+
+        SizeSpliterator(Spliterator<T> source, int size) {
+            super(source);
+            this.size = size;
+            this.initialCapacity = (int) Math.max(1, Math.min(size, source.estimateSize()));
+        }
+
+        @Override
+        public void accept(T element) {
+            if (batch == null) {
+                batch = new ArrayList<>(initialCapacity);
+            }
+            batch.add(element);
+        }
+
+        @Override
+        boolean isFull() {
+            return batch != null && batch.size() == size;
+        }
+
+        @Override
+        boolean isEmpty() {
+            return batch == null;
+        }
+
+        @Override
+        List<T> take() {
+            List<T> full = batch;
+            batch = null;
+            return full;
+        }
+
+        @Override
+        public long estimateSize() {
+            long elements = source.estimateSize();
+            return elements == Long.MAX_VALUE ? elements : (elements + size - 1) / size;
+        }
+
+        @Override
+        long minSplitSize() {
+            return size;
+        }
+
+        @Override
+        Spliterator<List<T>> newSplit(Spliterator<T> prefix) {
+            return new SizeSpliterator<>(prefix, size);
+        }
+    }
+
+    private static final class ChunkSpliterator<T> extends BatchSpliterator<T, Chunk<T>> {
+        private final Chunk<T> chunk;
+
+        ChunkSpliterator(Spliterator<T> source, Chunk<T> chunk) {
+            super(source);
+            this.chunk = chunk;
+        }
+
+        @Override
+        public void accept(T element) {
+            chunk.add(element);
+        }
+
+        @Override
+        void begin() {
+            chunk.clear();
+        }
+
+        @Override
+        boolean isFull() {
+            return chunk.size() == chunk.capacity();
+        }
+
+        @Override
+        boolean isEmpty() {
+            return chunk.isEmpty();
+        }
+
+        @Override
+        Chunk<T> take() {
+            return chunk;
+        }
+
+        @Override
+        public long estimateSize() {
+            long elements = source.estimateSize();
+            return elements == Long.MAX_VALUE ? elements : (elements + chunk.capacity() - 1) / chunk.capacity();
+        }
+
+        @Override
+        long minSplitSize() {
+            return chunk.capacity();
+        }
+
+        @Override
+        Spliterator<Chunk<T>> newSplit(Spliterator<T> prefix) {
+            return new ChunkSpliterator<>(prefix, new Chunk<>(chunk.capacity()));
+        }
+    }
+
+    private static final class WeightSpliterator<T> extends BatchSpliterator<T, List<T>> {
+        private final long maxWeight;
+        private final long maxDelayNanos;
+        private final ToLongFunction<? super T> weigher;
+        private List<T> batch = new ArrayList<>();
+        private long weight;
+        private long started;
+        /**
+         * Batch size at which the clock is read next.
+         */
+        private int nextClockCheck;
+        /**
+         * Element pulled from the source which did not fit the previous batch.
+         */
+        private T carried;
+        private boolean hasCarried;
+        private boolean closed;
+
+        WeightSpliterator(Spliterator<T> source, long maxWeight, long maxDelayNanos,
+                          ToLongFunction<? super T> weigher) {
+            super(source);
+            this.maxWeight = maxWeight;
+            this.maxDelayNanos = maxDelayNanos;
+            this.weigher = weigher;
+        }
+
+        @Override
+        void begin() {
+            if (hasCarried) {
+                T element = carried;
+                carried = null;
+                hasCarried = false;
+                accept(element);
+            }
+        }
+
+        @Override
+        boolean isFull() {
+            return closed;
+        }
+
+        @Override
+        boolean isEmpty() {
+            return batch.isEmpty();
+        }
+
+        @Override
+        List<T> take() {
+            List<T> full = batch;
+            batch = new ArrayList<>(full.size());
+            weight = 0;
+            closed = false;
+            return full;
+        }
+
+        @Override
+        public void accept(T element) {
+            long elementWeight = weigher.applyAsLong(element);
+            if (elementWeight < 0) {
+                throw new IllegalStateException("Negative weight " + elementWeight + " for " + element);
+            }
+            if (!batch.isEmpty() && weight + elementWeight > maxWeight) {
+                carried = element;
+                hasCarried = true;
+                closed = true;
+                return;
+            }
+            if (batch.isEmpty()) {
+                started = System.nanoTime();
+                nextClockCheck = 2;
+            }
+            batch.add(element);
+            weight += elementWeight;
+            closed = weight >= maxWeight || batch.size() >= nextClockCheck && delayElapsed();
+        }
+
+        /**
+         * Reads the clock and schedules the next read halfway to where the
+         * deadline falls at the arrival rate seen so far, so fast sources do
+         * not pay for a clock read per element while slow ones are checked on
+         * every arrival.
+         */
+        private boolean delayElapsed() {
+            long elapsed = System.nanoTime() - started;
+            if (elapsed >= maxDelayNanos) {
+                return true;
+            }
+            int arrived = batch.size() - 1;
+            long perElement = Math.max(1, elapsed / arrived);
+            long skip = (maxDelayNanos - elapsed) / perElement / 2;
+            nextClockCheck = batch.size() + (int) Math.max(1, Math.min(skip, 1024));
+            return false;
+        }
+
+        @Override
+        public Spliterator<List<T>> trySplit() {
+            // the carried element precedes the whole remaining source
+            return hasCarried ? null : super.trySplit();
+        }
+
+        @Override
+        public long estimateSize() {
+            return source.estimateSize();
+        }
+
+        @Override
+        long minSplitSize() {
+            return 1;
+        }
+
+        @Override
+        Spliterator<List<T>> newSplit(Spliterator<T> prefix) {
+            return new WeightSpliterator<>(prefix, maxWeight, maxDelayNanos, weigher);
+        }
+    }
+}
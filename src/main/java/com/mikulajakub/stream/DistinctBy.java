@@ -0,0 +1,174 @@
+package com.mikulajakub.stream;
+
+import com.mikulajakub.collect.Hashing;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Distinct-by-key filters which are safe to use on parallel streams.
+ * <p>
+ * Each factory returns a stateful {@link Predicate} which accepts an element
+ * the first time its key is seen:
+ * <pre>
+ * citizens.parallelStream()
+ *         .filter(DistinctBy.key(Citizen::getName))
+ *         .collect(Collectors.toList());
+ * </pre>
+ * On a parallel stream it is not defined which of the duplicates survives,
+ * only that exactly one does (for {@link #key}).
+ */
+public final class DistinctBy {
+
+    private DistinctBy() {
+    }
+
+    /**
+     * Exact distinct-by-key backed by a lock-free concurrent key set.
+     * Memory grows with the number of distinct keys.
+     */
+    public static <T, K> Predicate<T> key(Function<? super T, ? extends K> keyProvider) {
+        Set<K> keys = ConcurrentHashMap.newKeySet();
+        return x -> keys.add(keyProvider.apply(x));
+    }
+
+    /**
+     * Distinct-by-key which remembers at most {@code maxKeys} most recently
+     * seen keys. A key evicted from the window is accepted again when it
+     * reappears, so duplicates are only removed within that window.
+     * The key set is striped so parallel workers rarely contend, and the
+     * window is kept per stripe: each stripe holds its share of
+     * {@code maxKeys}, so a stripe receiving many keys can evict one before
+     * {@code maxKeys} distinct keys have been seen overall.
+     */
+    public static <T, K> Predicate<T> recent(Function<? super T, ? extends K> keyProvider, int maxKeys) {
+        if (maxKeys <= 0) {
+            throw new IllegalArgumentException("maxKeys must be positive: " + maxKeys);
+        }
+        StripedLruSet<K> keys = new StripedLruSet<>(maxKeys);
+        return x -> keys.add(keyProvider.apply(x));
+    }
+
+    /**
+     * Approximate distinct-by-key backed by a Bloom filter with fixed memory.
+     * Never lets through a duplicate seen sequentially before, but may drop a
+     * first-seen key with probability close to {@code falsePositiveRate}
+     * once {@code expectedKeys} keys have been inserted. That holds for
+     * {@code CharSequence}, {@code Long} and {@code Integer} keys, which are
+     * hashed to 64 bits; other keys are hashed through {@code hashCode()}, so
+     * keys sharing a hash code always count as duplicates, which adds about
+     * {@code n / 2^32} of the first {@code n} keys to the rate.
+     */
+    public static <T, K> Predicate<T> approximate(Function<? super T, ? extends K> keyProvider,
+                                                  long expectedKeys, double falsePositiveRate) {
+        BloomFilter keys = new BloomFilter(expectedKeys, falsePositiveRate);
+        return x -> keys.add(keyProvider.apply(x));
+    }
+
+    static final class StripedLruSet<K> {
+        private final Stripe<K>[] stripes;
+        private final int mask;
+
+        @SuppressWarnings("unchecked")
+        StripedLruSet(int maxKeys) {
+            int count = stripeCount(maxKeys);
+            stripes = new Stripe[count];
+            mask = count - 1;
+            int perStripe = Math.max(1, maxKeys / count);
+            for (int i = 0; i < count; i++) {
+                stripes[i] = new Stripe<>(perStripe);
+            }
+        }
+
+        boolean add(K key) {
+            Stripe<K> stripe = stripes[spread(key == null ? 0 : key.hashCode()) & mask];
+            synchronized (stripe) {
+                return stripe.put(key, Boolean.TRUE) == null;
+            }
+        }
+
+        private static int stripeCount(int maxKeys) {
+            int wanted = Math.min(Runtime.getRuntime().availableProcessors() * 4, Math.max(1, maxKeys / 16));
+            return Integer.highestOneBit(Math.max(1, wanted));
+        }
+
+        private static int spread(int h) {
+            h ^= h >>> 16;
+            h *= 0x45d9f3b;
+            return h ^ h >>> 16;
+        }
+    }
+
+    private static final class Stripe<K> extends LinkedHashMap<K, Boolean> {
+        private final int capacity;
+
+        Stripe(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, Boolean> eldest) {
+            return size() > capacity;
+        }
+    }
+
+    static final class BloomFilter {
+        private final AtomicLongArray words;
+        private final long bits;
+        private final int hashes;
+
+        BloomFilter(long expectedKeys, double falsePositiveRate) {
+            if (expectedKeys <= 0) {
+                throw new IllegalArgumentException("expectedKeys must be positive: " + expectedKeys);
+            }
+            if (!(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+                throw new IllegalArgumentException("falsePositiveRate must be in (0, 1): " + falsePositiveRate);
+            }
+            long wantedBits = (long) Math.ceil(-expectedKeys * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            int wordCount = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, (wantedBits + 63) >>> 6));
+            words = new AtomicLongArray(wordCount);
+            bits = (long) wordCount << 6;
+            hashes = Math.max(1, (int) Math.round((double) bits / expectedKeys * Math.log(2)));
+        }
+
+        /**
+         * Sets the key's bits and returns {@code true} if at least one of them was clear.
+         */
+        boolean add(Object key) {
+            long hash = hash64(key);
+            long h1 = hash;
+            long h2 = (hash >>> 32) | 1;
+            boolean added = false;
+            for (int i = 0; i < hashes; i++) {
+                long bit = Math.floorMod(h1 + i * h2, bits);
+                int index = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long word = words.get(index);
+                while ((word & mask) == 0) {
+                    if (words.compareAndSet(index, word, word | mask)) {
+                        added = true;
+                        break;
+                    }
+                    word = words.get(index);
+                }
+            }
+            return added;
+        }
+
+        private static long hash64(Object key) {
+            if (key instanceof CharSequence chars) {
+                return Hashing.hash64(chars);
+            }
+            if (key instanceof Long || key instanceof Integer) {
+                return Hashing.hash64(((Number) key).longValue());
+            }
+            return Hashing.hash64(key == null ? 0 : key.hashCode());
+        }
+    }
+}
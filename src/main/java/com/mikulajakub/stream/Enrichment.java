@@ -0,0 +1,213 @@
+package com.mikulajakub.stream;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Runs blocking, I/O-bound lookups for every element of a stream on virtual threads.
+ * <p>
+ * Calling a slow backend inside {@code parallel().map(...)} parks fork-join workers
+ * of the common pool. This stage instead submits every call (or batch of calls) to
+ * a virtual thread, keeps at most {@code maxConcurrency} calls in flight, and
+ * emits the results either in input order or as soon as they complete.
+ * <pre>
+ * Stream&lt;Profile&gt; profiles = Enrichment.of(profileService::lookup)
+ *         .maxConcurrency(256)
+ *         .apply(citizens.stream());
+ * </pre>
+ * The source is consumed sequentially; the returned stream should be closed, or fully
+ * consumed, to release its executor. A failing source or lookup releases it too.
+ *
+ * @param <T> input type
+ * @param <R> enriched type
+ */
+public final class Enrichment<T, R> {
+
+    private final Function<? super List<T>, ? extends List<? extends R>> call;
+    private final int batchSize;
+    private int maxConcurrency = 64;
+    private boolean ordered = true;
+
+    private Enrichment(Function<? super List<T>, ? extends List<? extends R>> call, int batchSize) {
+        this.call = call;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * One call per element.
+     */
+    public static <T, R> Enrichment<T, R> of(Function<? super T, ? extends R> lookup) {
+        return new Enrichment<T, R>(batch -> Collections.singletonList(lookup.apply(batch.get(0))), 1);
+    }
+
+    /**
+     * One call per batch of up to {@code batchSize} elements. The lookup must return
+     * exactly one result per input, in input order; the stream fails with an
+     * {@link IllegalStateException} otherwise.
+     */
+    public static <T, R> Enrichment<T, R> batched(Function<? super List<T>, ? extends List<? extends R>> lookup,
+                                                  int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be positive: " + batchSize);
+        }
+        return new Enrichment<>(lookup, batchSize);
+    }
+
+    /**
+     * Maximum number of calls in flight at once, 64 by default.
+     */
+    public Enrichment<T, R> maxConcurrency(int maxConcurrency) {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("maxConcurrency must be positive: " + maxConcurrency);
+        }
+        this.maxConcurrency = maxConcurrency;
+        return this;
+    }
+
+    /**
+     * Emit results in input order ({@code true}, default) or in completion order.
+     */
+    public Enrichment<T, R> ordered(boolean ordered) {
+        this.ordered = ordered;
+        return this;
+    }
+
+    /**
+     * Enriches the source with the current settings; changing them later does
+     * not affect streams already returned.
+     */
+    public Stream<R> apply(Stream<T> source) {
+        EnrichingSpliterator<T, R> spliterator = new EnrichingSpliterator<>(source.sequential().iterator(), call,
+                batchSize, maxConcurrency, ordered);
+        return StreamSupport.stream(spliterator, false)
+                .onClose(spliterator::shutdown)
+                .onClose(source::close);
+    }
+
+    /**
+     * Results may be {@code null} if the lookup returns {@code null}.
+     */
+    private static final class EnrichingSpliterator<T, R> extends Spliterators.AbstractSpliterator<R> {
+        private final Iterator<T> source;
+        private final Function<? super List<T>, ? extends List<? extends R>> call;
+        private final int batchSize;
+        private final int maxConcurrency;
+        private final boolean ordered;
+        private final ArrayDeque<Future<Results<R>>> inOrder = new ArrayDeque<>();
+        /**
+         * Created with the first call, so a stream never traversed holds no threads.
+         */
+        private ExecutorService executor;
+        private ExecutorCompletionService<Results<R>> completed;
+        private Iterator<? extends R> current = Collections.emptyIterator();
+        private int inFlight;
+
+        EnrichingSpliterator(Iterator<T> source, Function<? super List<T>, ? extends List<? extends R>> call,
+                             int batchSize, int maxConcurrency, boolean ordered) {
+            super(Long.MAX_VALUE, ordered ? ORDERED : 0);
+            this.source = source;
+            this.call = call;
+            this.batchSize = batchSize;
+            this.maxConcurrency = maxConcurrency;
+            this.ordered = ordered;
+        }
+
+        private void submitUpToLimit() {
+            while (inFlight < maxConcurrency && source.hasNext()) {
+                List<T> batch = new ArrayList<>(batchSize);
+                while (batch.size() < batchSize && source.hasNext()) {
+                    batch.add(source.next());
+                }
+                Callable<Results<R>> lookup = () -> new Results<>(batch.size(), call.apply(batch));
+                if (executor == null) {
+                    executor = Executors.newVirtualThreadPerTaskExecutor();
+                    completed = new ExecutorCompletionService<>(executor);
+                }
+                if (ordered) {
+                    inOrder.add(executor.submit(lookup));
+                } else {
+                    completed.submit(lookup);
+                }
+                inFlight++;
+            }
+        }
+
+        private Future<Results<R>> nextDone() throws InterruptedException {
+            return ordered ? inOrder.poll() : completed.take();
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super R> action) {
+            while (!current.hasNext()) {
+                try {
+                    submitUpToLimit();
+                    if (inFlight == 0) {
+                        shutdown();
+                        return false;
+                    }
+                    current = nextDone().get().check().iterator();
+                    inFlight--;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    shutdown();
+                    throw new CompletionException(e);
+                } catch (ExecutionException e) {
+                    shutdown();
+                    throw new CompletionException(e.getCause());
+                } catch (RuntimeException | Error e) {
+                    // a failing source or lookup result, the calls in flight are of no use
+                    shutdown();
+                    throw e;
+                }
+            }
+            action.accept(current.next());
+            return true;
+        }
+
+        void shutdown() {
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * Results of one call together with the size of the batch it was given.
+     */
+    private static final class Results<R> {
+        private final int expected;
+        private final List<? extends R> results;
+
+        Results(int expected, List<? extends R> results) {
+            this.expected = expected;
+            this.results = results;
+        }
+
+        List<? extends R> check() {
+            if (results == null) {
+                throw new IllegalStateException("Lookup returned null for a batch of " + expected);
+            }
+            if (results.size() != expected) {
+                throw new IllegalStateException("Lookup returned " + results.size() + " results for a batch of "
+                        + expected);
+            }
+            return results;
+        }
+    }
+}
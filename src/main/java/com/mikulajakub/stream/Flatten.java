@@ -0,0 +1,230 @@
+package com.mikulajakub.stream;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Flat streams over nested arrays and lists which split well in parallel.
+ * <p>
+ * {@code flatMap(Arrays::stream)} can only split the outer array, every inner
+ * row is then walked by one thread, so a few long rows of a ragged matrix keep
+ * one core busy while the others idle. These streams instead address the
+ * elements by their flat position: a split cuts at the middle element, inside
+ * a row if needed, so both halves always hold the same number of elements.
+ * The rows are read in place, nothing is copied, and {@link #ints(int[][])}
+ * never boxes. Row lengths are captured when the stream is created.
+ */
+public final class Flatten {
+
+    static final int MIN_SPLIT = 1024;
+
+    private Flatten() {
+    }
+
+    /**
+     * Zero-copy view of the matrix as one flat {@code IntStream}, row by row.
+     */
+    public static IntStream ints(int[][] matrix) {
+        long[] offsets = offsets(matrix.length, r -> matrix[r].length);
+        return StreamSupport.intStream(new IntSpliterator(matrix, offsets, 0, offsets[matrix.length]), false);
+    }
+
+    public static <T> Stream<T> of(T[][] matrix) {
+        List<?>[] rows = new List<?>[matrix.length];
+        for (int r = 0; r < rows.length; r++) {
+            rows[r] = Arrays.asList(matrix[r]);
+        }
+        return of(rows);
+    }
+
+    /**
+     * Flat stream over the inner lists; lists without random access are copied once up front.
+     */
+    public static <T> Stream<T> of(List<? extends List<? extends T>> lists) {
+        List<?>[] rows = new List<?>[lists.size()];
+        for (int r = 0; r < rows.length; r++) {
+            List<? extends T> row = lists.get(r);
+            rows[r] = row instanceof RandomAccess ? row : new ArrayList<>(row);
+        }
+        return of(rows);
+    }
+
+    private static <T> Stream<T> of(List<?>[] rows) {
+        long[] offsets = offsets(rows.length, r -> rows[r].size());
+        return StreamSupport.stream(new RowSpliterator<T>(rows, offsets, 0, offsets[rows.length]), false);
+    }
+
+    /**
+     * Flat position of the first element of every row, plus the total size at the end.
+     */
+    private static long[] offsets(int rows, IntUnaryOperator length) {
+        long[] offsets = new long[rows + 1];
+        for (int r = 0; r < rows; r++) {
+            offsets[r + 1] = offsets[r] + length.applyAsInt(r);
+        }
+        return offsets;
+    }
+
+    /**
+     * Row holding the flat position, the last row starting at or before it.
+     */
+    private static int rowOf(long[] offsets, long position) {
+        int index = Arrays.binarySearch(offsets, position);
+        if (index < 0) {
+            return -index - 2;
+        }
+        while (index + 1 < offsets.length - 1 && offsets[index + 1] == position) {
+            index++;
+        }
+        return index;
+    }
+
+    /**
+     * Shared cursor logic: a flat range {@code [position, end)} plus the row and column of {@code position}.
+     */
+    private abstract static class FlatCursor {
+        final long[] offsets;
+        long position;
+        final long end;
+        int row;
+        int column;
+
+        FlatCursor(long[] offsets, long position, long end) {
+            this.offsets = offsets;
+            this.position = position;
+            this.end = end;
+            this.row = position < end ? rowOf(offsets, position) : 0;
+            this.column = position < end ? (int) (position - offsets[row]) : 0;
+        }
+
+        /**
+         * Skips rows which are exhausted so that {@code (row, column)} points at {@code position}.
+         */
+        final void normalize() {
+            while (offsets[row] + column >= offsets[row + 1]) {
+                row++;
+                column = 0;
+            }
+        }
+
+        final long splitPoint() {
+            long remaining = end - position;
+            return remaining < 2L * MIN_SPLIT ? -1 : position + remaining / 2;
+        }
+
+        public long estimateSize() {
+            return end - position;
+        }
+
+        public int characteristics() {
+            return Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED;
+        }
+    }
+
+    private static final class IntSpliterator extends FlatCursor implements Spliterator.OfInt {
+        private final int[][] matrix;
+
+        IntSpliterator(int[][] matrix, long[] offsets, long position, long end) {
+            super(offsets, position, end);
+            this.matrix = matrix;
+        }
+
+        @Override
+        public boolean tryAdvance(IntConsumer action) {
+            if (position >= end) {
+                return false;
+            }
+            normalize();
+            action.accept(matrix[row][column++]);
+            position++;
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(IntConsumer action) {
+            while (position < end) {
+                normalize();
+                int[] values = matrix[row];
+                int stop = (int) Math.min(values.length, column + (end - position));
+                Arrays.spliterator(values, column, stop).forEachRemaining(action);
+                position += stop - column;
+                column = stop;
+            }
+        }
+
+        @Override
+        public Spliterator.OfInt trySplit() {
+            long mid = splitPoint();
+            if (mid < 0) {
+                return null;
+            }
+            IntSpliterator prefix = new IntSpliterator(matrix, offsets, position, mid);
+            prefix.row = row;
+            prefix.column = column;
+            position = mid;
+            row = rowOf(offsets, mid);
+            column = (int) (mid - offsets[row]);
+            return prefix;
+        }
+    }
+
+    private static final class RowSpliterator<T> extends FlatCursor implements Spliterator<T> {
+        private final List<?>[] rows;
+
+        RowSpliterator(List<?>[] rows, long[] offsets, long position, long end) {
+            super(offsets, position, end);
+            this.rows = rows;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean tryAdvance(Consumer<? super T> action) {
+            if (position >= end) {
+                return false;
+            }
+            normalize();
+            action.accept((T) rows[row].get(column++));
+            position++;
+            return true;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void forEachRemaining(Consumer<? super T> action) {
+            while (position < end) {
+                normalize();
+                List<?> values = rows[row];
+                int stop = (int) Math.min(values.size(), column + (end - position));
+                for (int c = column; c < stop; c++) {
+                    action.accept((T) values.get(c));
+                }
+                position += stop - column;
+                column = stop;
+            }
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            long mid = splitPoint();
+            if (mid < 0) {
+                return null;
+            }
+            RowSpliterator<T> prefix = new RowSpliterator<>(rows, offsets, position, mid);
+            prefix.row = row;
+            prefix.column = column;
+            position = mid;
+            row = rowOf(offsets, mid);
+            column = (int) (mid - offsets[row]);
+            return prefix;
+        }
+    }
+}
@@ -0,0 +1,357 @@
+package com.mikulajakub.stream;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+
+/**
+ * Precompiled case-insensitive matcher for filtering names, a replacement for
+ * {@code name.toLowerCase().contains(pattern)}.
+ * <p>
+ * Characters are compared after folding with
+ * {@code Character.toLowerCase(Character.toUpperCase(c))}, the rule of
+ * {@link String#equalsIgnoreCase}: it does not depend on the default locale,
+ * so {@code "Ł"} matches {@code "ł"} and a Turkish locale does not break
+ * {@code "I"}. Matching reads the original {@code String} or {@code char[]}
+ * through a folding table and allocates nothing. Single patterns of
+ * {@value #HORSPOOL_MIN_LENGTH} or more chars use Horspool skipping, several
+ * patterns one Aho-Corasick automaton, so the text is read once whatever the
+ * number of patterns.
+ * <pre>
+ * IgnoreCaseMatcher withS = IgnoreCaseMatcher.contains("s");
+ * long count = names.stream().filter(withS).count();
+ * </pre>
+ * Matchers are immutable and thread-safe.
+ */
+public abstract class IgnoreCaseMatcher implements Predicate<CharSequence> {
+
+    static final int HORSPOOL_MIN_LENGTH = 4;
+
+    private static final char[] FOLD = new char[Character.MAX_VALUE + 1];
+
+    static {
+        for (int c = 0; c <= Character.MAX_VALUE; c++) {
+            FOLD[c] = Character.toLowerCase(Character.toUpperCase((char) c));
+        }
+    }
+
+    private IgnoreCaseMatcher() {
+    }
+
+    public static IgnoreCaseMatcher contains(String pattern) {
+        return new Contains(foldAll(pattern));
+    }
+
+    public static IgnoreCaseMatcher startsWith(String prefix) {
+        return new StartsWith(foldAll(prefix));
+    }
+
+    /**
+     * Matches text containing at least one of the patterns.
+     */
+    public static IgnoreCaseMatcher containsAny(String... patterns) {
+        return containsAny(Arrays.asList(patterns));
+    }
+
+    public static IgnoreCaseMatcher containsAny(Collection<String> patterns) {
+        if (patterns.isEmpty()) {
+            throw new IllegalArgumentException("patterns must not be empty");
+        }
+        if (patterns.size() == 1) {
+            return contains(patterns.iterator().next());
+        }
+        return new AhoCorasick(patterns);
+    }
+
+    public static char fold(char c) {
+        return FOLD[c];
+    }
+
+    @Override
+    public boolean test(CharSequence text) {
+        return indexIn(text) >= 0;
+    }
+
+    public boolean test(char[] text, int from, int to) {
+        return indexIn(text, from, to) >= 0;
+    }
+
+    /**
+     * Position of the first match, {@code -1} if there is none. With several
+     * patterns this is the start of the match which ends first.
+     */
+    public abstract int indexIn(CharSequence text);
+
+    public abstract int indexIn(char[] text, int from, int to);
+
+    private static char[] foldAll(String pattern) {
+        char[] folded = new char[pattern.length()];
+        for (int i = 0; i < folded.length; i++) {
+            folded[i] = FOLD[pattern.charAt(i)];
+        }
+        return folded;
+    }
+
+    private static final class StartsWith extends IgnoreCaseMatcher {
+        private final char[] prefix;
+
+        StartsWith(char[] prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public int indexIn(CharSequence text) {
+            if (text.length() < prefix.length) {
+                return -1;
+            }
+            for (int i = 0; i < prefix.length; i++) {
+                if (FOLD[text.charAt(i)] != prefix[i]) {
+                    return -1;
+                }
+            }
+            return 0;
+        }
+
+        @Override
+        public int indexIn(char[] text, int from, int to) {
+            if (to - from < prefix.length) {
+                return -1;
+            }
+            for (int i = 0; i < prefix.length; i++) {
+                if (FOLD[text[from + i]] != prefix[i]) {
+                    return -1;
+                }
+            }
+            return from;
+        }
+    }
+
+    private static final class Contains extends IgnoreCaseMatcher {
+        private final char[] pattern;
+        private final int[] shift = new int[256];
+
+        Contains(char[] pattern) {
+            this.pattern = pattern;
+            int m = pattern.length;
+            Arrays.fill(shift, Math.max(m, 1));
+            for (int k = 0; k < m - 1; k++) {
+                // chars sharing a low byte share a slot, the smallest shift of them is kept
+                shift[pattern[k] & 0xFF] = m - 1 - k;
+            }
+        }
+
+        @Override
+        public int indexIn(CharSequence text) {
+            int m = pattern.length;
+            int last = text.length() - m;
+            if (m == 0) {
+                return 0;
+            }
+            if (m < HORSPOOL_MIN_LENGTH) {
+                char first = pattern[0];
+                for (int i = 0; i <= last; i++) {
+                    if (FOLD[text.charAt(i)] == first && matchesAt(text, i, 1)) {
+                        return i;
+                    }
+                }
+                return -1;
+            }
+            char tail = pattern[m - 1];
+            for (int i = 0; i <= last; ) {
+                char c = FOLD[text.charAt(i + m - 1)];
+                if (c == tail && matchesAt(text, i, 0)) {
+                    return i;
+                }
+                i += shift[c & 0xFF];
+            }
+            return -1;
+        }
+
+        @Override
+        public int indexIn(char[] text, int from, int to) {
+            int m = pattern.length;
+            int last = to - m;
+            if (m == 0) {
+                return from;
+            }
+            if (m < HORSPOOL_MIN_LENGTH) {
+                char first = pattern[0];
+                for (int i = from; i <= last; i++) {
+                    if (FOLD[text[i]] == first && matchesAt(text, i, 1)) {
+                        return i;
+                    }
+                }
+                return -1;
+            }
+            char tail = pattern[m - 1];
+            for (int i = from; i <= last; ) {
+                char c = FOLD[text[i + m - 1]];
+                if (c == tail && matchesAt(text, i, 0)) {
+                    return i;
+                }
+                i += shift[c & 0xFF];
+            }
+            return -1;
+        }
+
+        private boolean matchesAt(CharSequence text, int at, int skip) {
+            for (int k = skip; k < pattern.length; k++) {
+                if (FOLD[text.charAt(at + k)] != pattern[k]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean matchesAt(char[] text, int at, int skip) {
+            for (int k = skip; k < pattern.length; k++) {
+                if (FOLD[text[at + k]] != pattern[k]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Aho-Corasick automaton compiled into a full transition table over the
+     * folded chars occurring in the patterns.
+     */
+    private static final class AhoCorasick extends IgnoreCaseMatcher {
+        private final char[] alphabet;
+        private final int[] latin1Class = new int[256];
+        private final int[] next;
+        private final int[] matchLength;
+
+        AhoCorasick(Collection<String> patterns) {
+            TreeSet<Character> chars = new TreeSet<>();
+            List<char[]> folded = new ArrayList<>(patterns.size());
+            for (String pattern : patterns) {
+                char[] f = foldAll(pattern);
+                folded.add(f);
+                for (char c : f) {
+                    chars.add(c);
+                }
+            }
+            alphabet = new char[chars.size()];
+            int index = 0;
+            for (char c : chars) {
+                alphabet[index++] = c;
+            }
+            Arrays.fill(latin1Class, -1);
+            for (int i = 0; i < alphabet.length; i++) {
+                if (alphabet[i] < 256) {
+                    latin1Class[alphabet[i]] = i;
+                }
+            }
+
+            int sigma = Math.max(alphabet.length, 1);
+            List<Map<Integer, Integer>> trie = new ArrayList<>();
+            List<Integer> terminalLength = new ArrayList<>();
+            trie.add(new HashMap<>());
+            terminalLength.add(0);
+            boolean matchesEmpty = false;
+            for (char[] pattern : folded) {
+                matchesEmpty |= pattern.length == 0;
+                int state = 0;
+                for (char c : pattern) {
+                    int cls = classOf(c);
+                    Integer child = trie.get(state).get(cls);
+                    if (child == null) {
+                        child = trie.size();
+                        trie.add(new HashMap<>());
+                        terminalLength.add(0);
+                        trie.get(state).put(cls, child);
+                    }
+                    state = child;
+                }
+                if (state != 0) {
+                    terminalLength.set(state, pattern.length);
+                }
+            }
+
+            int states = trie.size();
+            next = new int[states * sigma];
+            matchLength = new int[states];
+            int[] failure = new int[states];
+            for (int s = 1; s < states; s++) {
+                matchLength[s] = terminalLength.get(s);
+            }
+            // a root match length marks the empty pattern, which matches at the start of any text
+            matchLength[0] = matchesEmpty ? -1 : 0;
+            ArrayDeque<Integer> queue = new ArrayDeque<>();
+            for (int cls = 0; cls < sigma; cls++) {
+                Integer child = trie.get(0).get(cls);
+                if (child != null) {
+                    next[cls] = child;
+                    queue.add(child);
+                }
+            }
+            while (!queue.isEmpty()) {
+                int state = queue.poll();
+                if (matchLength[state] == 0 && failure[state] != 0) {
+                    matchLength[state] = matchLength[failure[state]];
+                }
+                for (int cls = 0; cls < sigma; cls++) {
+                    Integer child = trie.get(state).get(cls);
+                    int fallback = next[failure[state] * sigma + cls];
+                    if (child != null) {
+                        failure[child] = fallback;
+                        next[state * sigma + cls] = child;
+                        queue.add(child);
+                    } else {
+                        next[state * sigma + cls] = fallback;
+                    }
+                }
+            }
+        }
+
+        @Override
+        public int indexIn(CharSequence text) {
+            if (matchLength[0] != 0) {
+                return 0;
+            }
+            int sigma = Math.max(alphabet.length, 1);
+            int state = 0;
+            for (int i = 0, n = text.length(); i < n; i++) {
+                int cls = classOf(FOLD[text.charAt(i)]);
+                state = cls < 0 ? 0 : next[state * sigma + cls];
+                if (matchLength[state] != 0) {
+                    return i - matchLength[state] + 1;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        public int indexIn(char[] text, int from, int to) {
+            if (matchLength[0] != 0) {
+                return from;
+            }
+            int sigma = Math.max(alphabet.length, 1);
+            int state = 0;
+            for (int i = from; i < to; i++) {
+                int cls = classOf(FOLD[text[i]]);
+                state = cls < 0 ? 0 : next[state * sigma + cls];
+                if (matchLength[state] != 0) {
+                    return i - matchLength[state] + 1;
+                }
+            }
+            return -1;
+        }
+
+        private int classOf(char c) {
+            if (c < 256) {
+                return latin1Class[c];
+            }
+            int index = Arrays.binarySearch(alphabet, c);
+            return index < 0 ? -1 : index;
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.mikulajakub.stream;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Writes a stream in encounter order while encoding its elements in parallel.
+ * <p>
+ * {@code parallel().forEachOrdered(...)} has to run the terminal step one element
+ * at a time. This sink splits the stream into many small leaves, lets pool workers
+ * encode every leaf into its own buffer and only copies the finished buffers to the
+ * output in order. The output is byte for byte the same as encoding every element
+ * with {@code forEachOrdered}, as long as the encoder is deterministic.
+ * <p>
+ * Leaves are cut off one at a time as the output catches up, so at most four
+ * leaves per pool thread, of about {@code leafSize} elements each, are held with
+ * their buffers at once. Sized sources are split; sources of unknown size, such
+ * as {@code BufferedReader.lines()}, are read {@code leafSize} elements at a time
+ * on the calling thread, intermediate operations included, and only encoded in
+ * parallel. A parallel {@code limit} or {@code sorted} upstream is still evaluated
+ * by the stream itself before the first leaf.
+ * <pre>
+ * OrderedParallelSink.write(citizens.stream(), OrderedParallelSink.lines(Citizen::toString), out);
+ * </pre>
+ */
+public final class OrderedParallelSink {
+
+    public static final int DEFAULT_LEAF_SIZE = 1024;
+
+    /**
+     * Encodes one element. Called concurrently for different elements.
+     */
+    @FunctionalInterface
+    public interface Encoder<T> {
+        void encode(T element, OutputStream out) throws IOException;
+    }
+
+    private OrderedParallelSink() {
+    }
+
+    /**
+     * Encoder writing {@code toText(element)} followed by {@code '\n'} in UTF-8.
+     */
+    public static <T> Encoder<T> lines(Function<? super T, String> toText) {
+        return lines(toText, StandardCharsets.UTF_8);
+    }
+
+    public static <T> Encoder<T> lines(Function<? super T, String> toText, Charset charset) {
+        return (element, out) -> {
+            out.write(toText.apply(element).getBytes(charset));
+            out.write('\n');
+        };
+    }
+
+    /**
+     * Encodes the stream into {@code out} on the common pool.
+     *
+     * @return number of elements written
+     */
+    public static <T> long write(Stream<T> stream, Encoder<? super T> encoder, OutputStream out) throws IOException {
+        return write(stream, encoder, out, ForkJoinPool.commonPool(), DEFAULT_LEAF_SIZE);
+    }
+
+    public static <T> long write(Stream<T> stream, Encoder<? super T> encoder, OutputStream out,
+                                 ForkJoinPool pool, int leafSize) throws IOException {
+        if (leafSize <= 0) {
+            throw new IllegalArgumentException("leafSize must be positive: " + leafSize);
+        }
+        Leaves<T> leaves = new Leaves<>(stream.parallel().spliterator(), leafSize);
+
+        int window = Math.max(2, pool.getParallelism() * 4);
+        ArrayDeque<ForkJoinTask<Leaf>> pending = new ArrayDeque<>();
+        long written = 0;
+        try {
+            while (true) {
+                while (pending.size() < window) {
+                    Spliterator<T> leaf = leaves.next();
+                    if (leaf == null) {
+                        break;
+                    }
+                    pending.add(pool.submit(() -> encode(leaf, encoder)));
+                }
+                ForkJoinTask<Leaf> oldest = pending.poll();
+                if (oldest == null) {
+                    break;
+                }
+                Leaf done = oldest.join();
+                done.buffer.writeTo(out);
+                written += done.count;
+            }
+        } finally {
+            pending.forEach(task -> task.cancel(false));
+            stream.close();
+        }
+        return written;
+    }
+
+    private static <T> Leaf encode(Spliterator<T> spliterator, Encoder<? super T> encoder) {
+        Leaf leaf = new Leaf();
+        spliterator.forEachRemaining(element -> {
+            try {
+                encoder.encode(element, leaf.buffer);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            leaf.count++;
+        });
+        return leaf;
+    }
+
+    /**
+     * Cuts the source into leaves in encounter order, one per call: sized parts
+     * are split until they hold at most {@code leafSize} elements, parts of
+     * unknown size or refusing to split are copied {@code leafSize} at a time.
+     */
+    private static final class Leaves<T> {
+        private final ArrayDeque<Spliterator<T>> parts = new ArrayDeque<>();
+        private final int leafSize;
+
+        Leaves(Spliterator<T> source, int leafSize) {
+            this.parts.push(source);
+            this.leafSize = leafSize;
+        }
+
+        /**
+         * Next leaf, {@code null} after the last one.
+         */
+        Spliterator<T> next() {
+            while (!parts.isEmpty()) {
+                Spliterator<T> part = parts.peek();
+                long size = part.estimateSize();
+                if (size <= leafSize) {
+                    return parts.pop();
+                }
+                Spliterator<T> prefix = size == Long.MAX_VALUE ? null : part.trySplit();
+                if (prefix != null) {
+                    parts.push(prefix);
+                    continue;
+                }
+                List<T> chunk = new ArrayList<>(leafSize);
+                while (chunk.size() < leafSize && part.tryAdvance(chunk::add)) {
+                    // tryAdvance() adds the element
+                }
+                if (chunk.size() < leafSize) {
+                    parts.pop();
+                }
+                if (!chunk.isEmpty()) {
+                    return chunk.spliterator();
+                }
+            }
+            return null;
+        }
+    }
+
+    private static final class Leaf {
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(8192);
+        private long count;
+    }
+}
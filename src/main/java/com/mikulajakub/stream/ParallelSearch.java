@@ -0,0 +1,240 @@
+package com.mikulajakub.stream;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.RandomAccess;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+
+/**
+ * Parallel searches over random-access inputs which stop as soon as the answer is known.
+ * <p>
+ * {@code sorted().findFirst()} sorts the whole input to return one element; {@link #min}
+ * is a single parallel pass instead. {@link #firstIndex} finds the first match in encounter
+ * order: once a match at index {@code i} is published, every task working on indexes above
+ * {@code i} gives up at its next check, and tasks which have not started yet never scan.
+ * {@link #anyMatch} stops all tasks on the first match found anywhere.
+ */
+public final class ParallelSearch {
+
+    static final int LEAF_SIZE = 4096;
+    private static final int CHECK_INTERVAL = 256;
+
+    private ParallelSearch() {
+    }
+
+    /**
+     * Smallest element by the comparator, the first one if there are ties. Equivalent to
+     * {@code sorted(comparator).findFirst()} without sorting.
+     */
+    public static <T> Optional<T> min(List<? extends T> list, Comparator<? super T> comparator) {
+        List<? extends T> input = randomAccess(list);
+        if (input.isEmpty()) {
+            return Optional.empty();
+        }
+        int index = ForkJoinPool.commonPool().invoke(new MinTask<>(input, comparator, 0, input.size()));
+        return Optional.of(input.get(index));
+    }
+
+    public static OptionalInt min(int[] values) {
+        if (values.length == 0) {
+            return OptionalInt.empty();
+        }
+        return OptionalInt.of(values[ForkJoinPool.commonPool().invoke(new IntMinTask(values, 0, values.length))]);
+    }
+
+    /**
+     * Index of the first element matching the predicate, or {@code -1}.
+     */
+    public static <T> int firstIndex(List<? extends T> list, Predicate<? super T> predicate) {
+        List<? extends T> input = randomAccess(list);
+        AtomicInteger best = new AtomicInteger(Integer.MAX_VALUE);
+        ForkJoinPool.commonPool().invoke(new FirstTask(0, input.size(), best, i -> predicate.test(input.get(i))));
+        return best.get() == Integer.MAX_VALUE ? -1 : best.get();
+    }
+
+    public static int firstIndex(int[] values, IntPredicate predicate) {
+        AtomicInteger best = new AtomicInteger(Integer.MAX_VALUE);
+        ForkJoinPool.commonPool().invoke(new FirstTask(0, values.length, best, i -> predicate.test(values[i])));
+        return best.get() == Integer.MAX_VALUE ? -1 : best.get();
+    }
+
+    /**
+     * First element in encounter order matching the predicate.
+     */
+    public static <T> Optional<T> findFirst(List<? extends T> list, Predicate<? super T> predicate) {
+        List<? extends T> input = randomAccess(list);
+        int index = firstIndex(input, predicate);
+        return index < 0 ? Optional.empty() : Optional.of(input.get(index));
+    }
+
+    public static <T> boolean anyMatch(List<? extends T> list, Predicate<? super T> predicate) {
+        List<? extends T> input = randomAccess(list);
+        AtomicBoolean found = new AtomicBoolean();
+        ForkJoinPool.commonPool().invoke(new AnyTask(0, input.size(), found, i -> predicate.test(input.get(i))));
+        return found.get();
+    }
+
+    public static boolean anyMatch(int[] values, IntPredicate predicate) {
+        AtomicBoolean found = new AtomicBoolean();
+        ForkJoinPool.commonPool().invoke(new AnyTask(0, values.length, found, i -> predicate.test(values[i])));
+        return found.get();
+    }
+
+    public static <T> boolean allMatch(List<? extends T> list, Predicate<? super T> predicate) {
+        return !anyMatch(list, predicate.negate());
+    }
+
+    public static boolean allMatch(int[] values, IntPredicate predicate) {
+        return !anyMatch(values, predicate.negate());
+    }
+
+    private static <T> List<? extends T> randomAccess(List<? extends T> list) {
+        return list instanceof RandomAccess ? list : new ArrayList<>(list);
+    }
+
+    private static final class FirstTask extends RecursiveAction {
+        private final int from;
+        private final int to;
+        private final AtomicInteger best;
+        private final IntPredicate matchesAt;
+
+        FirstTask(int from, int to, AtomicInteger best, IntPredicate matchesAt) {
+            this.from = from;
+            this.to = to;
+            this.best = best;
+            this.matchesAt = matchesAt;
+        }
+
+        @Override
+        protected void compute() {
+            if (from >= best.get()) {
+                return;
+            }
+            if (to - from <= LEAF_SIZE) {
+                for (int i = from; i < to; i++) {
+                    if ((i & (CHECK_INTERVAL - 1)) == 0 && i >= best.get()) {
+                        return;
+                    }
+                    if (matchesAt.test(i)) {
+                        best.accumulateAndGet(i, Math::min);
+                        return;
+                    }
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new FirstTask(from, mid, best, matchesAt), new FirstTask(mid, to, best, matchesAt));
+        }
+    }
+
+    private static final class AnyTask extends RecursiveAction {
+        private final int from;
+        private final int to;
+        private final AtomicBoolean found;
+        private final IntPredicate matchesAt;
+
+        AnyTask(int from, int to, AtomicBoolean found, IntPredicate matchesAt) {
+            this.from = from;
+            this.to = to;
+            this.found = found;
+            this.matchesAt = matchesAt;
+        }
+
+        @Override
+        protected void compute() {
+            if (found.get()) {
+                return;
+            }
+            if (to - from <= LEAF_SIZE) {
+                for (int i = from; i < to; i++) {
+                    if ((i & (CHECK_INTERVAL - 1)) == 0 && found.get()) {
+                        return;
+                    }
+                    if (matchesAt.test(i)) {
+                        found.set(true);
+                        return;
+                    }
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new AnyTask(from, mid, found, matchesAt), new AnyTask(mid, to, found, matchesAt));
+        }
+    }
+
+    private static final class MinTask<T> extends RecursiveTask<Integer> {
+        private final List<? extends T> input;
+        private final Comparator<? super T> comparator;
+        private final int from;
+        private final int to;
+
+        MinTask(List<? extends T> input, Comparator<? super T> comparator, int from, int to) {
+            this.input = input;
+            this.comparator = comparator;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (to - from <= LEAF_SIZE) {
+                int best = from;
+                T min = input.get(from);
+                for (int i = from + 1; i < to; i++) {
+                    T candidate = input.get(i);
+                    if (comparator.compare(candidate, min) < 0) {
+                        min = candidate;
+                        best = i;
+                    }
+                }
+                return best;
+            }
+            int mid = (from + to) >>> 1;
+            MinTask<T> right = new MinTask<>(input, comparator, mid, to);
+            right.fork();
+            int left = new MinTask<>(input, comparator, from, mid).compute();
+            int other = right.join();
+            return comparator.compare(input.get(other), input.get(left)) < 0 ? other : left;
+        }
+    }
+
+    private static final class IntMinTask extends RecursiveTask<Integer> {
+        private final int[] values;
+        private final int from;
+        private final int to;
+
+        IntMinTask(int[] values, int from, int to) {
+            this.values = values;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (to - from <= LEAF_SIZE) {
+                int best = from;
+                for (int i = from + 1; i < to; i++) {
+                    if (values[i] < values[best]) {
+                        best = i;
+                    }
+                }
+                return best;
+            }
+            int mid = (from + to) >>> 1;
+            IntMinTask right = new IntMinTask(values, mid, to);
+            right.fork();
+            int left = new IntMinTask(values, from, mid).compute();
+            int other = right.join();
+            return values[other] < values[left] ? other : left;
+        }
+    }
+}
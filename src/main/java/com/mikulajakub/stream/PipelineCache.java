@@ -0,0 +1,254 @@
+package com.mikulajakub.stream;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.lang.reflect.Array;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Memoizes results of expensive stream pipelines, keyed by the version of the
+ * input dataset and an id of the pipeline.
+ * <p>
+ * Entries are weighed, by default by the number of elements of the result,
+ * and the least recently used ones are evicted once the total weight exceeds
+ * the maximum. Concurrent callers asking for the same key share a single
+ * computation: the first one runs the pipeline, the others wait for its
+ * result. Failed computations are not cached. Bumping the dataset version
+ * makes every older entry unreachable; {@link #invalidateOlderThan} frees
+ * them early instead of waiting for eviction.
+ * <pre>
+ * PipelineCache cache = PipelineCache.builder().maximumWeight(1_000_000).build();
+ * List&lt;Citizen&gt; sorted = cache.get(citizensVersion, "citizens-by-name",
+ *         () -&gt; citizens.stream().sorted(comparing(Citizen::getName)).collect(toList()));
+ * </pre>
+ * Results are shared between callers and should be treated as immutable.
+ * A pipeline must not ask the cache for its own key.
+ */
+public final class PipelineCache {
+
+    /**
+     * Weight of a result: size of collections and maps, length of arrays and
+     * strings, {@code 1} for anything else.
+     */
+    public static final ToLongFunction<Object> ELEMENT_COUNT = PipelineCache::elementCount;
+
+    /**
+     * Hit, miss and eviction counters since the cache was created.
+     */
+    @Getter
+    @AllArgsConstructor(access = AccessLevel.PRIVATE)
+    public static final class Stats {
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+        private final long loadFailures;
+        private final int size;
+        private final long weight;
+
+        public double getHitRate() {
+            long requests = hits + misses;
+            return requests == 0 ? 0 : (double) hits / requests;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("hits=%d misses=%d hitRate=%.3f evictions=%d loadFailures=%d size=%d weight=%d",
+                    hits, misses, getHitRate(), evictions, loadFailures, size, weight);
+        }
+    }
+
+    private static final class Key {
+        private final long version;
+        private final String pipeline;
+
+        Key(long version, String pipeline) {
+            this.version = version;
+            this.pipeline = Objects.requireNonNull(pipeline, "pipeline");
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key && ((Key) o).version == version && ((Key) o).pipeline.equals(pipeline);
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(version) * 31 + pipeline.hashCode();
+        }
+    }
+
+    private static final class Entry {
+        final CompletableFuture<Object> result = new CompletableFuture<>();
+        long weight;
+    }
+
+    private final long maximumWeight;
+    private final ToLongFunction<Object> weigher;
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long weight;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+
+    private PipelineCache(Builder builder) {
+        this.maximumWeight = builder.maximumWeight;
+        this.weigher = builder.weigher;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Cached result of the pipeline for this dataset version, computing it in
+     * the calling thread on a miss. Callers waiting for another thread's failed
+     * computation get its exception wrapped in a {@code CompletionException}.
+     */
+    @SuppressWarnings("unchecked")
+    public <V> V get(long datasetVersion, String pipelineId, Supplier<? extends V> pipeline) {
+        Key key = new Key(datasetVersion, pipelineId);
+        Entry entry;
+        boolean owner = false;
+        synchronized (this) {
+            entry = entries.get(key);
+            if (entry == null) {
+                entry = new Entry();
+                entries.put(key, entry);
+                owner = true;
+            }
+        }
+        if (!owner) {
+            hits.increment();
+            return (V) entry.result.join();
+        }
+        misses.increment();
+        V value;
+        long entryWeight;
+        try {
+            value = pipeline.get();
+            entryWeight = weigher.applyAsLong(value);
+            if (entryWeight < 0) {
+                throw new IllegalStateException("Negative weight " + entryWeight + " for " + pipelineId);
+            }
+        } catch (RuntimeException | Error e) {
+            loadFailures.increment();
+            synchronized (this) {
+                entries.remove(key, entry);
+            }
+            entry.result.completeExceptionally(e);
+            throw e;
+        }
+        synchronized (this) {
+            if (entries.get(key) == entry) {
+                entry.weight = entryWeight;
+                weight += entryWeight;
+                evict();
+            }
+        }
+        entry.result.complete(value);
+        return value;
+    }
+
+    public synchronized void invalidate(long datasetVersion, String pipelineId) {
+        Entry entry = entries.remove(new Key(datasetVersion, pipelineId));
+        if (entry != null) {
+            weight -= entry.weight;
+        }
+    }
+
+    /**
+     * Drops every entry computed for a dataset version older than {@code datasetVersion}.
+     */
+    public synchronized void invalidateOlderThan(long datasetVersion) {
+        for (Iterator<Map.Entry<Key, Entry>> it = entries.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<Key, Entry> next = it.next();
+            if (next.getKey().version < datasetVersion) {
+                weight -= next.getValue().weight;
+                it.remove();
+            }
+        }
+    }
+
+    public synchronized void invalidateAll() {
+        entries.clear();
+        weight = 0;
+    }
+
+    public Stats stats() {
+        int size;
+        long currentWeight;
+        synchronized (this) {
+            size = entries.size();
+            currentWeight = weight;
+        }
+        return new Stats(hits.sum(), misses.sum(), evictions.sum(), loadFailures.sum(), size, currentWeight);
+    }
+
+    /**
+     * Evicts least recently used entries until the weight fits. Entries still
+     * being computed weigh nothing and are skipped, their waiters keep the result.
+     */
+    private void evict() {
+        for (Iterator<Entry> it = entries.values().iterator(); weight > maximumWeight && it.hasNext(); ) {
+            Entry eldest = it.next();
+            if (eldest.result.isDone() || eldest.weight > 0) {
+                weight -= eldest.weight;
+                it.remove();
+                evictions.increment();
+            }
+        }
+    }
+
+    private static long elementCount(Object value) {
+        if (value instanceof Collection) {
+            return ((Collection<?>) value).size();
+        }
+        if (value instanceof Map) {
+            return ((Map<?, ?>) value).size();
+        }
+        if (value instanceof CharSequence) {
+            return ((CharSequence) value).length();
+        }
+        if (value != null && value.getClass().isArray()) {
+            return Array.getLength(value);
+        }
+        return 1;
+    }
+
+    public static final class Builder {
+        private long maximumWeight = 1_000_000;
+        private ToLongFunction<Object> weigher = ELEMENT_COUNT;
+
+        private Builder() {
+        }
+
+        public Builder maximumWeight(long maximumWeight) {
+            if (maximumWeight < 0) {
+                throw new IllegalArgumentException("maximumWeight must not be negative: " + maximumWeight);
+            }
+            this.maximumWeight = maximumWeight;
+            return this;
+        }
+
+        public Builder weigher(ToLongFunction<Object> weigher) {
+            this.weigher = weigher;
+            return this;
+        }
+
+        public PipelineCache build() {
+            return new PipelineCache(this);
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.mikulajakub.stream;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Per-stage counters and latency histograms for stream pipelines, a cheap
+ * replacement for {@code peek(System.out::println)}.
+ * <pre>
+ * PipelineMetrics metrics = new PipelineMetrics("lannisters");
+ * characters.parallelStream()
+ *         .peek(metrics.probe("source"))
+ *         .filter(metrics.filter("isLannister", x -&gt; x.contains("Lannister")))
+ *         .map(metrics.map("toUpperCase", String::toUpperCase))
+ *         .count();
+ * metrics.snapshot().values().forEach(System.out::println);
+ * </pre>
+ * Counters are {@link LongAdder}s, which stripe updates over per-thread cells,
+ * so parallel workers do not contend. Snapshots may be taken while the pipeline runs.
+ */
+public final class PipelineMetrics implements PipelineMetricsMXBean {
+
+    private static final int BUCKETS = 64;
+
+    private final String name;
+    private final boolean timed;
+    private final ConcurrentMap<String, Stage> stages = new ConcurrentHashMap<>();
+
+    public PipelineMetrics(String name) {
+        this(name, true);
+    }
+
+    /**
+     * @param timed measure latency of filter and map stages; counting only when {@code false}
+     */
+    public PipelineMetrics(String name, boolean timed) {
+        this.name = name;
+        this.timed = timed;
+    }
+
+    /**
+     * Counts the elements passing this point, for use with {@code peek}.
+     */
+    public <T> Consumer<T> probe(String stage) {
+        Stage counters = stage(stage);
+        return x -> {
+            counters.in.increment();
+            counters.out.increment();
+        };
+    }
+
+    /**
+     * Wraps a filter predicate, recording elements in, elements passed and the predicate latency.
+     */
+    public <T> Predicate<T> filter(String stage, Predicate<? super T> predicate) {
+        Stage counters = stage(stage);
+        if (!timed) {
+            return x -> {
+                counters.in.increment();
+                boolean passed = predicate.test(x);
+                if (passed) {
+                    counters.out.increment();
+                }
+                return passed;
+            };
+        }
+        return x -> {
+            long start = System.nanoTime();
+            boolean passed = predicate.test(x);
+            counters.record(System.nanoTime() - start);
+            if (passed) {
+                counters.out.increment();
+            }
+            return passed;
+        };
+    }
+
+    /**
+     * Wraps a mapping function, recording elements and the function latency.
+     */
+    public <T, R> Function<T, R> map(String stage, Function<? super T, ? extends R> mapper) {
+        Stage counters = stage(stage);
+        if (!timed) {
+            return x -> {
+                counters.in.increment();
+                R result = mapper.apply(x);
+                counters.out.increment();
+                return result;
+            };
+        }
+        return x -> {
+            long start = System.nanoTime();
+            R result = mapper.apply(x);
+            counters.record(System.nanoTime() - start);
+            counters.out.increment();
+            return result;
+        };
+    }
+
+    public Map<String, StageSnapshot> snapshot() {
+        Map<String, StageSnapshot> snapshot = new LinkedHashMap<>();
+        stages.forEach((stage, counters) -> snapshot.put(stage, counters.snapshot(stage)));
+        return Collections.unmodifiableMap(snapshot);
+    }
+
+    public StageSnapshot snapshot(String stage) {
+        Stage counters = stages.get(stage);
+        return counters == null ? null : counters.snapshot(stage);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Map<String, StageSnapshot> getStages() {
+        return snapshot();
+    }
+
+    @Override
+    public void reset() {
+        stages.values().forEach(Stage::reset);
+    }
+
+    /**
+     * Registers these metrics with the platform MBean server as
+     * {@code com.mikulajakub:type=PipelineMetrics,name=<name>}.
+     */
+    public ObjectName registerMBean() throws JMException {
+        ObjectName objectName = ObjectName.getInstance("com.mikulajakub:type=PipelineMetrics,name=" + ObjectName.quote(name));
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        server.registerMBean(this, objectName);
+        return objectName;
+    }
+
+    private Stage stage(String stage) {
+        return stages.computeIfAbsent(stage, x -> new Stage());
+    }
+
+    private static final class Stage {
+        private final LongAdder in = new LongAdder();
+        private final LongAdder out = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+        private final LongAdder[] histogram = new LongAdder[BUCKETS];
+
+        Stage() {
+            for (int i = 0; i < BUCKETS; i++) {
+                histogram[i] = new LongAdder();
+            }
+        }
+
+        void record(long elapsed) {
+            in.increment();
+            nanos.add(elapsed);
+            histogram[BUCKETS - Long.numberOfLeadingZeros(Math.max(0, elapsed))].increment();
+        }
+
+        void reset() {
+            in.reset();
+            out.reset();
+            nanos.reset();
+            for (LongAdder bucket : histogram) {
+                bucket.reset();
+            }
+        }
+
+        StageSnapshot snapshot(String stage) {
+            long[] buckets = new long[BUCKETS];
+            for (int i = 0; i < BUCKETS; i++) {
+                buckets[i] = histogram[i].sum();
+            }
+            return new StageSnapshot(stage, in.sum(), out.sum(), nanos.sum(), buckets);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.mikulajakub.stream;
+
+import java.util.Map;
+
+/**
+ * JMX view of a {@link PipelineMetrics}.
+ */
+public interface PipelineMetricsMXBean {
+
+    String getName();
+
+    Map<String, StageSnapshot> getStages();
+
+    void reset();
+}
@@ -0,0 +1,78 @@
+package com.mikulajakub.stream;
+
+import lombok.Getter;
+
+/**
+ * Point-in-time counters of one instrumented stage.
+ * Latency histogram bucket {@code i} counts calls which took {@code [2^(i-1), 2^i)} nanoseconds.
+ */
+@Getter
+public final class StageSnapshot {
+    private final String stage;
+    private final long in;
+    private final long out;
+    private final long totalNanos;
+    private final long[] latencyHistogram;
+
+    public StageSnapshot(String stage, long in, long out, long totalNanos, long[] latencyHistogram) {
+        this.stage = stage;
+        this.in = in;
+        this.out = out;
+        this.totalNanos = totalNanos;
+        this.latencyHistogram = latencyHistogram.clone();
+    }
+
+    /**
+     * Copy of the latency histogram, changing it does not affect the snapshot.
+     */
+    public long[] getLatencyHistogram() {
+        return latencyHistogram.clone();
+    }
+
+    /**
+     * Fraction of elements passed on by the stage, {@code 1} for stages which do not filter.
+     */
+    public double getSelectivity() {
+        return in == 0 ? 1 : (double) out / in;
+    }
+
+    public double getMeanNanos() {
+        return in == 0 ? 0 : (double) totalNanos / in;
+    }
+
+    /**
+     * Upper bound of the latency bucket holding the given percentile, in nanoseconds.
+     */
+    public long latencyPercentile(double percentile) {
+        long total = 0;
+        for (long count : latencyHistogram) {
+            total += count;
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(percentile / 100 * total);
+        long seen = 0;
+        for (int bucket = 0; bucket < latencyHistogram.length; bucket++) {
+            seen += latencyHistogram[bucket];
+            if (seen >= rank) {
+                return bucket == 0 ? 0 : 1L << Math.min(bucket, 62);
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+
+    public long getP50Nanos() {
+        return latencyPercentile(50);
+    }
+
+    public long getP99Nanos() {
+        return latencyPercentile(99);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: in=%d out=%d selectivity=%.3f mean=%.0fns p99<=%dns",
+                stage, in, out, getSelectivity(), getMeanNanos(), getP99Nanos());
+    }
+}
@@ -0,0 +1,71 @@
+package com.mikulajakub.collect;
+
+import com.mikulajakub.model.Citizen;
+import org.junit.jupiter.api.Test;
+
+import java.util.IntSummaryStatistics;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class AggregatingCollectorsTest {
+
+    private static List<Citizen> citizens() {
+        return IntStream.range(0, 100_000)
+                .mapToObj(i -> new Citizen("Citizen" + i % 1_000, (i * 31) % 97))
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    public void matchesGroupingByPerName() {
+        List<Citizen> citizens = citizens();
+        Map<String, IntSummaryStatistics> expected = citizens.stream()
+                .collect(Collectors.groupingBy(Citizen::getName, Collectors.summarizingInt(Citizen::getAge)));
+
+        KeyAggregates<String> actual = citizens.parallelStream()
+                .collect(AggregatingCollectors.byKey(Citizen::getName, Citizen::getAge));
+
+        assertThat(actual.size()).isEqualTo(expected.size());
+        expected.forEach((name, stats) -> {
+            assertThat(actual.count(name)).isEqualTo(stats.getCount());
+            assertThat(actual.sum(name)).isEqualTo(stats.getSum());
+            assertThat(actual.min(name)).isEqualTo(stats.getMin());
+            assertThat(actual.max(name)).isEqualTo(stats.getMax());
+        });
+        assertThat(actual.keys()).containsExactlyInAnyOrderElementsOf(expected.keySet());
+    }
+
+    @Test
+    public void matchesGroupingByPerAge() {
+        List<Citizen> citizens = citizens();
+        Map<Integer, Long> expected = citizens.stream()
+                .collect(Collectors.groupingBy(Citizen::getAge, Collectors.counting()));
+
+        IntKeyAggregates actual = citizens.parallelStream()
+                .collect(AggregatingCollectors.byIntKey(Citizen::getAge, Citizen::getAge));
+
+        assertThat(actual.size()).isEqualTo(expected.size());
+        actual.forEach((age, count, sum, min, max) -> {
+            assertThat(count).isEqualTo(expected.get(age));
+            assertThat(sum).isEqualTo(count * age);
+            assertThat(min).isEqualTo(age);
+            assertThat(max).isEqualTo(age);
+        });
+    }
+
+    @Test
+    public void missingKeysHaveNoValues() {
+        KeyAggregates<String> aggregates = new KeyAggregates<>();
+        aggregates.add("Kuba", 50);
+
+        assertThat(aggregates.count("Blaz")).isZero();
+        assertThat(aggregates.sum("Blaz")).isZero();
+        assertThat(aggregates.containsKey("Kuba")).isTrue();
+        assertThatThrownBy(() -> aggregates.max("Blaz")).isInstanceOf(NoSuchElementException.class);
+    }
+}
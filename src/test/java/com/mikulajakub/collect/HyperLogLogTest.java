@@ -0,0 +1,51 @@
+package com.mikulajakub.collect;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+public class HyperLogLogTest {
+
+    @Test
+    public void countsSmallSetsAlmostExactly() {
+        List<String> names = Arrays.asList("Kuba", "Emilka", "Jagoda", "Jaga", "Kuba", "Emilka");
+
+        long count = names.stream()
+                .collect(HyperLogLog.distinctStrings())
+                .estimate();
+
+        assertThat(count).isEqualTo(4);
+    }
+
+    @Test
+    public void estimatesWithinThreeStandardErrors() {
+        int distinct = 500_000;
+
+        HyperLogLog sketch = IntStream.range(0, distinct * 2)
+                .parallel()
+                .mapToObj(i -> "Citizen" + i % distinct)
+                .collect(HyperLogLog.distinctStrings());
+
+        assertThat((double) sketch.estimate()).isCloseTo(distinct, within(3 * sketch.standardError() * distinct));
+    }
+
+    @Test
+    public void mergesSerializedSketchesIntoTheUnion() {
+        HyperLogLog first = new HyperLogLog(12);
+        HyperLogLog second = new HyperLogLog(12);
+        IntStream.range(0, 60_000).forEach(i -> first.add("Citizen" + i));
+        IntStream.range(40_000, 100_000).forEach(i -> second.add("Citizen" + i));
+
+        HyperLogLog union = HyperLogLog.fromBytes(first.toBytes()).merge(HyperLogLog.fromBytes(second.toBytes()));
+
+        assertThat(first.toBytes()).hasSize(2 + 4096);
+        assertThat((double) union.estimate()).isCloseTo(100_000, within(3 * union.standardError() * 100_000));
+        assertThatThrownBy(() -> union.merge(new HyperLogLog(10))).isInstanceOf(IllegalArgumentException.class);
+    }
+}
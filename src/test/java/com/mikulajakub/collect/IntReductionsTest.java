@@ -0,0 +1,119 @@
+package com.mikulajakub.collect;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class IntReductionsTest {
+
+    private static final List<IntCondition> CONDITIONS = List.of(IntCondition.even(), IntCondition.odd(),
+            IntCondition.equalTo(7), IntCondition.lessThan(-3), IntCondition.greaterThan(100),
+            IntCondition.between(-50, 50));
+
+    @Test
+    public void vectorApiIsUsedWhenTheModuleIsPresent() {
+        assertThat(IntReductions.VECTOR).isNotNull();
+        assertThat(IntReductions.isVectorized()).isTrue();
+    }
+
+    @Test
+    public void reducersMatchStreamsForEveryTailLength() {
+        SplittableRandom random = new SplittableRandom(1);
+        for (IntReducer reducer : List.of(IntReductions.SCALAR, IntReductions.VECTOR)) {
+            for (int length = 1; length <= 200; length++) {
+                int[] values = random.ints(length, -1_000, 1_000).toArray();
+                assertReducerMatchesStreams(reducer, values, 0, length);
+                assertReducerMatchesStreams(reducer, values, length / 3, length);
+            }
+        }
+    }
+
+    @Test
+    public void sumWrapsAroundLikeIntStream() {
+        int[] values = new SplittableRandom(2).ints(10_000, Integer.MAX_VALUE / 2, Integer.MAX_VALUE).toArray();
+
+        assertThat(IntReductions.sum(values)).isEqualTo(Arrays.stream(values).sum());
+        assertThat(IntReductions.sumAsLong(values)).isEqualTo(Arrays.stream(values).asLongStream().sum());
+    }
+
+    @Test
+    public void emptyInputGivesIdentities() {
+        int[] empty = new int[0];
+
+        assertThat(IntReductions.sum(empty)).isZero();
+        assertThat(IntReductions.sumAsLong(empty)).isZero();
+        assertThat(IntReductions.product(empty)).isEqualTo(1);
+        assertThat(IntReductions.min(empty)).isEmpty();
+        assertThat(IntReductions.max(IntBuffer.allocate(0))).isEmpty();
+        assertThat(IntReductions.count(empty, IntCondition.even())).isZero();
+        assertThat(IntReductions.sumWhere(empty, IntCondition.even())).isZero();
+        assertThat(IntReductions.sum(new int[]{1, 2, 3}, 2, 2)).isZero();
+    }
+
+    @Test
+    public void rangeIsChecked() {
+        assertThatThrownBy(() -> IntReductions.sum(new int[3], 1, 4))
+                .isInstanceOf(IndexOutOfBoundsException.class);
+        assertThatThrownBy(() -> IntReductions.sum(new int[3], 2, 1))
+                .isInstanceOf(IndexOutOfBoundsException.class);
+    }
+
+    @Test
+    public void buffersAreReducedFromPositionToLimitWithoutMovingThem() {
+        int[] values = new SplittableRandom(3).ints(10_003, -1_000, 1_000).toArray();
+        int[] middle = Arrays.copyOfRange(values, 5, 10_001);
+        IntBuffer direct = ByteBuffer.allocateDirect(values.length * Integer.BYTES).asIntBuffer().put(values);
+        IntBuffer heap = IntBuffer.wrap(new int[values.length + 2], 2, values.length).slice().put(values);
+
+        for (IntBuffer buffer : List.of(direct, heap)) {
+            buffer.position(5).limit(10_001);
+
+            assertThat(IntReductions.sum(buffer)).isEqualTo(Arrays.stream(middle).sum());
+            assertThat(IntReductions.sumAsLong(buffer)).isEqualTo(Arrays.stream(middle).asLongStream().sum());
+            assertThat(IntReductions.product(buffer)).isEqualTo(Arrays.stream(middle).reduce(1, (a, b) -> a * b));
+            assertThat(IntReductions.min(buffer)).isEqualTo(Arrays.stream(middle).min());
+            assertThat(IntReductions.max(buffer)).isEqualTo(Arrays.stream(middle).max());
+            for (IntCondition condition : CONDITIONS) {
+                assertThat(IntReductions.count(buffer, condition))
+                        .isEqualTo(Arrays.stream(middle).filter(condition).count());
+                assertThat(IntReductions.sumWhere(buffer, condition))
+                        .isEqualTo(Arrays.stream(middle).filter(condition).sum());
+            }
+            assertThat(buffer.position()).isEqualTo(5);
+            assertThat(buffer.limit()).isEqualTo(10_001);
+        }
+    }
+
+    @Test
+    public void conditionsTestSingleValues() {
+        assertThat(IntCondition.even().test(-4)).isTrue();
+        assertThat(IntCondition.odd().test(-3)).isTrue();
+        assertThat(IntCondition.between(1, 3).test(3)).isTrue();
+        assertThat(IntCondition.between(1, 3).test(4)).isFalse();
+        assertThat(IntCondition.between(1, 3)).hasToString("between 1 and 3");
+        assertThatThrownBy(() -> IntCondition.between(3, 1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static void assertReducerMatchesStreams(IntReducer reducer, int[] values, int from, int to) {
+        int[] range = Arrays.copyOfRange(values, from, to);
+
+        assertThat(reducer.sum(values, from, to)).isEqualTo(Arrays.stream(range).sum());
+        assertThat(reducer.sumAsLong(values, from, to)).isEqualTo(Arrays.stream(range).asLongStream().sum());
+        assertThat(reducer.product(values, from, to)).isEqualTo(Arrays.stream(range).reduce(1, (a, b) -> a * b));
+        assertThat(reducer.min(values, from, to)).isEqualTo(Arrays.stream(range).min().getAsInt());
+        assertThat(reducer.max(values, from, to)).isEqualTo(Arrays.stream(range).max().getAsInt());
+        for (IntCondition condition : CONDITIONS) {
+            assertThat(reducer.count(values, from, to, condition))
+                    .isEqualTo(Arrays.stream(range).filter(condition).count());
+            assertThat(reducer.sumWhere(values, from, to, condition))
+                    .isEqualTo(Arrays.stream(range).filter(condition).sum());
+        }
+    }
+}
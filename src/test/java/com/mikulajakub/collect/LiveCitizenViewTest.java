@@ -0,0 +1,109 @@
+package com.mikulajakub.collect;
+
+import com.mikulajakub.model.Citizen;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LiveCitizenViewTest {
+
+    @Test
+    public void keepsLatestRowPerName() {
+        LiveCitizenView view = new LiveCitizenView();
+        view.insert(new Citizen("Kuba", 50));
+        view.insert(new Citizen("Blaz", 40));
+        view.insert(new Citizen("Emilka", 20));
+        view.insert(new Citizen("Kuba", 51));
+
+        LiveCitizenView.Snapshot snapshot = view.snapshot();
+        assertThat(snapshot.getCount()).isEqualTo(3);
+        assertThat(snapshot.getSum()).isEqualTo(111);
+        assertThat(snapshot.getMaxAge()).hasValue(51);
+        assertThat(snapshot.getMinAge()).hasValue(20);
+        assertThat(snapshot.getVersion()).isEqualTo(4);
+        assertThat(view.latest("Kuba")).hasValue(51);
+        assertThat(view.latestPerName()).containsOnlyKeys("Kuba", "Blaz", "Emilka");
+    }
+
+    @Test
+    public void deletesRestorePreviousMaximum() {
+        LiveCitizenView view = new LiveCitizenView();
+        view.insert(new Citizen("Arturo", 52));
+        view.insert(new Citizen("Kubek", 50));
+        view.insert(new Citizen("Juan", 52));
+
+        view.delete("Arturo");
+        assertThat(view.snapshot().getMaxAge()).hasValue(52);
+        view.delete("Juan");
+        assertThat(view.snapshot().getMaxAge()).hasValue(50);
+        view.update(new Citizen("Kubek", 18));
+        assertThat(view.snapshot().getMaxAge()).hasValue(18);
+        view.delete("Kubek");
+        view.delete("Nobody");
+
+        assertThat(view.snapshot().getCount()).isZero();
+        assertThat(view.snapshot().getSum()).isZero();
+        assertThat(view.snapshot().getMaxAge()).isEmpty();
+        assertThat(view.latest("Kubek")).isEqualTo(OptionalInt.empty());
+    }
+
+    @Test
+    public void matchesRecomputationAfterRandomFeed() {
+        SplittableRandom random = new SplittableRandom(1);
+        LiveCitizenView view = new LiveCitizenView();
+        Map<String, Integer> expected = new HashMap<>();
+
+        view.applyAll(Stream.generate(() -> {
+            String name = "Citizen" + random.nextInt(500);
+            if (random.nextInt(4) == 0) {
+                expected.remove(name);
+                return LiveCitizenView.Event.delete(name);
+            }
+            int age = random.nextInt(100);
+            expected.put(name, age);
+            return LiveCitizenView.Event.update(new Citizen(name, age));
+        }).limit(20_000));
+
+        LiveCitizenView.Snapshot snapshot = view.snapshot();
+        assertThat(snapshot.getVersion()).isEqualTo(20_000);
+        assertThat(snapshot.getCount()).isEqualTo(expected.size());
+        assertThat(snapshot.getSum()).isEqualTo(expected.values().stream().mapToLong(Integer::longValue).sum());
+        assertThat(snapshot.getMaxAge().getAsInt())
+                .isEqualTo(expected.values().stream().mapToInt(Integer::intValue).max().getAsInt());
+        assertThat(view.latestPerName()).isEqualTo(expected);
+    }
+
+    @Test
+    public void readersSeeConsistentSnapshotsWhileWriting() {
+        LiveCitizenView view = new LiveCitizenView();
+        AtomicBoolean writing = new AtomicBoolean(true);
+        CompletableFuture<Long> reader = CompletableFuture.supplyAsync(() -> {
+            long reads = 0;
+            while (writing.get() || reads == 0) {
+                LiveCitizenView.Snapshot snapshot = view.snapshot();
+                assertThat(snapshot.getSum()).isEqualTo(10 * snapshot.getCount());
+                reads++;
+            }
+            return reads;
+        });
+
+        IntStream.range(0, 50_000).forEach(i -> {
+            view.insert(new Citizen("Citizen" + i % 1000, 10));
+            if (i % 3 == 0) {
+                view.delete("Citizen" + (i * 7) % 1000);
+            }
+        });
+        writing.set(false);
+
+        assertThat(reader.join()).isPositive();
+    }
+}
@@ -0,0 +1,132 @@
+package com.mikulajakub.collect;
+
+import com.mikulajakub.model.Movie;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class PrimitiveHashSetTest {
+
+    @Test
+    public void intHashSetMatchesHashSet() {
+        SplittableRandom random = new SplittableRandom(1);
+        IntHashSet set = new IntHashSet();
+        Set<Integer> expected = new HashSet<>();
+        for (int i = 0; i < 100_000; i++) {
+            int value = random.nextInt(-50_000, 50_000);
+            assertThat(set.add(value)).isEqualTo(expected.add(value));
+        }
+
+        assertThat(set.size()).isEqualTo(expected.size());
+        assertThat(set.contains(0)).isEqualTo(expected.contains(0));
+        assertThat(set.contains(1_000_000)).isFalse();
+        assertThat(set.stream().boxed().collect(Collectors.toSet())).isEqualTo(expected);
+        assertThat(set.capacity()).isGreaterThanOrEqualTo(set.size() * 2);
+    }
+
+    @Test
+    public void zeroIsAnOrdinaryValue() {
+        IntHashSet ints = new IntHashSet(0);
+        assertThat(ints.contains(0)).isFalse();
+        assertThat(ints.add(0)).isTrue();
+        assertThat(ints.add(0)).isFalse();
+        assertThat(ints.toArray()).containsExactly(0);
+
+        LongHashSet longs = new LongHashSet();
+        assertThat(longs.add(0L)).isTrue();
+        assertThat(longs.add(Long.MIN_VALUE)).isTrue();
+        assertThat(longs.toArray()).containsExactlyInAnyOrder(0L, Long.MIN_VALUE);
+
+        longs.clear();
+        assertThat(longs.isEmpty()).isTrue();
+        assertThat(longs.contains(0L)).isFalse();
+    }
+
+    @Test
+    public void longHashSetMergesParallelSplits() {
+        LongHashSet set = LongHashSet.of(LongStream.range(0, 200_000).map(x -> x % 70_000 * 1_000_000_007L).parallel());
+
+        assertThat(set.size()).isEqualTo(70_000);
+        assertThat(set.contains(69_999 * 1_000_000_007L)).isTrue();
+        assertThat(set.contains(1)).isFalse();
+    }
+
+    @Test
+    public void stringHashSetComparesByValue() {
+        StringHashSet set = new StringHashSet();
+        assertThat(set.add("Anna")).isTrue();
+        assertThat(set.add(new String("Anna"))).isFalse();
+        assertThat(set.add("Aa")).isTrue();
+        assertThat(set.add("BB")).isTrue();
+        assertThat("Aa".hashCode()).isEqualTo("BB".hashCode());
+
+        assertThat(set.contains("BB")).isTrue();
+        assertThat(set.contains(null)).isFalse();
+        assertThat(set.stream()).containsExactlyInAnyOrder("Anna", "Aa", "BB");
+        assertThatThrownBy(() -> set.add(null)).isInstanceOf(NullPointerException.class);
+
+        StringHashSet many = StringHashSet.of(IntStream.range(0, 50_000).mapToObj(i -> "Citizen" + i % 20_000));
+        assertThat(many.size()).isEqualTo(20_000);
+    }
+
+    @Test
+    public void distinctKeepsEncounterOrderWhenSequential() {
+        int[] values = {5, 3, 5, 0, 3, 7, 0};
+        assertThat(Distinct.ints(Arrays.stream(values)).toArray()).containsExactly(5, 3, 0, 7);
+        assertThat(Distinct.longs(LongStream.of(2, 2, 1)).toArray()).containsExactly(2, 1);
+
+        Movie first = new Movie("Pan Tadeusz");
+        first.addActor("Bogusław Linda");
+        first.addActor("Daniel Olbrychski");
+        Movie second = new Movie("Potop");
+        second.addActor("Daniel Olbrychski");
+        List<String> actors = Distinct.strings(Stream.of(first, second).flatMap(m -> m.getActors().stream()))
+                .collect(Collectors.toList());
+        assertThat(actors).containsExactlyInAnyOrder("Bogusław Linda", "Daniel Olbrychski");
+    }
+
+    @Test
+    public void distinctOnParallelStreamsMatchesDistinct() {
+        IntStream values = new SplittableRandom(2).ints(100_000, 0, 30_000).parallel();
+        int[] copy = new SplittableRandom(2).ints(100_000, 0, 30_000).toArray();
+
+        assertThat(Distinct.ints(values).sorted().toArray()).isEqualTo(Arrays.stream(copy).distinct().sorted().toArray());
+        assertThat(Distinct.strings(Stream.of("a", "b", "a").parallel()).count()).isEqualTo(2);
+    }
+
+    @Test
+    public void sequentialDistinctStaysCorrectWhenMadeParallel() {
+        int[] values = new SplittableRandom(3).ints(200_000, 0, 1_000).toArray();
+        long[] longs = Arrays.stream(values).asLongStream().toArray();
+
+        assertThat(Distinct.ints(Arrays.stream(values)).parallel().sorted().toArray())
+                .isEqualTo(Arrays.stream(values).distinct().sorted().toArray());
+        assertThat(Distinct.longs(Arrays.stream(longs)).parallel().count()).isEqualTo(1_000);
+        assertThat(Distinct.strings(Arrays.stream(values).mapToObj(Integer::toString)).parallel().count())
+                .isEqualTo(1_000);
+        assertThat(Distinct.ints(Arrays.stream(values)).parallel().toArray())
+                .startsWith(Arrays.stream(values).distinct().limit(100).toArray());
+    }
+
+    @Test
+    public void infiniteParallelSourcesStayLazy() {
+        int[] firstTen = Distinct.ints(IntStream.iterate(0, i -> (i + 7) % 20).parallel()).limit(10).toArray();
+        long fiveLongs = Distinct.longs(LongStream.iterate(0, i -> i + 1).parallel()).limit(5).count();
+        long threeStrings = Distinct.strings(Stream.iterate("a", x -> x + "a").parallel()).limit(3).count();
+
+        assertThat(firstTen).hasSize(10).doesNotHaveDuplicates();
+        assertThat(fiveLongs).isEqualTo(5);
+        assertThat(threeStrings).isEqualTo(3);
+    }
+}
@@ -0,0 +1,68 @@
+package com.mikulajakub.collect;
+
+import com.mikulajakub.model.Citizen;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TopKTest {
+
+    private static List<Citizen> citizens(int size) {
+        SplittableRandom random = new SplittableRandom(3);
+        return IntStream.range(0, size)
+                .mapToObj(i -> new Citizen("Citizen" + random.nextInt(1_000_000), random.nextInt(100)))
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    public void selectsOldestAndFirstNames() {
+        List<Citizen> citizens = citizens(100_000);
+
+        List<Integer> oldest = citizens.parallelStream()
+                .collect(TopK.greatest(5, Comparator.comparingInt(Citizen::getAge)))
+                .stream().map(Citizen::getAge).collect(Collectors.toList());
+        List<String> firstNames = citizens.parallelStream()
+                .collect(TopK.least(5, Comparator.comparing(Citizen::getName)))
+                .stream().map(Citizen::getName).collect(Collectors.toList());
+
+        assertThat(oldest).containsExactly(99, 99, 99, 99, 99);
+        assertThat(firstNames).containsExactlyElementsOf(citizens.stream()
+                .map(Citizen::getName).sorted().limit(5).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void selectsInts() {
+        int[] values = new SplittableRandom(5).ints(200_000).toArray();
+        int[] sorted = values.clone();
+        Arrays.sort(sorted);
+
+        assertThat(TopK.least(Arrays.stream(values).parallel(), 10)).containsExactly(Arrays.copyOf(sorted, 10));
+        assertThat(TopK.greatest(Arrays.stream(values).parallel(), 3))
+                .containsExactly(sorted[sorted.length - 1], sorted[sorted.length - 2], sorted[sorted.length - 3]);
+        assertThat(TopK.kthLargest(Arrays.stream(values).parallel(), 100)).hasValue(sorted[sorted.length - 100]);
+        assertThat(TopK.kthLargest(IntStream.of(4, 3), 3)).isEmpty();
+        assertThat(TopK.greatest(IntStream.of(4, 3), 5)).containsExactly(4, 3);
+    }
+
+    @Test
+    public void histogramAnswersPercentilesOfAge() {
+        List<Citizen> citizens = citizens(100_001);
+        int[] ages = citizens.stream().mapToInt(Citizen::getAge).sorted().toArray();
+
+        IntHistogram histogram = IntHistogram.of(citizens.parallelStream().mapToInt(Citizen::getAge), 0, 150);
+
+        assertThat(histogram.count()).isEqualTo(100_001);
+        assertThat(histogram.percentile(50)).hasValue(ages[50_000]);
+        assertThat(histogram.percentile(100)).hasValue(ages[100_000]);
+        assertThat(histogram.kthLargest(1)).hasValue(99);
+        assertThat(histogram.kthLargest(1_000)).hasValue(ages[ages.length - 1_000]);
+        assertThat(histogram.kthSmallest(1)).hasValue(ages[0]);
+    }
+}
@@ -0,0 +1,126 @@
+package com.mikulajakub.id;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class SnowflakeIdsTest {
+
+    private static final Instant EPOCH = Instant.parse("2024-01-01T00:00:00Z");
+
+    @Test
+    public void idsCarryTimestampSequenceAndNode() {
+        SnowflakeIds generator = SnowflakeIds.builder().node(7).epoch(EPOCH)
+                .clock(() -> EPOCH.toEpochMilli() + 1_000).build();
+
+        long first = generator.nextId();
+        long second = generator.nextId();
+
+        assertThat(generator.timestampOf(first)).isEqualTo(EPOCH.plusSeconds(1));
+        assertThat(SnowflakeIds.nodeOf(first)).isEqualTo(7);
+        assertThat(SnowflakeIds.sequenceOf(first)).isZero();
+        assertThat(SnowflakeIds.sequenceOf(second)).isEqualTo(1);
+        assertThat(first).isPositive();
+    }
+
+    @Test
+    public void rangesAreConsecutiveAndFollowEarlierIds() {
+        SnowflakeIds generator = SnowflakeIds.builder().blockSize(10).build();
+        long fromBlock = generator.nextId();
+
+        long[] ids = generator.ids(5_000).parallel().toArray();
+
+        assertThat(ids).isSorted().hasSize(5_000).doesNotHaveDuplicates();
+        assertThat(ids[0]).isGreaterThan(fromBlock);
+        assertThat(ids[4_999] - ids[0]).isEqualTo(4_999L << SnowflakeIds.NODE_BITS);
+        assertThat(generator.ids(0).count()).isZero();
+    }
+
+    @Test
+    public void sequenceOverflowRunsAheadOfAStoppedClock() {
+        SnowflakeIds generator = SnowflakeIds.builder().epoch(EPOCH).clock(EPOCH::toEpochMilli).build();
+
+        long[] ids = generator.ids(5_000).toArray();
+
+        assertThat(generator.timestampOf(ids[4_095])).isEqualTo(EPOCH);
+        assertThat(generator.timestampOf(ids[4_096])).isEqualTo(EPOCH.plusMillis(1));
+        assertThat(SnowflakeIds.sequenceOf(ids[4_096])).isZero();
+    }
+
+    @Test
+    public void runAheadIsReportedAndBounded() {
+        SnowflakeIds generator = SnowflakeIds.builder().epoch(EPOCH).clock(EPOCH::toEpochMilli).build();
+        assertThat(generator.runAhead()).isZero();
+
+        generator.ids(5_000);
+
+        assertThat(generator.runAhead()).isEqualTo(Duration.ofMillis(1));
+        assertThatThrownBy(() -> SnowflakeIds.builder().maxRunAhead(Duration.ofMillis(-1)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void reservationsPastMaxRunAheadWaitForTheClock() {
+        AtomicLong clock = new AtomicLong(EPOCH.toEpochMilli());
+        SnowflakeIds generator = SnowflakeIds.builder().epoch(EPOCH).maxRunAhead(Duration.ZERO)
+                .clock(clock::getAndIncrement).build();
+
+        long[] ids = generator.ids(10_000).toArray();
+
+        // reserved at 0 ms, returned once the clock read 2 ms, the time of the last id
+        assertThat(generator.timestampOf(ids[9_999])).isEqualTo(EPOCH.plusMillis(2));
+        assertThat(clock.get()).isEqualTo(EPOCH.toEpochMilli() + 3);
+        assertThat(generator.nextId()).isGreaterThan(ids[9_999]);
+    }
+
+    @Test
+    public void threadsNeverShareIds() {
+        SnowflakeIds generator = SnowflakeIds.builder().blockSize(16).build();
+
+        long distinct = IntStream.range(0, 200_000).parallel()
+                .mapToLong(i -> generator.nextId())
+                .distinct()
+                .count();
+
+        assertThat(distinct).isEqualTo(200_000);
+        assertThat(generator.stream().limit(1_000).distinct().count()).isEqualTo(1_000);
+    }
+
+    @Test
+    public void nextIdIncreasesWithinAThread() {
+        SnowflakeIds generator = SnowflakeIds.builder().blockSize(3).build();
+
+        long[] ids = LongStream.range(0, 10_000).map(i -> generator.nextId()).toArray();
+
+        assertThat(ids).isSorted().doesNotHaveDuplicates();
+    }
+
+    @Test
+    public void formatHexHasFixedWidth() {
+        byte[] buffer = new byte[SnowflakeIds.HEX_LENGTH];
+
+        assertThat(SnowflakeIds.formatHex(0x1A2BL, buffer, 0)).isEqualTo(SnowflakeIds.HEX_LENGTH);
+        assertThat(new String(buffer, StandardCharsets.US_ASCII)).isEqualTo("0000000000001a2b");
+        assertThatThrownBy(() -> SnowflakeIds.formatHex(1, buffer, 1)).isInstanceOf(IndexOutOfBoundsException.class);
+    }
+
+    @Test
+    public void rejectsInvalidConfigurationAndClocks() {
+        assertThatThrownBy(() -> SnowflakeIds.builder().node(1 << SnowflakeIds.NODE_BITS))
+                .isInstanceOf(IllegalArgumentException.class);
+        SnowflakeIds beforeEpoch = SnowflakeIds.builder().epoch(EPOCH).clock(() -> EPOCH.toEpochMilli() - 1).build();
+        assertThatThrownBy(beforeEpoch::nextId).isInstanceOf(IllegalStateException.class);
+        AtomicLong clock = new AtomicLong(EPOCH.toEpochMilli() + (1L << SnowflakeIds.TIMESTAMP_BITS) - 1);
+        SnowflakeIds exhausted = SnowflakeIds.builder().epoch(EPOCH).clock(clock::get).build();
+        assertThat(exhausted.ids(4_096).count()).isEqualTo(4_096);
+        assertThatThrownBy(() -> exhausted.ids(1)).isInstanceOf(IllegalStateException.class);
+    }
+}
@@ -0,0 +1,66 @@
+package com.mikulajakub.id;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class UuidsTest {
+
+    @Test
+    public void randomV4HasVersionAndVariant() {
+        UUID uuid = Uuids.randomV4();
+
+        assertThat(uuid.version()).isEqualTo(4);
+        assertThat(uuid.variant()).isEqualTo(2);
+    }
+
+    @Test
+    public void timeOrderedV7StartsWithTheTime() {
+        long before = System.currentTimeMillis();
+        UUID uuid = Uuids.timeOrderedV7();
+        long after = System.currentTimeMillis();
+
+        assertThat(uuid.version()).isEqualTo(7);
+        assertThat(uuid.variant()).isEqualTo(2);
+        assertThat(uuid.getMostSignificantBits() >>> 16).isBetween(before, after);
+    }
+
+    @Test
+    public void parallelGenerationGivesDistinctIds() {
+        Set<UUID> uuids = Stream.generate(Uuids::randomV4).parallel().limit(100_000).collect(Collectors.toSet());
+
+        assertThat(uuids).hasSize(100_000);
+    }
+
+    @Test
+    public void formatMatchesToString() {
+        byte[] buffer = new byte[2 + 2 * Uuids.LENGTH];
+        UUID first = UUID.randomUUID();
+        UUID second = new UUID(0x0123_4567_89AB_CDEFL, 0xFEDC_BA98_7654_3210L);
+
+        int end = Uuids.format(second, buffer, Uuids.format(first, buffer, 2));
+
+        assertThat(end).isEqualTo(buffer.length);
+        assertThat(new String(buffer, 2, Uuids.LENGTH, StandardCharsets.US_ASCII)).isEqualTo(first.toString());
+        assertThat(new String(buffer, 2 + Uuids.LENGTH, Uuids.LENGTH, StandardCharsets.US_ASCII))
+                .isEqualTo("01234567-89ab-cdef-fedc-ba9876543210");
+    }
+
+    @Test
+    public void formatsFreshUuidsIntoTheBuffer() {
+        byte[] buffer = new byte[Uuids.LENGTH];
+
+        Uuids.randomV4(buffer, 0);
+        assertThat(UUID.fromString(new String(buffer, StandardCharsets.US_ASCII)).version()).isEqualTo(4);
+        Uuids.timeOrderedV7(buffer, 0);
+        assertThat(UUID.fromString(new String(buffer, StandardCharsets.US_ASCII)).version()).isEqualTo(7);
+        assertThatThrownBy(() -> Uuids.randomV4(buffer, 1)).isInstanceOf(IndexOutOfBoundsException.class);
+    }
+}
@@ -0,0 +1,71 @@
+package com.mikulajakub.io;
+
+import com.mikulajakub.model.Citizen;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CitizenFileTest {
+
+    @TempDir
+    Path dir;
+
+    private static List<Citizen> citizens(int size) {
+        return IntStream.range(0, size)
+                .mapToObj(i -> new Citizen(i % 7 == 0 ? "Łukasz" + i % 100 : "Kuba" + i % 100, i % 90))
+                .collect(Collectors.toList());
+    }
+
+    private Path write(List<Citizen> citizens, int blockSize) throws IOException {
+        Path path = dir.resolve("citizens.bin");
+        try (CitizenFile.Writer writer = CitizenFile.writer(path, blockSize)) {
+            citizens.forEach(writer::write);
+        }
+        return path;
+    }
+
+    @Test
+    public void readsBackWhatWasWritten() throws IOException {
+        List<Citizen> citizens = citizens(10_000);
+
+        try (CitizenFile file = CitizenFile.open(write(citizens, 64))) {
+            assertThat(file.size()).isEqualTo(10_000);
+            assertThat(file.stream().map(Citizen::toString).collect(Collectors.toList()))
+                    .containsExactlyElementsOf(citizens.stream().map(Citizen::toString).collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    public void parallelStreamsMatchSequentialResults() throws IOException {
+        List<Citizen> citizens = citizens(100_000);
+
+        try (CitizenFile file = CitizenFile.open(write(citizens, 100))) {
+            assertThat(file.ages().parallel().sum()).isEqualTo(citizens.stream().mapToInt(Citizen::getAge).sum());
+            assertThat(file.ages().parallel().max().getAsInt()).isEqualTo(89);
+            assertThat(file.stream().parallel().map(Citizen::getName).distinct().count())
+                    .isEqualTo(citizens.stream().map(Citizen::getName).distinct().count());
+            assertThat(file.stream().parallel()
+                    .sorted(Comparator.comparing(Citizen::getName))
+                    .findFirst().get().getName()).isEqualTo("Kuba0");
+            assertThat(file.stream().parallel().map(Citizen::toString).collect(Collectors.toList()))
+                    .containsExactlyElementsOf(citizens.stream().map(Citizen::toString).collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    public void handlesEmptyFile() throws IOException {
+        try (CitizenFile file = CitizenFile.open(write(citizens(0), 16))) {
+            assertThat(file.size()).isZero();
+            assertThat(file.stream().count()).isZero();
+            assertThat(file.ages().sum()).isZero();
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.mikulajakub.io;
+
+import com.mikulajakub.model.Citizen;
+import com.mikulajakub.model.Movie;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class CompactCodecTest {
+
+    private final List<Citizen> citizens = Arrays.asList(
+            new Citizen("Anna", 30),
+            new Citizen("Łukasz", 0),
+            new Citizen("Małgorzata", 127),
+            new Citizen("", -1),
+            new Citizen("日本語 😀", Integer.MIN_VALUE),
+            new Citizen("Anna", Integer.MAX_VALUE)
+    );
+
+    @Test
+    public void citizensRoundTripThroughStreams() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (CompactCodec.Writer writer = CompactCodec.writer(bytes)) {
+            citizens.forEach(writer::write);
+        }
+
+        CompactCodec.Reader reader = CompactCodec.reader(new ByteArrayInputStream(bytes.toByteArray()));
+        List<Citizen> decoded = new ArrayList<>();
+        while (reader.hasNext()) {
+            decoded.add(reader.readCitizen());
+        }
+
+        assertThat(decoded).usingRecursiveFieldByFieldElementComparator().containsExactlyElementsOf(citizens);
+    }
+
+    @Test
+    public void encodesNamesAsUtf8AndAgesAsZigzagVarints() {
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        CompactCodec.writer(buffer).write("Łukasz", 30);
+
+        byte[] name = "Łukasz".getBytes(StandardCharsets.UTF_8);
+        assertThat(buffer.position()).isEqualTo(1 + name.length + 1);
+        assertThat(buffer.get(0)).isEqualTo((byte) name.length);
+        assertThat(Arrays.copyOfRange(buffer.array(), 1, 1 + name.length)).isEqualTo(name);
+        assertThat(buffer.get(1 + name.length)).isEqualTo((byte) 60);
+
+        assertThat(CompactCodec.Writer.utf8Length("a😀\uD800b"))
+                .isEqualTo("a😀\uD800b".getBytes(StandardCharsets.UTF_8).length);
+    }
+
+    @Test
+    public void moviesShareAnActorDictionary() {
+        Movie first = movie("Pan Tadeusz", "Bogusław Linda", "Daniel Olbrychski");
+        Movie second = movie("Potop", "Daniel Olbrychski", "Małgorzata Braunek");
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+        CompactCodec.Writer writer = CompactCodec.writer(buffer);
+
+        writer.write(first);
+        int firstSize = buffer.position();
+        writer.write(second);
+
+        assertThat(writer.dictionarySize()).isEqualTo(3);
+        assertThat(buffer.position() - firstSize)
+                .isLessThan(firstSize - "Bogusław Linda".length());
+
+        buffer.flip();
+        CompactCodec.Reader reader = CompactCodec.reader(buffer);
+        assertThat(reader.readMovie()).usingRecursiveComparison().isEqualTo(first);
+        assertThat(reader.readMovie()).usingRecursiveComparison().isEqualTo(second);
+        assertThat(reader.hasNext()).isFalse();
+    }
+
+    @Test
+    public void overflowLeavesBufferAndDictionaryUntouched() {
+        ByteBuffer buffer = ByteBuffer.allocate(20);
+        CompactCodec.Writer writer = CompactCodec.writer(buffer);
+        writer.write("Anna", 30);
+
+        assertThatThrownBy(() -> writer.write(movie("Potop", "Daniel Olbrychski")))
+                .isInstanceOf(BufferOverflowException.class);
+        assertThat(buffer.position()).isEqualTo(6);
+        assertThat(writer.dictionarySize()).isZero();
+
+        buffer.flip();
+        assertThat(CompactCodec.reader(buffer).readCitizen().getName()).isEqualTo("Anna");
+    }
+
+    @Test
+    public void readsRecordsLargerThanTheBuffer() throws IOException {
+        String longName = "x".repeat(CompactCodec.DEFAULT_BUFFER_SIZE * 3);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (CompactCodec.Writer writer = CompactCodec.writer(bytes)) {
+            writer.write("Anna", 1);
+            writer.write(longName, 2);
+            writer.write("Jan", 3);
+        }
+
+        CompactCodec.Reader reader = CompactCodec.reader(new ByteArrayInputStream(bytes.toByteArray()));
+        assertThat(reader.readCitizen().getName()).isEqualTo("Anna");
+        assertThat(reader.readCitizen().getName()).isEqualTo(longName);
+        assertThat(reader.readCitizen().getName()).isEqualTo("Jan");
+    }
+
+    @Test
+    public void nameCacheReusesStrings() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(64);
+        CompactCodec.Writer writer = CompactCodec.writer(buffer);
+        writer.write("Anna", 1);
+        writer.write("Anna", 2);
+        buffer.flip();
+
+        CompactCodec.Reader reader = CompactCodec.reader(buffer).cacheNames(16);
+        assertThat(reader.readCitizen().getName()).isSameAs(reader.readCitizen().getName());
+    }
+
+    @Test
+    public void truncatedInputFails() {
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        CompactCodec.writer(buffer).write("Anna", 30);
+        byte[] truncated = Arrays.copyOf(buffer.array(), buffer.position() - 2);
+
+        assertThatThrownBy(() -> CompactCodec.reader(new ByteArrayInputStream(truncated)).readCitizen())
+                .isInstanceOf(UncheckedIOException.class)
+                .hasMessageContaining("Truncated");
+    }
+
+    private static Movie movie(String title, String... actors) {
+        Movie movie = new Movie(title);
+        Arrays.stream(actors).forEach(movie::addActor);
+        return movie;
+    }
+}
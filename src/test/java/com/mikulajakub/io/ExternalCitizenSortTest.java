@@ -0,0 +1,83 @@
+package com.mikulajakub.io;
+
+import com.mikulajakub.model.Citizen;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ExternalCitizenSortTest {
+
+    @TempDir
+    Path dir;
+
+    private static List<Citizen> citizens(int size) {
+        SplittableRandom random = new SplittableRandom(7);
+        return random.ints(size, 0, 1_000)
+                .mapToObj(i -> new Citizen("Citizen" + i, random.nextInt(100)))
+                .collect(Collectors.toList());
+    }
+
+    private static List<String> expected(List<Citizen> citizens, Comparator<Citizen> comparator) {
+        return citizens.stream().sorted(comparator).map(Citizen::toString).collect(Collectors.toList());
+    }
+
+    private static long totalSize(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.mapToLong(file -> file.toFile().length()).sum();
+        }
+    }
+
+    @Test
+    public void sortsInMemoryWhenInputFitsTheBudget() {
+        List<Citizen> citizens = citizens(1_000);
+        ExternalCitizenSort sort = ExternalCitizenSort.builder().tempDirectory(dir).build();
+
+        try (ExternalCitizenSort.Result result = sort.sort(citizens.stream())) {
+            assertThat(result.stream().map(Citizen::toString).collect(Collectors.toList()))
+                    .containsExactlyElementsOf(expected(citizens, ExternalCitizenSort.BY_NAME));
+            assertThat(result.runCount()).isZero();
+            assertThat(result.spilledBytes()).isZero();
+        }
+    }
+
+    @Test
+    public void spillsAndMergesRuns() throws IOException {
+        List<Citizen> citizens = citizens(50_000);
+        Comparator<Citizen> order = ExternalCitizenSort.BY_NAME_THEN_AGE.reversed();
+        ExternalCitizenSort sort = ExternalCitizenSort.builder()
+                .comparator(order)
+                .memoryBudgetBytes(100_000)
+                .tempDirectory(dir)
+                .build();
+
+        try (ExternalCitizenSort.Result result = sort.sort(citizens.parallelStream());
+             Stream<Citizen> sorted = result.stream()) {
+            assertThat(sorted.map(Citizen::toString).collect(Collectors.toList()))
+                    .containsExactlyElementsOf(expected(citizens, order));
+            assertThat(result.runCount()).isGreaterThan(1);
+            assertThat(result.spilledRecords()).isEqualTo(50_000);
+            assertThat(result.spilledBytes()).isEqualTo(totalSize(dir));
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    @Test
+    public void estimateCountsTheReferencesHeldWhileSorting() {
+        Citizen citizen = new Citizen("Citizen123", 30);
+
+        // object, String and bytes, then the chunk, array copy and merge buffer slots
+        assertThat(ExternalCitizenSort.estimateBytes(citizen)).isEqualTo(64 + 10 + 3 * 8);
+    }
+}
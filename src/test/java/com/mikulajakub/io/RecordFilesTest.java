@@ -0,0 +1,124 @@
+package com.mikulajakub.io;
+
+import com.mikulajakub.model.Citizen;
+import com.mikulajakub.model.Movie;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RecordFilesTest {
+
+    @TempDir
+    Path dir;
+
+    private Path write(String name, List<String> lines) throws IOException {
+        return Files.write(dir.resolve(name), lines, StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void parsesCitizenCsvAndCountsMalformedRows() throws IOException {
+        Path path = write("citizens.csv", Arrays.asList(
+                "name,age",
+                "Kuba,50",
+                "\"Błaż, \"\"the\"\" brave\",40",
+                "Emilka,twenty",
+                "",
+                "Łukasz,20\r"));
+        IngestStats stats = new IngestStats();
+
+        List<String> citizens;
+        try (Stream<Citizen> stream = RecordFiles.stream(path, RecordParsers.citizenCsv(), true, stats)) {
+            citizens = stream.map(Citizen::toString).collect(Collectors.toList());
+        }
+
+        assertThat(citizens).containsExactly("Kuba: 50", "Błaż, \"the\" brave: 40", "Łukasz: 20");
+        assertThat(stats.records()).isEqualTo(3);
+        assertThat(stats.malformed()).isEqualTo(1);
+        assertThat(stats.bytes()).isEqualTo(Files.size(path) - "name,age\n".length());
+    }
+
+    @Test
+    public void parsesNdjson() throws IOException {
+        Path citizens = write("citizens.ndjson", Arrays.asList(
+                "{\"name\":\"Kuba\",\"age\":50}",
+                "{ \"age\": 40, \"extra\": [1, \"x\"], \"name\": \"Bła\\u017c\" }",
+                "{\"name\":\"Emilka\"}"));
+        Path movies = write("movies.ndjson", Arrays.asList(
+                "{\"title\":\"Psy\",\"actors\":[\"Bogusław Linda\",\"Cezary Pazura\"]}",
+                "{\"title\":\"Killer\",\"actors\":[]}"));
+
+        try (Stream<Citizen> stream = RecordFiles.stream(citizens, RecordParsers.citizenJson())) {
+            assertThat(stream.map(Citizen::toString)).containsExactly("Kuba: 50", "Błaż: 40");
+        }
+        try (Stream<Movie> stream = RecordFiles.stream(movies, RecordParsers.movieJson())) {
+            List<Movie> parsed = stream.collect(Collectors.toList());
+            assertThat(parsed).extracting(Movie::getTitle).containsExactly("Psy", "Killer");
+            assertThat(parsed.get(0).getActors()).containsExactlyInAnyOrder("Bogusław Linda", "Cezary Pazura");
+            assertThat(parsed.get(1).getActors()).isEmpty();
+        }
+    }
+
+    @Test
+    public void parsesMovieCsv() throws IOException {
+        Path path = write("movies.csv", Arrays.asList("Psy,Bogusław Linda,Cezary Pazura", "Killer"));
+
+        try (Stream<Movie> stream = RecordFiles.stream(path, RecordParsers.movieCsv())) {
+            assertThat(stream.map(x -> x.getActors().size())).containsExactly(2, 0);
+        }
+    }
+
+    @Test
+    public void parallelReadSplitsOnRecordBoundaries() throws IOException {
+        Path path = dir.resolve("big.csv");
+        int rows = 300_000;
+        try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < rows; i++) {
+                writer.write("Citizen" + i + "," + i % 100 + "\n");
+            }
+        }
+        IngestStats stats = new IngestStats();
+
+        try (Stream<Citizen> stream = RecordFiles.stream(path, RecordParsers.citizenCsv(), false, stats)) {
+            List<Citizen> citizens = stream.parallel().collect(Collectors.toList());
+
+            assertThat(citizens).hasSize(rows);
+            assertThat(citizens.get(rows - 1).getName()).isEqualTo("Citizen" + (rows - 1));
+            assertThat(citizens.stream().mapToLong(Citizen::getAge).sum()).isEqualTo(rows / 100 * 4950L);
+        }
+        assertThat(stats.records()).isEqualTo(rows);
+        assertThat(stats.malformed()).isZero();
+        assertThat(stats.bytes()).isEqualTo(Files.size(path));
+    }
+
+    @Test
+    public void shortCircuitingOperationsPublishWhatTheyRead() throws IOException {
+        Path path = write("citizens.csv", Arrays.asList("Kuba,50", "Emilka,twenty", "Łukasz,20", "Ania,30"));
+        IngestStats first = new IngestStats();
+        IngestStats match = new IngestStats();
+
+        try (Stream<Citizen> stream = RecordFiles.stream(path, RecordParsers.citizenCsv(), false, first)) {
+            assertThat(stream.findFirst()).isPresent();
+        }
+        try (Stream<Citizen> stream = RecordFiles.stream(path, RecordParsers.citizenCsv(), false, match)) {
+            assertThat(stream.anyMatch(c -> c.getAge() == 20)).isTrue();
+        }
+
+        assertThat(first.records()).isEqualTo(1);
+        assertThat(first.bytes()).isEqualTo("Kuba,50\n".length());
+        assertThat(match.records()).isEqualTo(2);
+        assertThat(match.malformed()).isEqualTo(1);
+        assertThat(match.bytes())
+                .isEqualTo("Kuba,50\nEmilka,twenty\nŁukasz,20\n".getBytes(StandardCharsets.UTF_8).length);
+    }
+}
@@ -0,0 +1,81 @@
+package com.mikulajakub.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CitizenTableTest {
+
+    private final List<Citizen> citizens = Arrays.asList(
+            new Citizen("Ethan", 23),
+            new Citizen("Arturo", 52),
+            new Citizen("Juan", 18),
+            new Citizen("Alicia", 42),
+            new Citizen("Emilia", 17),
+            new Citizen("Ethan", 50)
+    );
+
+    @Test
+    public void roundTripsThroughList() {
+        CitizenTable table = CitizenTable.fromList(citizens);
+
+        assertThat(table.size()).isEqualTo(6);
+        assertThat(table.distinctNames()).isEqualTo(5);
+        assertThat(table.toList()).extracting(Citizen::toString)
+                .containsExactlyElementsOf(citizens.stream().map(Citizen::toString).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void aggregatesAges() {
+        CitizenTable table = CitizenTable.fromList(citizens);
+
+        assertThat(table.sumAges()).isEqualTo(202);
+        assertThat(table.ages().sum()).isEqualTo(202);
+        assertThat(table.maxAge().getAsInt()).isEqualTo(52);
+        assertThat(table.ages().parallel().max().getAsInt()).isEqualTo(52);
+        assertThat(table.rowsWhereAge(x -> x >= 40).toArray()).containsExactly(1, 3, 5);
+        assertThat(table.filterByAge(x -> x < 20).toList()).extracting(Citizen::getName)
+                .containsExactly("Juan", "Emilia");
+    }
+
+    @Test
+    public void groupsByName() {
+        CitizenTable table = CitizenTable.fromList(citizens);
+        int ethan = table.idOf("Ethan");
+
+        assertThat(table.countByName()[ethan]).isEqualTo(2);
+        assertThat(table.sumAgeByName()[ethan]).isEqualTo(73);
+        assertThat(table.maxAgeByName()[ethan]).isEqualTo(50);
+        assertThat(table.idOf("Kubek")).isEqualTo(-1);
+    }
+
+    @Test
+    public void filteredTableOnlyKnowsItsOwnNames() {
+        CitizenTable adults = CitizenTable.fromList(citizens).filterByAge(x -> x >= 40);
+
+        assertThat(adults.distinctNames()).isEqualTo(3);
+        assertThat(adults.idOf("Juan")).isEqualTo(-1);
+        assertThat(adults.countByName()).containsExactly(1, 1, 1);
+        assertThat(adults.nameOf(adults.nameId(2))).isEqualTo("Ethan");
+        assertThat(adults.toList()).extracting(Citizen::getName).containsExactly("Arturo", "Alicia", "Ethan");
+    }
+
+    @Test
+    public void sortsRowsByName() {
+        CitizenTable table = CitizenTable.fromList(citizens);
+
+        List<String> sorted = Arrays.stream(table.rowsSortedByName())
+                .mapToObj(row -> table.name(row) + ": " + table.age(row))
+                .collect(Collectors.toList());
+
+        assertThat(sorted).containsExactlyElementsOf(citizens.stream()
+                .sorted(Comparator.comparing(Citizen::getName))
+                .map(Citizen::toString)
+                .collect(Collectors.toList()));
+    }
+}
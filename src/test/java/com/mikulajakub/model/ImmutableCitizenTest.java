@@ -0,0 +1,47 @@
+package com.mikulajakub.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ImmutableCitizenTest {
+
+    @Test
+    public void equalByNameAndAge() {
+        List<ImmutableCitizen> citizens = Arrays.asList(
+                ImmutableCitizen.of("Kuba", 50),
+                ImmutableCitizen.of("Blaz", 40),
+                ImmutableCitizen.of("Kuba", 50),
+                ImmutableCitizen.of("Kuba", 51)
+        );
+
+        assertThat(citizens.stream().distinct()).hasSize(3);
+        assertThat(citizens.get(0)).isEqualTo(citizens.get(2)).hasSameHashCodeAs(citizens.get(2));
+        assertThat(citizens.get(0)).isNotEqualTo(citizens.get(3));
+    }
+
+    @Test
+    public void formatsLikeCitizen() {
+        Citizen citizen = new Citizen("Łukasz", 20);
+
+        assertThat(ImmutableCitizen.from(citizen).toString()).isEqualTo(citizen.toString());
+        assertThat(ImmutableCitizen.from(citizen).toCitizen().toString()).isEqualTo(citizen.toString());
+    }
+
+    @Test
+    public void builderInternsNames() {
+        NameInterner interner = new NameInterner();
+
+        ImmutableCitizen first = ImmutableCitizen.builder()
+                .name(new String("Emilka".toCharArray())).age(20).interner(interner).build();
+        ImmutableCitizen second = ImmutableCitizen.builder()
+                .name(new String("Emilka".toCharArray())).age(21).interner(interner).build();
+
+        assertThat(first.getName()).isSameAs(second.getName());
+        assertThat(interner.size()).isEqualTo(1);
+        assertThat(first.withAge(21)).isEqualTo(second);
+    }
+}
@@ -0,0 +1,89 @@
+package com.mikulajakub.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MovieIndexTest {
+
+    private static Movie[] movies() {
+        Movie[] movies = {
+                new Movie("Killer"),
+                new Movie("Psy"),
+                new Movie("Akademia Pana Kleksa")
+        };
+
+        movies[0].addActor("Cezary Pazura");
+        movies[0].addActor("Rewiński");
+
+        movies[1].addActor("Bogusław Linda");
+        movies[1].addActor("Cezary Pazura");
+
+        movies[2].addActor("Piotr Fronczewski");
+        movies[2].addActor("Meluzyna");
+        return movies;
+    }
+
+    @Test
+    public void findsMoviesOfAnActor() {
+        MovieIndex index = new MovieIndex();
+        index.addAll(Arrays.asList(movies()));
+
+        assertThat(index.moviesWith("Cezary Pazura")).extracting(Movie::getTitle)
+                .containsExactly("Killer", "Psy");
+        assertThat(index.moviesWithAll("Cezary Pazura", "Bogusław Linda")).extracting(Movie::getTitle)
+                .containsExactly("Psy");
+        assertThat(index.moviesWith("Nobody")).isEmpty();
+        assertThat(index.distinctActorCount()).isEqualTo(5);
+    }
+
+    @Test
+    public void followsActorsAddedAfterIndexing() {
+        Movie[] movies = movies();
+        MovieIndex index = new MovieIndex();
+        index.addAll(Arrays.asList(movies));
+
+        movies[2].addActor("Cezary Pazura");
+        movies[2].addActor("Cezary Pazura");
+        movies[1].addActor("Marek Kondrat");
+
+        assertThat(index.movieCount("Cezary Pazura")).isEqualTo(3);
+        assertThat(index.distinctActorCount()).isEqualTo(6);
+        assertThat(index.actors()).contains("Marek Kondrat");
+    }
+
+    @Test
+    public void forgetsRemovedMovies() {
+        Movie[] movies = movies();
+        MovieIndex index = new MovieIndex();
+        index.addAll(Arrays.asList(movies));
+
+        index.remove(movies[2]);
+        movies[2].addActor("Cezary Pazura");
+
+        assertThat(index.size()).isEqualTo(2);
+        assertThat(index.movieCount("Cezary Pazura")).isEqualTo(2);
+        assertThat(index.distinctActorCount()).isEqualTo(3);
+        assertThat(index.actors()).containsExactlyInAnyOrder("Cezary Pazura", "Rewiński", "Bogusław Linda");
+    }
+
+    @Test
+    public void listenersMayUnregisterDuringCallbacks() {
+        Movie[] movies = movies();
+        MovieIndex first = new MovieIndex();
+        MovieIndex second = new MovieIndex();
+        first.addAll(Arrays.asList(movies));
+        second.addAll(Arrays.asList(movies));
+        movies[0].onActorAdded((movie, actor) -> second.remove(movie));
+
+        movies[0].addActor("Jerzy Stuhr");
+        movies[0].addActor("Janusz Rewiński");
+
+        assertThat(first.moviesWith("Jerzy Stuhr")).containsExactly(movies[0]);
+        assertThat(first.moviesWith("Janusz Rewiński")).containsExactly(movies[0]);
+        assertThat(second.moviesWith("Janusz Rewiński")).isEmpty();
+        assertThat(second.size()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,105 @@
+package com.mikulajakub.stream;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AdaptiveExecutorTest {
+
+    private final List<String> names = Arrays.asList(
+            "Anna", "Jan", "Katarzyna", "Piotr", "Małgorzata",
+            "Andrzej", "Agnieszka", "Tomasz", "Ewa", "Marcin"
+    );
+
+    @Test
+    public void smallInputsRunSequentially() {
+        try (AdaptiveExecutor executor = AdaptiveExecutor.builder().parallelism(4).build()) {
+            String first = executor.execute("first-with-a", names,
+                    s -> s.filter(n -> n.startsWith("A")).findFirst().orElse("none"));
+
+            assertThat(first).isEqualTo("Anna");
+            AdaptiveExecutor.Decision decision = executor.lastDecision("first-with-a");
+            assertThat(decision.isParallel()).isFalse();
+            assertThat(decision.getEstimatedSize()).isEqualTo(names.size());
+            assertThat(decision.getNanosPerElement()).isNaN();
+        }
+    }
+
+    @Test
+    public void largeInputsRunInTheDedicatedPool() {
+        List<Integer> numbers = IntStream.range(0, 100_000).boxed().collect(Collectors.toList());
+        try (AdaptiveExecutor executor = AdaptiveExecutor.builder().parallelism(3).build()) {
+            AtomicInteger outsidePool = new AtomicInteger();
+            long sum = executor.execute("sum", numbers, s -> s
+                    .peek(x -> {
+                        if (ForkJoinTask.getPool() != executor.getPool()) {
+                            outsidePool.incrementAndGet();
+                        }
+                    })
+                    .mapToLong(Integer::longValue).sum());
+
+            assertThat(sum).isEqualTo(100_000L * 99_999 / 2);
+            assertThat(executor.lastDecision("sum").isParallel()).isTrue();
+            assertThat(outsidePool).hasValue(0);
+        }
+    }
+
+    @Test
+    public void measuredCostDrivesLaterDecisions() {
+        List<Integer> numbers = IntStream.range(0, 20_000).boxed().collect(Collectors.toList());
+        try (AdaptiveExecutor executor = AdaptiveExecutor.builder()
+                .parallelism(2)
+                .minParallelSize(1_000_000)
+                .minParallelWorkNanos(1_000_000)
+                .build()) {
+            executor.execute("slow", numbers, s -> s.mapToLong(AdaptiveExecutorTest::spin).sum());
+            assertThat(executor.lastDecision("slow").isParallel()).isFalse();
+
+            executor.execute("slow", numbers, s -> s.mapToLong(AdaptiveExecutorTest::spin).sum());
+            AdaptiveExecutor.Decision decision = executor.lastDecision("slow");
+            assertThat(decision.getNanosPerElement()).isPositive();
+            assertThat(decision.isParallel()).isTrue();
+            assertThat(decision.getLeafSize()).isBetween(1L, 10_000L);
+            assertThat(executor.decisions()).containsOnlyKeys("slow");
+        }
+    }
+
+    @Test
+    public void singleThreadPoolNeverGoesParallel() {
+        ForkJoinPool pool = new ForkJoinPool(1);
+        try (AdaptiveExecutor executor = AdaptiveExecutor.builder().pool(pool).minParallelSize(0).build()) {
+            executor.execute("count", names, s -> s.count());
+            assertThat(executor.lastDecision("count").isParallel()).isFalse();
+        }
+        assertThat(pool.isShutdown()).isFalse();
+        pool.shutdown();
+    }
+
+    @Test
+    public void granularitySpliteratorStopsAtLeafSize() {
+        Spliterator<Integer> spliterator = new AdaptiveExecutor.GranularitySpliterator<>(
+                IntStream.range(0, 1_000).boxed().collect(Collectors.toList()).spliterator(), 300);
+
+        Spliterator<Integer> prefix = spliterator.trySplit();
+        assertThat(prefix.estimateSize()).isEqualTo(500);
+        assertThat(prefix.trySplit()).isNull();
+        assertThat(spliterator.trySplit()).isNull();
+    }
+
+    private static long spin(int value) {
+        long x = value;
+        for (int i = 0; i < 2_000; i++) {
+            x = x * 6364136223846793005L + 1442695040888963407L;
+        }
+        return x;
+    }
+}
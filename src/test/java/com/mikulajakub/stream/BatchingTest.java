@@ -0,0 +1,159 @@
+package com.mikulajakub.stream;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class BatchingTest {
+
+    private final List<Integer> numbers = IntStream.range(0, 10_007).boxed().collect(Collectors.toList());
+
+    @Test
+    public void batchesHaveTheGivenSizeExceptTheLast() {
+        List<List<Integer>> batches = Batching.batch(numbers.stream(), 100).collect(Collectors.toList());
+
+        assertThat(batches).hasSize(101);
+        assertThat(batches.subList(0, 100)).allSatisfy(batch -> assertThat(batch).hasSize(100));
+        assertThat(batches.get(100)).containsExactly(10_000, 10_001, 10_002, 10_003, 10_004, 10_005, 10_006);
+        assertThat(flatten(batches)).isEqualTo(numbers);
+        assertThat(Batching.batch(numbers.stream(), 100).iterator().next()).isEqualTo(batches.get(0));
+    }
+
+    @Test
+    public void parallelBatchesKeepEncounterOrder() {
+        List<List<Integer>> batches = Batching.batch(numbers.stream().parallel(), 100)
+                .collect(Collectors.toList());
+
+        assertThat(flatten(batches)).isEqualTo(numbers);
+        assertThat(batches).allSatisfy(batch -> assertThat(batch).hasSizeBetween(1, 100));
+    }
+
+    @Test
+    public void listBatchesAreExactEvenInParallel() {
+        List<List<Integer>> batches = Batching.batch(numbers, 100).parallel().collect(Collectors.toList());
+
+        assertThat(batches).hasSize(101);
+        assertThat(batches.subList(0, 100)).allSatisfy(batch -> assertThat(batch).hasSize(100));
+        assertThat(flatten(batches)).isEqualTo(numbers);
+        assertThat(Batching.batch(new LinkedList<>(numbers), 100).count()).isEqualTo(101);
+        assertThat(Batching.batch(List.of(), 100).count()).isZero();
+    }
+
+    @Test
+    public void batchingIsLazy() {
+        AtomicInteger pulled = new AtomicInteger();
+        Stream<Integer> source = Stream.iterate(0, i -> i + 1).peek(i -> pulled.incrementAndGet());
+
+        List<Integer> first = Batching.batch(source, 10).findFirst().orElseThrow();
+
+        assertThat(first).hasSize(10);
+        assertThat(pulled.get()).isEqualTo(10);
+    }
+
+    @Test
+    public void chunksReuseOneBuffer() {
+        List<Batching.Chunk<Integer>> seen = new ArrayList<>();
+        List<Integer> copied = new ArrayList<>();
+
+        Batching.chunks(numbers.stream(), 100).forEach(chunk -> {
+            seen.add(chunk);
+            copied.addAll(chunk.toList());
+        });
+
+        assertThat(copied).isEqualTo(numbers);
+        assertThat(seen).hasSize(101);
+        assertThat(seen.stream().distinct().count()).isEqualTo(1);
+        assertThat(seen.get(0).isEmpty()).isTrue();
+        assertThatThrownBy(() -> seen.get(0).get(0)).isInstanceOf(IndexOutOfBoundsException.class);
+    }
+
+    @Test
+    public void parallelChunksCoverEveryElement() {
+        long sum = Batching.chunks(numbers.stream().parallel(), 64)
+                .mapToLong(chunk -> {
+                    long chunkSum = 0;
+                    for (int i = 0; i < chunk.size(); i++) {
+                        chunkSum += chunk.get(i);
+                    }
+                    return chunkSum;
+                })
+                .sum();
+
+        assertThat(sum).isEqualTo(numbers.stream().mapToLong(Integer::longValue).sum());
+    }
+
+    @Test
+    public void weightBatchesStayUnderTheMaximum() {
+        List<String> words = List.of("aaaa", "bb", "cccccc", "d", "eeeeeeeeeeee", "ff", "ggg");
+
+        List<List<String>> batches = Batching.batchByWeight(words.stream(), 8, Duration.ofMinutes(1), String::length)
+                .collect(Collectors.toList());
+
+        assertThat(batches).containsExactly(List.of("aaaa", "bb"), List.of("cccccc", "d"),
+                List.of("eeeeeeeeeeee"), List.of("ff", "ggg"));
+        List<List<String>> pulled = new ArrayList<>();
+        Batching.batchByWeight(words.stream(), 8, Duration.ofMinutes(1), String::length).iterator()
+                .forEachRemaining(pulled::add);
+        assertThat(pulled).isEqualTo(batches);
+    }
+
+    @Test
+    public void weightBatchesCloseAfterTheDelay() {
+        Stream<Integer> slow = numbers.stream().limit(6).peek(i -> sleep(5));
+
+        List<List<Integer>> batches = Batching.batchByWeight(slow, Long.MAX_VALUE, Duration.ofMillis(1), i -> 1)
+                .collect(Collectors.toList());
+
+        assertThat(batches).containsExactly(List.of(0, 1), List.of(2, 3), List.of(4, 5));
+    }
+
+    @Test
+    public void parallelWeightBatchesKeepEncounterOrder() {
+        List<List<Integer>> batches = Batching.batchByWeight(numbers.stream().parallel(), 50,
+                Duration.ofMinutes(1), i -> i % 7).collect(Collectors.toList());
+
+        assertThat(flatten(batches)).isEqualTo(numbers);
+        assertThat(batches).allSatisfy(batch -> assertThat(batch.stream().mapToInt(i -> i % 7).sum())
+                .satisfiesAnyOf(weight -> assertThat(weight).isLessThanOrEqualTo(50),
+                        weight -> assertThat(batch).hasSize(1)));
+    }
+
+    @Test
+    public void closingTheBatchesClosesTheSource() {
+        AtomicBoolean closed = new AtomicBoolean();
+
+        Batching.batch(numbers.stream().onClose(() -> closed.set(true)), 10).close();
+
+        assertThat(closed).isTrue();
+    }
+
+    @Test
+    public void rejectsInvalidArguments() {
+        assertThatThrownBy(() -> Batching.batch(numbers.stream(), 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Batching.batchByWeight(numbers.stream(), 10, Duration.ZERO, i -> 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static <T> List<T> flatten(List<List<T>> batches) {
+        return batches.stream().flatMap(List::stream).collect(Collectors.toList());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.mikulajakub.stream;
+
+import com.mikulajakub.model.Citizen;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class DistinctByTest {
+
+    private final List<Citizen> citizens = Arrays.asList(
+            new Citizen("Kuba", 50),
+            new Citizen("Blaz", 40),
+            new Citizen("Emilka", 20),
+            new Citizen("Kuba", 51)
+    );
+
+    @Test
+    public void keyKeepsFirstCitizenPerName() {
+        List<Citizen> distinct = citizens.stream()
+                .filter(DistinctBy.key(Citizen::getName))
+                .collect(Collectors.toList());
+
+        assertThat(distinct).extracting(Citizen::getAge).containsExactly(50, 40, 20);
+    }
+
+    @Test
+    public void keyIsExactOnParallelStream() {
+        long count = IntStream.range(0, 1_000_000)
+                .parallel()
+                .mapToObj(i -> new Citizen("name" + i % 10_000, i))
+                .filter(DistinctBy.key(Citizen::getName))
+                .count();
+
+        assertThat(count).isEqualTo(10_000);
+    }
+
+    @Test
+    public void recentForgetsKeysOutsideTheWindow() {
+        List<String> names = Arrays.asList("Kuba", "Kuba", "Blaz", "Emilka", "Kuba");
+
+        List<String> distinct = names.stream()
+                .filter(DistinctBy.recent(x -> x, 1))
+                .collect(Collectors.toList());
+
+        assertThat(distinct).containsExactly("Kuba", "Blaz", "Emilka", "Kuba");
+    }
+
+    @Test
+    public void recentIsExactWhenAllKeysFit() {
+        long count = IntStream.range(0, 100_000)
+                .parallel()
+                .mapToObj(i -> "name" + i % 1_000)
+                .filter(DistinctBy.recent(x -> x, 100_000))
+                .count();
+
+        assertThat(count).isEqualTo(1_000);
+    }
+
+    @Test
+    public void approximateStaysCloseToExactCount() {
+        long count = IntStream.range(0, 200_000)
+                .mapToObj(i -> "name" + i % 50_000)
+                .filter(DistinctBy.approximate(x -> x, 50_000, 0.01))
+                .count();
+
+        assertThat(count).isBetween(49_000L, 50_000L);
+    }
+
+    @Test
+    public void approximateTellsApartKeysWithEqualHashCodes() {
+        // "Aa" and "BB" share a hashCode, so do all 2^12 strings of 12 such pairs
+        List<String> keys = IntStream.range(0, 1 << 12)
+                .mapToObj(i -> IntStream.range(0, 12).mapToObj(b -> (i >> b & 1) == 0 ? "Aa" : "BB")
+                        .collect(Collectors.joining()))
+                .collect(Collectors.toList());
+        assertThat(keys.stream().map(String::hashCode).distinct().count()).isEqualTo(1);
+
+        long count = keys.stream().filter(DistinctBy.approximate(x -> x, keys.size(), 0.01)).count();
+
+        assertThat(count).isGreaterThan(4_000L);
+    }
+}
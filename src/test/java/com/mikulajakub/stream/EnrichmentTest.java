@@ -0,0 +1,160 @@
+package com.mikulajakub.stream;
+
+import com.mikulajakub.model.Citizen;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class EnrichmentTest {
+
+    private static List<Citizen> citizens(int size) {
+        return IntStream.range(0, size)
+                .mapToObj(i -> new Citizen("Citizen" + i, i % 90))
+                .collect(Collectors.toList());
+    }
+
+    private static String slowLookup(Citizen citizen) {
+        try {
+            Thread.sleep(5);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return citizen.getName() + "@" + citizen.getAge();
+    }
+
+    @Test
+    public void keepsInputOrderWithManyCallsInFlight() {
+        List<Citizen> citizens = citizens(500);
+
+        long start = System.nanoTime();
+        List<String> enriched;
+        try (Stream<String> stream = Enrichment.of(EnrichmentTest::slowLookup)
+                .maxConcurrency(100)
+                .apply(citizens.stream())) {
+            enriched = stream.collect(Collectors.toList());
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertThat(enriched).containsExactlyElementsOf(
+                citizens.stream().map(x -> x.getName() + "@" + x.getAge()).collect(Collectors.toList()));
+        assertThat(elapsedMillis).isLessThan(500 * 5 / 2);
+    }
+
+    @Test
+    public void unorderedReturnsEveryResult() {
+        List<Citizen> citizens = citizens(200);
+
+        try (Stream<String> stream = Enrichment.of(EnrichmentTest::slowLookup)
+                .ordered(false)
+                .apply(citizens.stream())) {
+            assertThat(stream.collect(Collectors.toList())).hasSize(200).doesNotHaveDuplicates();
+        }
+    }
+
+    @Test
+    public void settingsChangedAfterApplyDoNotAffectTheStream() {
+        List<Citizen> citizens = citizens(50);
+        Enrichment<Citizen, String> enrichment = Enrichment.of(EnrichmentTest::slowLookup).maxConcurrency(4);
+
+        try (Stream<String> stream = enrichment.apply(citizens.stream())) {
+            Iterator<String> results = stream.iterator();
+            String first = results.next();
+            enrichment.ordered(false).maxConcurrency(1);
+            List<String> rest = new ArrayList<>();
+            results.forEachRemaining(rest::add);
+
+            assertThat(first).isEqualTo("Citizen0@0");
+            assertThat(rest).hasSize(49).startsWith("Citizen1@1").endsWith("Citizen49@49");
+        }
+    }
+
+    @Test
+    public void passesNullResultsThrough() {
+        try (Stream<String> stream = Enrichment.<Citizen, String>of(x -> x.getAge() % 2 == 0 ? null : x.getName())
+                .apply(citizens(4).stream())) {
+            assertThat(stream.collect(Collectors.toList())).containsExactly(null, "Citizen1", null, "Citizen3");
+        }
+    }
+
+    @Test
+    public void boundsConcurrencyAndBatches() {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        AtomicInteger calls = new AtomicInteger();
+
+        Enrichment<Citizen, Integer> enrichment = Enrichment.<Citizen, Integer>batched(batch -> {
+            calls.incrementAndGet();
+            peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            running.decrementAndGet();
+            return batch.stream().map(Citizen::getAge).collect(Collectors.toList());
+        }, 10).maxConcurrency(4);
+
+        try (Stream<Integer> stream = enrichment.apply(citizens(1_000).stream())) {
+            assertThat(stream.mapToInt(x -> x).sum())
+                    .isEqualTo(citizens(1_000).stream().mapToInt(Citizen::getAge).sum());
+        }
+        assertThat(calls.get()).isEqualTo(100);
+        assertThat(peak.get()).isLessThanOrEqualTo(4);
+    }
+
+    @Test
+    public void propagatesLookupFailures() {
+        Stream<String> stream = Enrichment.<Citizen, String>of(x -> {
+            throw new IllegalStateException("backend down");
+        }).apply(citizens(3).stream());
+
+        assertThatThrownBy(stream::count)
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    public void rejectsBatchResultsOfTheWrongSize() {
+        Stream<Integer> shortResults = Enrichment.<Citizen, Integer>batched(batch -> List.of(batch.size()), 4)
+                .apply(citizens(10).stream());
+        Stream<Integer> nullResults = Enrichment.<Citizen, Integer>batched(batch -> null, 4)
+                .apply(citizens(10).stream());
+
+        assertThatThrownBy(shortResults::toList)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Lookup returned 1 results for a batch of 4");
+        assertThatThrownBy(nullResults::toList).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    public void failingSourceCancelsCallsInFlight() throws InterruptedException {
+        CountDownLatch interrupted = new CountDownLatch(3);
+        Stream<String> stream = Enrichment.<Citizen, String>of(x -> {
+            try {
+                Thread.sleep(60_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return x.getName();
+        }).apply(citizens(5).stream().peek(x -> {
+            if (x.getAge() == 3) {
+                throw new IllegalArgumentException("bad record");
+            }
+        }));
+
+        assertThatThrownBy(stream::count).isInstanceOf(IllegalArgumentException.class);
+        assertThat(interrupted.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+}
@@ -0,0 +1,86 @@
+package com.mikulajakub.stream;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class FlattenTest {
+
+    private final int[][] ragged = ragged(500);
+
+    @Test
+    public void intsMatchesFlatMapInOrder() {
+        int[] expected = Arrays.stream(ragged).flatMapToInt(Arrays::stream).toArray();
+
+        assertThat(Flatten.ints(ragged).toArray()).isEqualTo(expected);
+        assertThat(Flatten.ints(ragged).parallel().toArray()).isEqualTo(expected);
+        assertThat(Flatten.ints(ragged).parallel().asLongStream().sum())
+                .isEqualTo(Arrays.stream(expected).asLongStream().sum());
+    }
+
+    @Test
+    public void intsHandlesEmptyRowsAndMatrices() {
+        assertThat(Flatten.ints(new int[0][]).toArray()).isEmpty();
+        assertThat(Flatten.ints(new int[][]{{}, {}, {}}).parallel().count()).isZero();
+        assertThat(Flatten.ints(new int[][]{{}, {1, 2}, {}, {3}, {}}).toArray()).containsExactly(1, 2, 3);
+    }
+
+    @Test
+    public void splitsInsideLongRowsIntoBalancedHalves() {
+        int[][] matrix = {new int[10_000], {1, 2, 3}, new int[6_000]};
+        Spliterator.OfInt suffix = Flatten.ints(matrix).spliterator();
+
+        assertThat(suffix.hasCharacteristics(Spliterator.SUBSIZED)).isTrue();
+        Spliterator.OfInt prefix = suffix.trySplit();
+        assertThat(prefix.estimateSize()).isEqualTo(8_001);
+        assertThat(suffix.estimateSize()).isEqualTo(8_002);
+
+        Spliterator.OfInt quarter = prefix.trySplit();
+        assertThat(quarter.estimateSize() + prefix.estimateSize()).isEqualTo(8_001);
+        assertThat(quarter.getExactSizeIfKnown()).isEqualTo(4_000);
+    }
+
+    @Test
+    public void splitRangesConcatenateToTheWholeMatrix() {
+        Spliterator.OfInt suffix = Flatten.ints(ragged).spliterator();
+        Spliterator.OfInt prefix = suffix.trySplit();
+        Spliterator.OfInt middle = suffix.trySplit();
+
+        List<Integer> values = new ArrayList<>();
+        prefix.forEachRemaining((int value) -> values.add(value));
+        while (middle.tryAdvance((int value) -> values.add(value))) {
+        }
+        suffix.forEachRemaining((int value) -> values.add(value));
+
+        assertThat(values).containsExactlyElementsOf(
+                Arrays.stream(ragged).flatMapToInt(Arrays::stream).boxed().collect(Collectors.toList()));
+    }
+
+    @Test
+    public void flattensObjectArraysAndLists() {
+        String[][] words = {{"a", "b"}, {}, {"c"}, {"d", "e", "f"}};
+        assertThat(Flatten.of(words)).containsExactly("a", "b", "c", "d", "e", "f");
+
+        List<List<Integer>> lists = Arrays.stream(ragged)
+                .map(row -> Arrays.stream(row).boxed().collect(Collectors.toCollection(LinkedList::new)))
+                .collect(Collectors.toList());
+        assertThat(Flatten.of(lists).parallel().collect(Collectors.toList()))
+                .isEqualTo(lists.stream().flatMap(List::stream).collect(Collectors.toList()));
+    }
+
+    private static int[][] ragged(int rows) {
+        SplittableRandom random = new SplittableRandom(7);
+        return IntStream.range(0, rows)
+                .mapToObj(r -> random.ints(r % 50 == 0 ? 5_000 : random.nextInt(20)).toArray())
+                .toArray(int[][]::new);
+    }
+}
@@ -0,0 +1,113 @@
+package com.mikulajakub.stream;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class IgnoreCaseMatcherTest {
+
+    private final List<String> polishNames = Arrays.asList(
+            "Anna", "Jan", "Katarzyna", "Piotr", "Małgorzata",
+            "Andrzej", "Agnieszka", "Tomasz", "Ewa", "Marcin",
+            "Joanna", "Krzysztof", "Magdalena", "Michał", "Beata",
+            "Robert", "Dorota", "Marek", "Monika", "Łukasz", "Sebastian",
+            "sebastian"
+    );
+
+    @Test
+    public void containsMatchesToLowerCaseIdiom() {
+        long count = polishNames.stream().filter(IgnoreCaseMatcher.contains("s")).count();
+
+        assertThat(count).isEqualTo(6L);
+        assertThat(polishNames.stream().filter(IgnoreCaseMatcher.contains("S")).count()).isEqualTo(6L);
+    }
+
+    @Test
+    public void foldsPolishLettersWithoutLocale() {
+        assertThat(IgnoreCaseMatcher.contains("ł").test("ŁUKASZ")).isTrue();
+        assertThat(IgnoreCaseMatcher.contains("MAŁG").test("małgorzata")).isTrue();
+        assertThat(IgnoreCaseMatcher.startsWith("łu").test("Łukasz")).isTrue();
+        assertThat(IgnoreCaseMatcher.contains("ŁUKASZ").test("lukasz")).isFalse();
+
+        Locale previous = Locale.getDefault();
+        try {
+            Locale.setDefault(Locale.forLanguageTag("tr"));
+            assertThat(IgnoreCaseMatcher.contains("mi").test("MICHAŁ")).isTrue();
+        } finally {
+            Locale.setDefault(previous);
+        }
+    }
+
+    @Test
+    public void startsWithLikeFindFirst() {
+        List<String> names = List.of("Alice", "Bob", "Charlie", "David", "chloe");
+
+        assertThat(names.stream().filter(IgnoreCaseMatcher.startsWith("c")).findFirst()).hasValue("Charlie");
+        assertThat(IgnoreCaseMatcher.startsWith("CHLOE").test("chloe")).isTrue();
+        assertThat(IgnoreCaseMatcher.startsWith("chloes").test("chloe")).isFalse();
+        assertThat(IgnoreCaseMatcher.startsWith("").test("")).isTrue();
+    }
+
+    @Test
+    public void longPatternsAgreeWithNaiveSearch() {
+        SplittableRandom random = new SplittableRandom(3);
+        String alphabet = "abAB łŁsS";
+        for (int round = 0; round < 2_000; round++) {
+            String text = randomString(random, alphabet, random.nextInt(40));
+            String pattern = randomString(random, alphabet, 1 + random.nextInt(8));
+            int expected = text.toLowerCase(Locale.ROOT).indexOf(pattern.toLowerCase(Locale.ROOT));
+
+            IgnoreCaseMatcher matcher = IgnoreCaseMatcher.contains(pattern);
+            assertThat(matcher.indexIn(text)).as("%s in %s", pattern, text).isEqualTo(expected);
+            char[] padded = ("##" + text + "##").toCharArray();
+            assertThat(matcher.indexIn(padded, 2, 2 + text.length()))
+                    .isEqualTo(expected < 0 ? -1 : expected + 2);
+        }
+    }
+
+    @Test
+    public void containsAnyFindsEveryPattern() {
+        IgnoreCaseMatcher matcher = IgnoreCaseMatcher.containsAny("ski", "EWA", "łuk", "he", "she", "hers");
+
+        assertThat(polishNames.stream().filter(matcher).collect(Collectors.toList()))
+                .containsExactly("Ewa", "Łukasz");
+        assertThat(matcher.test("Kowalski")).isTrue();
+        assertThat(matcher.indexIn("USHERS")).isEqualTo(1);
+        assertThat(matcher.test("ushrs".toCharArray(), 0, 5)).isFalse();
+        assertThat(IgnoreCaseMatcher.containsAny("x", "").test("abc")).isTrue();
+        assertThatThrownBy(() -> IgnoreCaseMatcher.containsAny()).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void containsAnyAgreesWithNaiveSearch() {
+        SplittableRandom random = new SplittableRandom(5);
+        String alphabet = "abcAĄą";
+        for (int round = 0; round < 1_000; round++) {
+            List<String> patterns = IntStream.range(0, 2 + random.nextInt(5))
+                    .mapToObj(i -> randomString(random, alphabet, 1 + random.nextInt(4)))
+                    .collect(Collectors.toList());
+            String text = randomString(random, alphabet, random.nextInt(30));
+            boolean expected = patterns.stream()
+                    .anyMatch(p -> text.toLowerCase(Locale.ROOT).contains(p.toLowerCase(Locale.ROOT)));
+
+            assertThat(IgnoreCaseMatcher.containsAny(patterns).test(text)).as("%s in %s", patterns, text)
+                    .isEqualTo(expected);
+        }
+    }
+
+    private static String randomString(SplittableRandom random, String alphabet, int length) {
+        StringBuilder text = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            text.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,111 @@
+package com.mikulajakub.stream;
+
+import com.mikulajakub.model.Citizen;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class OrderedParallelSinkTest {
+
+    private static Stream<Citizen> citizens() {
+        return IntStream.range(0, 200_000)
+                .mapToObj(i -> new Citizen("Citizen" + i, i % 90))
+                .filter(x -> x.getAge() % 3 != 0);
+    }
+
+    @Test
+    public void matchesForEachOrderedByteForByte() throws IOException {
+        OrderedParallelSink.Encoder<Citizen> encoder = OrderedParallelSink.lines(Citizen::toString);
+
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        citizens().parallel().forEachOrdered(x -> {
+            try {
+                encoder.encode(x, expected);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        ByteArrayOutputStream actual = new ByteArrayOutputStream();
+        long written;
+        try (ForkJoinPool pool = new ForkJoinPool(4)) {
+            written = OrderedParallelSink.write(citizens(), encoder, actual, pool, 100);
+        }
+
+        assertThat(written).isEqualTo(citizens().count());
+        assertThat(actual.toByteArray()).isEqualTo(expected.toByteArray());
+    }
+
+    @Test
+    public void readsUnsizedSourcesALeafAtATimeAndEncodesThemInParallel() throws IOException {
+        int count = 20_000;
+        int leafSize = 100;
+        AtomicInteger read = new AtomicInteger();
+        AtomicInteger encoded = new AtomicInteger();
+        AtomicInteger maxAhead = new AtomicInteger();
+        AtomicInteger encoding = new AtomicInteger();
+        AtomicInteger maxEncoding = new AtomicInteger();
+        Iterator<Integer> source = new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return read.get() < count;
+            }
+
+            @Override
+            public Integer next() {
+                maxAhead.accumulateAndGet(read.get() - encoded.get(), Math::max);
+                return read.getAndIncrement();
+            }
+        };
+        OrderedParallelSink.Encoder<Integer> encoder = (element, out) -> {
+            if (element % leafSize == 0) {
+                maxEncoding.accumulateAndGet(encoding.incrementAndGet(), Math::max);
+                LockSupport.parkNanos(1_000_000);
+                encoding.decrementAndGet();
+            }
+            out.write((element + "\n").getBytes(StandardCharsets.UTF_8));
+            encoded.incrementAndGet();
+        };
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long written;
+        try (ForkJoinPool pool = new ForkJoinPool(4)) {
+            Stream<Integer> lines = StreamSupport.stream(
+                    Spliterators.spliteratorUnknownSize(source, Spliterator.ORDERED), false);
+            written = OrderedParallelSink.write(lines, encoder, out, pool, leafSize);
+        }
+
+        assertThat(written).isEqualTo(count);
+        assertThat(out.toString(StandardCharsets.UTF_8))
+                .isEqualTo(IntStream.range(0, count).mapToObj(i -> i + "\n").collect(Collectors.joining()));
+        // the window of 16 leaves and the one being read
+        assertThat(maxAhead.get()).isLessThanOrEqualTo(17 * leafSize);
+        assertThat(maxEncoding.get()).isGreaterThan(1);
+    }
+
+    @Test
+    public void writesSmallInputsInOrder() throws IOException {
+        String[] data = {"A", "b", "C", "d", "_", "E", "f", "G"};
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        OrderedParallelSink.write(Arrays.stream(data), OrderedParallelSink.lines(x -> x), out);
+
+        assertThat(out.toString("UTF-8")).isEqualTo("A\nb\nC\nd\n_\nE\nf\nG\n");
+    }
+}
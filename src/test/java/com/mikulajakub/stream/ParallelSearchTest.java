@@ -0,0 +1,79 @@
+package com.mikulajakub.stream;
+
+import com.mikulajakub.model.Citizen;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ParallelSearchTest {
+
+    private final List<String> names = Arrays.asList(
+            "Anna", "Jan", "Katarzyna", "Piotr", "Małgorzata",
+            "Andrzej", "Agnieszka", "Tomasz", "Ewa", "Marcin",
+            "Joanna", "Krzysztof", "Magdalena", "Michał", "Beata",
+            "Robert", "Dorota", "Marek", "Monika", "Łukasz"
+    );
+
+    @Test
+    public void minMatchesSortedFindFirst() {
+        assertThat(ParallelSearch.min(names, Comparator.naturalOrder()))
+                .isEqualTo(names.stream().sorted().findFirst());
+        assertThat(ParallelSearch.min(new LinkedList<>(names), Comparator.reverseOrder()))
+                .isEqualTo(names.stream().sorted(Comparator.reverseOrder()).findFirst());
+        assertThat(ParallelSearch.min(Arrays.<String>asList(), Comparator.naturalOrder())).isEmpty();
+    }
+
+    @Test
+    public void minKeepsFirstOfEqualElements() {
+        List<Citizen> citizens = IntStream.range(0, 100_000)
+                .mapToObj(i -> new Citizen("Citizen" + i, 20 + i % 50))
+                .collect(Collectors.toList());
+
+        Citizen youngest = ParallelSearch.min(citizens, Comparator.comparingInt(Citizen::getAge)).get();
+
+        assertThat(youngest.getName()).isEqualTo("Citizen0");
+    }
+
+    @Test
+    public void findsFirstMatchInEncounterOrder() {
+        int[] values = IntStream.range(0, 1_000_000).toArray();
+
+        assertThat(ParallelSearch.findFirst(names, x -> x.startsWith("M"))).contains("Małgorzata");
+        assertThat(ParallelSearch.firstIndex(values, x -> x > 0 && x % 99_991 == 0)).isEqualTo(99_991);
+        assertThat(ParallelSearch.firstIndex(values, x -> x < 0)).isEqualTo(-1);
+        assertThat(ParallelSearch.min(new int[]{4, 3, 6, 1, 1})).hasValue(1);
+    }
+
+    @Test
+    public void stopsScanningOnceAnswerIsKnown() {
+        List<Integer> values = IntStream.range(0, 10_000_000).boxed().collect(Collectors.toList());
+        AtomicInteger tested = new AtomicInteger();
+
+        int index = ParallelSearch.firstIndex(values, x -> {
+            tested.incrementAndGet();
+            return x == 10;
+        });
+
+        assertThat(index).isEqualTo(10);
+        assertThat(tested.get()).isLessThan(1_000_000);
+    }
+
+    @Test
+    public void matchesLikeStreams() {
+        int[] numbers = {0, 1, 2, 3, 4, 5, 6, 7, 8, 9};
+        int[] even = {0, 2, 4, 6, 8, 10};
+
+        assertThat(ParallelSearch.allMatch(numbers, x -> x % 2 == 0)).isFalse();
+        assertThat(ParallelSearch.anyMatch(even, x -> x % 2 != 0)).isFalse();
+        assertThat(ParallelSearch.anyMatch(names, x -> x.equals("Ewa"))).isTrue();
+        assertThat(ParallelSearch.allMatch(names, x -> !x.isEmpty())).isTrue();
+    }
+}
@@ -0,0 +1,133 @@
+package com.mikulajakub.stream;
+
+import com.mikulajakub.model.Citizen;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class PipelineCacheTest {
+
+    private final List<Citizen> citizens = Arrays.asList(
+            new Citizen("Kuba", 50),
+            new Citizen("Blaz", 40),
+            new Citizen("Emilka", 20)
+    );
+
+    @Test
+    public void computesOncePerVersionAndPipeline() {
+        PipelineCache cache = PipelineCache.builder().build();
+        AtomicInteger runs = new AtomicInteger();
+
+        for (int i = 0; i < 3; i++) {
+            List<String> sorted = cache.get(1, "names-sorted", () -> {
+                runs.incrementAndGet();
+                return citizens.stream().map(Citizen::getName).sorted().collect(Collectors.toList());
+            });
+            assertThat(sorted).containsExactly("Blaz", "Emilka", "Kuba");
+        }
+        assertThat(runs).hasValue(1);
+
+        long adults = cache.get(2, "names-sorted", () -> {
+            runs.incrementAndGet();
+            return List.of("Blaz", "Emilka", "Kuba", "Ola");
+        }).size();
+        assertThat(adults).isEqualTo(4);
+        assertThat(runs).hasValue(2);
+
+        PipelineCache.Stats stats = cache.stats();
+        assertThat(stats.getHits()).isEqualTo(2);
+        assertThat(stats.getMisses()).isEqualTo(2);
+        assertThat(stats.getSize()).isEqualTo(2);
+        assertThat(stats.getWeight()).isEqualTo(7);
+        assertThat(stats.getHitRate()).isEqualTo(0.5);
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedByWeight() {
+        PipelineCache cache = PipelineCache.builder().maximumWeight(10).build();
+        cache.get(1, "a", () -> new int[4]);
+        cache.get(1, "b", () -> new int[4]);
+        cache.get(1, "a", () -> new int[4]);
+        cache.get(1, "c", () -> new int[4]);
+
+        AtomicInteger runs = new AtomicInteger();
+        cache.get(1, "a", () -> new int[runs.incrementAndGet()]);
+        cache.get(1, "b", () -> new int[runs.incrementAndGet()]);
+
+        assertThat(runs).hasValue(1);
+        assertThat(cache.stats().getEvictions()).isEqualTo(1);
+        assertThat(cache.stats().getWeight()).isLessThanOrEqualTo(10);
+
+        cache.get(1, "huge", () -> new int[100]);
+        assertThat(cache.stats().getWeight()).isLessThanOrEqualTo(10);
+    }
+
+    @Test
+    public void concurrentCallersShareOneComputation() throws Exception {
+        PipelineCache cache = PipelineCache.builder().build();
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<CompletableFuture<Integer>> results = IntStream.range(0, 8)
+                    .mapToObj(i -> CompletableFuture.supplyAsync(() -> cache.<Integer>get(1, "max-age", () -> {
+                        runs.incrementAndGet();
+                        started.countDown();
+                        try {
+                            release.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        return citizens.stream().map(Citizen::getAge).max(Comparator.naturalOrder()).get();
+                    }), executor))
+                    .collect(Collectors.toList());
+            started.await();
+            Thread.sleep(50);
+            release.countDown();
+
+            assertThat(results).allSatisfy(result -> assertThat(result.join()).isEqualTo(50));
+            assertThat(runs).hasValue(1);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void failuresAreNotCached() {
+        PipelineCache cache = PipelineCache.builder().build();
+
+        assertThatThrownBy(() -> cache.get(1, "broken", () -> {
+            throw new IllegalStateException("boom");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(cache.<String>get(1, "broken", () -> "fixed")).isEqualTo("fixed");
+        assertThat(cache.stats().getLoadFailures()).isEqualTo(1);
+    }
+
+    @Test
+    public void invalidatesOldVersions() {
+        PipelineCache cache = PipelineCache.builder().build();
+        cache.get(1, "count", () -> citizens.size());
+        cache.get(2, "count", () -> citizens.size());
+        cache.get(3, "count", () -> citizens.size());
+
+        cache.invalidateOlderThan(3);
+        assertThat(cache.stats().getSize()).isEqualTo(1);
+        cache.invalidate(3, "count");
+        assertThat(cache.stats().getSize()).isZero();
+        assertThat(cache.stats().getWeight()).isZero();
+    }
+}
@@ -0,0 +1,94 @@
+package com.mikulajakub.stream;
+
+import org.junit.jupiter.api.Test;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.TabularData;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PipelineMetricsTest {
+
+    private final List<String> characters = Arrays.asList(
+            "Eddard \"Ned\" Stark",
+            "Robert Baratheon",
+            "Jaime Lannister",
+            "Catelyn Stark",
+            "Cersei Lannister",
+            "Tyrion Lannister",
+            "Tywin Lannister",
+            "Jon Snow"
+    );
+
+    @Test
+    public void countsElementsAndSelectivityPerStage() {
+        PipelineMetrics metrics = new PipelineMetrics("lannisters");
+
+        long count = characters.stream()
+                .peek(metrics.probe("source"))
+                .filter(metrics.filter("isLannister", (String x) -> x.contains("Lannister")))
+                .map(metrics.map("toUpperCase", String::toUpperCase))
+                .count();
+
+        Map<String, StageSnapshot> snapshot = metrics.snapshot();
+        assertThat(count).isEqualTo(4);
+        assertThat(snapshot).containsOnlyKeys("source", "isLannister", "toUpperCase");
+        assertThat(snapshot.get("source").getIn()).isEqualTo(8);
+        assertThat(snapshot.get("isLannister").getOut()).isEqualTo(4);
+        assertThat(snapshot.get("isLannister").getSelectivity()).isEqualTo(0.5);
+        assertThat(snapshot.get("toUpperCase").getIn()).isEqualTo(4);
+        assertThat(Arrays.stream(snapshot.get("toUpperCase").getLatencyHistogram()).sum()).isEqualTo(4);
+    }
+
+    @Test
+    public void snapshotHistogramCannotBeChangedFromOutside() {
+        long[] histogram = {1, 2, 3};
+        StageSnapshot snapshot = new StageSnapshot("stage", 6, 6, 60, histogram);
+
+        histogram[0] = 100;
+        snapshot.getLatencyHistogram()[1] = 100;
+
+        assertThat(snapshot.getLatencyHistogram()).containsExactly(1, 2, 3);
+    }
+
+    @Test
+    public void countsExactlyOnParallelStreams() {
+        PipelineMetrics metrics = new PipelineMetrics("parallel", false);
+
+        IntStream.range(0, 1_000_000).boxed()
+                .parallel()
+                .filter(metrics.filter("even", (Integer x) -> x % 2 == 0))
+                .forEach(metrics.probe("sink"));
+
+        assertThat(metrics.snapshot("even").getIn()).isEqualTo(1_000_000);
+        assertThat(metrics.snapshot("sink").getIn()).isEqualTo(500_000);
+        assertThat(metrics.snapshot("even").getTotalNanos()).isZero();
+
+        metrics.reset();
+        assertThat(metrics.snapshot("even").getIn()).isZero();
+    }
+
+    @Test
+    public void exposesStagesOverJmx() throws JMException {
+        PipelineMetrics metrics = new PipelineMetrics("jmx-test");
+        characters.stream().filter(metrics.filter("starks", (String x) -> x.endsWith("Stark"))).count();
+
+        ObjectName name = metrics.registerMBean();
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            TabularData stages = (TabularData) server.getAttribute(name, "Stages");
+
+            assertThat(server.getAttribute(name, "Name")).isEqualTo("jmx-test");
+            assertThat(stages.size()).isEqualTo(1);
+        } finally {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+        }
+    }
+}